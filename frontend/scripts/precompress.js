@@ -0,0 +1,56 @@
+// Writes gzip (.gz) and brotli (.br) copies of the text assets in the build
+// directory, so that the backend can serve them compressed without compressing
+// them on every request (see spring.web.resources.chain.compressed).
+//
+// Runs automatically after `npm run build` (as the "postbuild" script).
+// Usage: node scripts/precompress.js [directory]   (default: build)
+
+const fs = require("fs");
+const path = require("path");
+const zlib = require("zlib");
+
+const EXTENSIONS = new Set([".html", ".js", ".css", ".json", ".svg", ".txt", ".map", ".ico"]);
+const MIN_SIZE = 1024;
+
+function* files(dir) {
+  for (const entry of fs.readdirSync(dir, { withFileTypes: true })) {
+    const file = path.join(dir, entry.name);
+    if (entry.isDirectory()) {
+      yield* files(file);
+    } else if (EXTENSIONS.has(path.extname(entry.name))) {
+      yield file;
+    }
+  }
+}
+
+function writeIfSmaller(file, original, compressed) {
+  if (compressed.length < original.length) {
+    fs.writeFileSync(file, compressed);
+    return compressed.length;
+  }
+  return 0;
+}
+
+const root = process.argv[2] || "build";
+let before = 0;
+let gzipped = 0;
+let brotlied = 0;
+for (const file of files(root)) {
+  const original = fs.readFileSync(file);
+  if (original.length < MIN_SIZE) {
+    continue;
+  }
+  before += original.length;
+  gzipped += writeIfSmaller(`${file}.gz`, original, zlib.gzipSync(original, { level: 9 }));
+  brotlied += writeIfSmaller(
+    `${file}.br`,
+    original,
+    zlib.brotliCompressSync(original, {
+      params: {
+        [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+        [zlib.constants.BROTLI_PARAM_SIZE_HINT]: original.length,
+      },
+    }),
+  );
+}
+console.log(`precompressed ${before} bytes of assets in ${root}: ${gzipped} bytes gzip, ${brotlied} bytes brotli`);
@@ -34,6 +34,7 @@ export default function RestaurantEditPage({ storybook = false }) {
     data: {
       name: restaurant.name,
       description: restaurant.description,
+      version: restaurant.version,
     },
   });
 
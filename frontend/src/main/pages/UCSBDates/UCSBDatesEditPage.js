@@ -35,6 +35,7 @@ export default function UCSBDatesEditPage({ storybook = false }) {
       quarterYYYYQ: ucsbDate.quarterYYYYQ,
       name: ucsbDate.name,
       localDateTime: ucsbDate.localDateTime,
+      version: ucsbDate.version,
     },
   });
 
@@ -84,11 +84,13 @@ describe("RestaurantEditPage tests", () => {
         id: 17,
         name: "Freebirds",
         description: "Burritos",
+        version: 3,
       });
       axiosMock.onPut("/api/restaurants").reply(200, {
         id: "17",
         name: "Freebirds World Burrito",
         description: "Really big Burritos",
+        version: 4,
       });
     });
 
@@ -140,8 +142,9 @@ describe("RestaurantEditPage tests", () => {
         JSON.stringify({
           name: "Freebirds World Burrito",
           description: "Totally Giant Burritos",
+          version: 3,
         }),
-      ); // posted object
+      ); // posted object, with the version that was read
     });
 
     test("Changes when you click Update", async () => {
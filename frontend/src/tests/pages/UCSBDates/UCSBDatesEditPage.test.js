@@ -88,12 +88,14 @@ describe("UCSBDatesEditPage tests", () => {
         quarterYYYYQ: "20221",
         name: "Pi Day",
         localDateTime: "2022-03-14T15:00",
+        version: 3,
       });
       axiosMock.onPut("/api/ucsbdates").reply(200, {
         id: "17",
         quarterYYYYQ: "20224",
         name: "Christmas Morning",
         localDateTime: "2022-12-25T08:00",
+        version: 4,
       });
     });
 
@@ -183,8 +185,9 @@ describe("UCSBDatesEditPage tests", () => {
           quarterYYYYQ: "20224",
           name: "Christmas Morning",
           localDateTime: "2022-12-25T08:00",
+          version: 3,
         }),
-      ); // posted object
+      ); // posted object, with the version that was read
     });
   });
 });
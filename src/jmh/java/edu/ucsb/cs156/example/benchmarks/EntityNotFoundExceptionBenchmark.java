@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+
+/**
+ * Measures the cost of constructing the EntityNotFoundException thrown on every
+ * 404 from a getById/put/delete endpoint, with and without reading its message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityNotFoundExceptionBenchmark {
+
+  long id = 42L;
+
+  @Benchmark
+  public EntityNotFoundException construct() {
+    return new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id);
+  }
+
+  @Benchmark
+  public String constructAndGetMessage() {
+    return new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id).getMessage();
+  }
+}
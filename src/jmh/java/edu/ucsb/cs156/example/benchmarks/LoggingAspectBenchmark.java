@@ -0,0 +1,110 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import edu.ucsb.cs156.example.aop.LoggingAspect;
+
+/**
+ * Measures the overhead that LoggingAspect.logControllers adds to a controller call,
+ * by calling the same controller method directly and through an AOP proxy.
+ *
+ * Log output goes to a discarding appender, so the numbers include formatting
+ * and encoding the log line but not console I/O.  With logLevel=WARN the aspect's
+ * info messages are disabled.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+  /**
+   * A controller with a trivial handler, so that only the aspect is measured.
+   */
+  @RestController
+  public static class SampleController {
+    @GetMapping("/api/sample")
+    public String sample() {
+      return "sample";
+    }
+  }
+
+  @Param({ "INFO", "WARN" })
+  String logLevel;
+
+  SampleController direct;
+  SampleController advised;
+
+  @Setup
+  public void setup() {
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+    root.detachAndStopAllAppenders();
+
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(loggerContext);
+    encoder.setPattern("%d %5level --- [%thread] %logger : %msg%n");
+    encoder.start();
+
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(loggerContext);
+    appender.setEncoder(encoder);
+    appender.setOutputStream(OutputStream.nullOutputStream());
+    appender.start();
+    root.addAppender(appender);
+    loggerContext.getLogger(LoggingAspect.class).setLevel(Level.toLevel(logLevel));
+
+    direct = new SampleController();
+    AspectJProxyFactory factory = new AspectJProxyFactory(direct);
+    factory.setProxyTargetClass(true);
+    factory.addAspect(new LoggingAspect());
+    advised = factory.getProxy();
+
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/sample");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  @TearDown
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Benchmark
+  public String direct() {
+    return direct.sample();
+  }
+
+  @Benchmark
+  public String advised() {
+    return advised.sample();
+  }
+}
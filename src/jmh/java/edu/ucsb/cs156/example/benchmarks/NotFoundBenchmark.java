@@ -0,0 +1,88 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+
+/**
+ * Compares the cost of a GET /api/restaurants?id=... that answers 404 Not Found
+ * with one that finds the restaurant, against the application running on an
+ * in-memory H2 database (the "integration" profile).
+ *
+ * Both requests make the same query; the difference is throwing the
+ * EntityNotFoundException and writing the error body instead of serializing the
+ * restaurant.  See EntityNotFoundExceptionBenchmark for the exception on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NotFoundBenchmark {
+
+  ConfigurableApplicationContext context;
+  MockMvc mockMvc;
+  RequestPostProcessor user = user("cgaucho@ucsb.edu").roles("USER");
+  String found;
+  String notFound;
+
+  @Setup
+  public void setup() {
+    context = new SpringApplicationBuilder(ExampleApplication.class)
+        .profiles("integration")
+        .properties(
+            "server.port=0",
+            "logging.level.root=WARN",
+            "logging.level.sql=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+        .run();
+
+    mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+        .apply(springSecurity())
+        .build();
+    Restaurant restaurant = context.getBean(RestaurantRepository.class).save(
+        Restaurant.builder().name("Freebirds").description("Burritos").build());
+    found = "/api/restaurants?id=" + restaurant.getId();
+    notFound = "/api/restaurants?id=" + (restaurant.getId() + 1000);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int getByIdFound() throws Exception {
+    return mockMvc.perform(get(found).with(user)).andReturn().getResponse().getContentAsByteArray().length;
+  }
+
+  @Benchmark
+  public int getByIdNotFound() throws Exception {
+    return mockMvc.perform(get(notFound).with(user)).andReturn().getResponse().getContentAsByteArray().length;
+  }
+}
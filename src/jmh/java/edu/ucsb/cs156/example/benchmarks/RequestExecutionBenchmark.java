@@ -0,0 +1,187 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Session;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+
+/**
+ * Compares the throughput of the application handling concurrent HTTP requests on
+ * Tomcat's pool of platform threads (200 worker threads by default) with handling
+ * them on virtual threads ({@code spring.threads.virtual.enabled=true}, i.e.
+ * VIRTUAL_THREADS=true).
+ *
+ * For each mode the application is started on a random port on an in-memory H2
+ * database (the "integration" profile), with a connection pool of {@code connections}
+ * connections.  Each benchmark call sends a burst of {@code concurrentRequests}
+ * requests over real HTTP, with a session that holds an OAuth2 login, to
+ * /api/ucsbdiningcommonsmenuitem/diningcommons, which runs a JDBC query for every
+ * request (it has no ETag or cache), and waits for all of them.
+ *
+ * The {@code requests} counter is the throughput in requests per second; the
+ * primary score is in bursts per second.  Virtual threads only help while Tomcat's
+ * thread pool is the bottleneck: once the connection pool is smaller than the number
+ * of concurrent requests, both modes wait for connections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestExecutionBenchmark {
+
+  /**
+   * Counts the requests that were answered, so that JMH reports them per second.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Requests {
+    public long requests;
+    public long failures;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      requests = 0;
+      failures = 0;
+    }
+  }
+
+  @Param({ "platform", "virtual" })
+  String mode;
+
+  @Param({ "50", "500" })
+  int concurrentRequests;
+
+  @Param({ "10", "100" })
+  int connections;
+
+  ConfigurableApplicationContext context;
+  HttpClient client;
+  HttpRequest request;
+
+  @Setup
+  public void setup() {
+    context = new SpringApplicationBuilder(ExampleApplication.class)
+        .profiles("integration")
+        .properties(
+            "server.port=0",
+            "spring.threads.virtual.enabled=" + mode.equals("virtual"),
+            "spring.datasource.hikari.maximum-pool-size=" + connections,
+            "logging.level.root=WARN",
+            "logging.level.sql=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+        .run();
+
+    List<UCSBDiningCommonsMenuItem> items = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      items.add(UCSBDiningCommonsMenuItem.builder()
+          .diningCommonsCode(i % 2 == 0 ? "ortega" : "de-la-guerra")
+          .name("Menu item " + i)
+          .station("Station " + (i % 10))
+          .build());
+    }
+    context.getBean(UCSBDiningCommonsMenuItemRepository.class).saveAll(items);
+
+    TomcatWebServer webServer = (TomcatWebServer) ((ServletWebServerApplicationContext) context).getWebServer();
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    request = HttpRequest.newBuilder(URI.create("http://localhost:" + webServer.getPort()
+            + "/api/ucsbdiningcommonsmenuitem/diningcommons?diningCommonsCode=ortega&limit=100"))
+        .header("Cookie", "JSESSIONID=" + loggedInSession(webServer))
+        .GET()
+        .build();
+  }
+
+  /**
+   * Creates a Tomcat session holding an OAuth2 login, as if the user had logged in,
+   * since the benchmark can't go through the OAuth2 provider.
+   * @return the id of the session
+   */
+  private String loggedInSession(TomcatWebServer webServer) {
+    Map<String, Object> attributes = Map.of(
+        "sub", "benchmark",
+        "email", "cgaucho@ucsb.edu",
+        "name", "Chris Gaucho",
+        "given_name", "Chris",
+        "family_name", "Gaucho",
+        "email_verified", true,
+        "picture", "https://example.org/cgaucho.jpg",
+        "locale", "en",
+        "hd", "ucsb.edu");
+    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    OAuth2AuthenticationToken token = new OAuth2AuthenticationToken(
+        new DefaultOAuth2User(authorities, attributes, "sub"), authorities, "my-oauth-provider");
+
+    Context tomcatContext = (Context) webServer.getTomcat().getHost().findChildren()[0];
+    Session session = tomcatContext.getManager().createSession(null);
+    session.getSession().setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY,
+        new SecurityContextImpl(token));
+    return session.getIdInternal();
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close();
+    context.close();
+  }
+
+  /**
+   * Sends a burst of requests and waits for all of them to be answered.
+   * @param counters counts the requests answered with 200, and the others
+   * @return the total number of bytes received
+   */
+  @Benchmark
+  public long burst(Requests counters) {
+    List<CompletableFuture<HttpResponse<byte[]>>> responses = new ArrayList<>(concurrentRequests);
+    for (int i = 0; i < concurrentRequests; i++) {
+      responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()));
+    }
+    long bytes = 0;
+    for (CompletableFuture<HttpResponse<byte[]>> response : responses) {
+      HttpResponse<byte[]> r = response.join();
+      if (r.statusCode() == 200) {
+        counters.requests++;
+      } else {
+        counters.failures++;
+      }
+      bytes += r.body().length;
+    }
+    return bytes;
+  }
+}
@@ -0,0 +1,130 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+
+/**
+ * Measures the request path end to end against the application running on an
+ * in-memory H2 database (the "integration" profile): security filters,
+ * LoggingAspect, the controller, the repository and JSON serialization.
+ *
+ * The menu item table is seeded with {@code rows} rows.  Logging is turned down to
+ * WARN so that console output does not dominate; see LoggingAspectBenchmark for
+ * the cost of the aspect itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestPathBenchmark {
+
+  @Param({ "1000", "100000" })
+  int rows;
+
+  ConfigurableApplicationContext context;
+  MockMvc mockMvc;
+  CurrentUserService currentUserService;
+  OAuth2AuthenticationToken token;
+
+  @Setup
+  public void setup() {
+    context = new SpringApplicationBuilder(ExampleApplication.class)
+        .profiles("integration")
+        .properties(
+            "server.port=0",
+            "logging.level.root=WARN",
+            "logging.level.sql=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+        .run();
+
+    mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+        .apply(springSecurity())
+        .build();
+    currentUserService = context.getBean("currentUser", CurrentUserService.class);
+
+    List<UCSBDiningCommonsMenuItem> items = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      items.add(UCSBDiningCommonsMenuItem.builder()
+          .diningCommonsCode(i % 2 == 0 ? "ortega" : "de-la-guerra")
+          .name("Menu item " + i)
+          .station("Station " + (i % 10))
+          .build());
+    }
+    context.getBean(UCSBDiningCommonsMenuItemRepository.class).saveAll(items);
+
+    Map<String, Object> attributes = Map.of(
+        "sub", "benchmark",
+        "email", "cgaucho@ucsb.edu",
+        "name", "Chris Gaucho",
+        "given_name", "Chris",
+        "family_name", "Gaucho",
+        "email_verified", true,
+        "picture", "https://example.org/cgaucho.jpg",
+        "locale", "en",
+        "hd", "ucsb.edu");
+    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    token = new OAuth2AuthenticationToken(
+        new DefaultOAuth2User(authorities, attributes, "sub"), authorities, "my-oauth-provider");
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public CurrentUser getCurrentUser() {
+    SecurityContextHolder.getContext().setAuthentication(token);
+    try {
+      return currentUserService.getCurrentUser();
+    } finally {
+      SecurityContextHolder.clearContext();
+    }
+  }
+
+  @Benchmark
+  public int getAllMenuItems() throws Exception {
+    return mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all").with(authentication(token)))
+        .andReturn()
+        .getResponse()
+        .getContentAsByteArray()
+        .length;
+  }
+}
@@ -0,0 +1,69 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+
+/**
+ * Measures Jackson serialization of the {@code Iterable<UCSBDiningCommonsMenuItem>}
+ * returned by the /all endpoint, both into a byte array and straight into an
+ * output stream (which is what the message converter does).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({ "1000", "100000" })
+  int rows;
+
+  ObjectMapper mapper;
+  Iterable<UCSBDiningCommonsMenuItem> items;
+
+  @Setup
+  public void setup() {
+    mapper = Jackson2ObjectMapperBuilder.json().build();
+    List<UCSBDiningCommonsMenuItem> list = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      list.add(UCSBDiningCommonsMenuItem.builder()
+          .id(i + 1)
+          .diningCommonsCode(i % 2 == 0 ? "ortega" : "de-la-guerra")
+          .name("Menu item " + i)
+          .station("Station " + (i % 10))
+          .build());
+    }
+    items = list;
+  }
+
+  @Benchmark
+  public byte[] writeValueAsBytes() throws IOException {
+    return mapper.writeValueAsBytes(items);
+  }
+
+  @Benchmark
+  public void writeToStream() throws IOException {
+    mapper.writeValue(OutputStream.nullOutputStream(), items);
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.AntPathMatcher;
+
+import edu.ucsb.cs156.example.config.SpaFallbackFilter;
+import edu.ucsb.cs156.example.services.StaticAssetService;
+
+/**
+ * Measures the cost of deciding whether a request is for one of the frontend's
+ * client-side routes, per request:
+ *
+ * <ul>
+ * <li>{@code antPattern}: how FrontendController used to do it, matching
+ * {@code /**}{@code /{path:[^\.]*}} with the AntPathMatcher</li>
+ * <li>{@code prefixTrie}: how SpaFallbackFilter does it, looking up the reserved
+ * prefixes in a trie and checking the last segment for a dot</li>
+ * </ul>
+ *
+ * The paths are an API call, a client-side route, an asset and an OAuth redirect.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpaRoutingBenchmark {
+
+  @Param({
+      "/api/ucsbdiningcommonsmenuitem/all",
+      "/diningcommonsmenuitem/edit/17",
+      "/static/js/main.3f2a1b9c.js",
+      "/oauth2/authorization/google" })
+  String path;
+
+  static final String PATTERN = "/**/{path:[^\\.]*}";
+
+  AntPathMatcher antPathMatcher = new AntPathMatcher();
+  SpaFallbackFilter filter;
+
+  @Setup
+  public void setup() throws Exception {
+    filter = new SpaFallbackFilter(new StaticAssetService("classpath*:public/"),
+        List.of("/api", "/oauth2", "/login", "/logout", "/csrf", "/swagger-ui", "/v3/api-docs",
+            "/h2-console", "/actuator", "/error"));
+  }
+
+  @Benchmark
+  public boolean antPattern() {
+    return antPathMatcher.match(PATTERN, path);
+  }
+
+  @Benchmark
+  public boolean prefixTrie() {
+    return filter.isSpaRoute(path);
+  }
+}
@@ -0,0 +1,122 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+
+/**
+ * Compares the two ways of updating a row, against the application running on an
+ * in-memory H2 database (the "integration" profile):
+ *
+ * <ul>
+ * <li>{@code readModifySave}: how the PUT endpoints used to work; findById, copy the
+ * fields, then save (which merges, i.e. reads the row again before updating it)</li>
+ * <li>{@code conditionalUpdate}: how they work now; a single
+ * {@code update ... where id = ? and version = ?} statement</li>
+ * </ul>
+ *
+ * {@code putRestaurant} measures the whole PUT request, including security, the
+ * controller and JSON, for comparison.  With H2 in memory there is no network round
+ * trip, so against Postgres the saving per request is larger than measured here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UpdateBenchmark {
+
+  ConfigurableApplicationContext context;
+  RestaurantRepository restaurantRepository;
+  MockMvc mockMvc;
+  ObjectMapper mapper;
+  long id;
+  long version;
+  int n;
+
+  @Setup
+  public void setup() {
+    context = new SpringApplicationBuilder(ExampleApplication.class)
+        .profiles("integration")
+        .properties(
+            "server.port=0",
+            "logging.level.root=WARN",
+            "logging.level.sql=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN")
+        .run();
+
+    mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context)
+        .apply(springSecurity())
+        .build();
+    mapper = context.getBean(ObjectMapper.class);
+    restaurantRepository = context.getBean(RestaurantRepository.class);
+    Restaurant restaurant = restaurantRepository.save(
+        Restaurant.builder().name("Freebirds").description("Burritos").build());
+    id = restaurant.getId();
+    version = restaurant.getVersion();
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Restaurant readModifySave() {
+    Restaurant restaurant = restaurantRepository.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
+    restaurant.setDescription("Burritos " + n++);
+    Restaurant saved = restaurantRepository.save(restaurant);
+    version = saved.getVersion();
+    return saved;
+  }
+
+  @Benchmark
+  public int conditionalUpdate() {
+    int rows = restaurantRepository.updateIfVersionMatches(id, "Freebirds", "Burritos " + n++, version);
+    version++;
+    return rows;
+  }
+
+  @Benchmark
+  public int putRestaurant() throws Exception {
+    Restaurant incoming = Restaurant.builder().name("Freebirds").description("Burritos " + n++).build();
+    return mockMvc.perform(put("/api/restaurants?id=" + id)
+            .with(user("admingaucho@ucsb.edu").roles("ADMIN", "USER"))
+            .with(csrf())
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(mapper.writeValueAsBytes(incoming)))
+        .andReturn()
+        .getResponse()
+        .getStatus();
+  }
+}
@@ -0,0 +1,129 @@
+package edu.ucsb.cs156.example.aop;
+
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.VersionRequiredException;
+import edu.ucsb.cs156.example.services.LatencyStatsService;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is an Aspect that times every invocation of a controller method (the same
+ * methods that LoggingAspect logs) and records the latency, together with the HTTP status
+ * of the outcome, in the LatencyStatsService.
+ * 
+ * It runs outside of method security, so requests rejected by {@code @PreAuthorize}
+ * are counted (as 403) too.
+ */
+
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LatencyAspect {
+  // language=PointcutExpression
+  private static final String pointcut = """
+      @annotation(org.springframework.web.bind.annotation.RequestMapping) ||
+      @annotation(org.springframework.web.bind.annotation.GetMapping) ||
+      @annotation(org.springframework.web.bind.annotation.PostMapping) ||
+      @annotation(org.springframework.web.bind.annotation.PutMapping) ||
+      @annotation(org.springframework.web.bind.annotation.DeleteMapping) ||
+      @annotation(org.springframework.web.bind.annotation.PatchMapping)
+      """;
+
+  @Autowired
+  LatencyStatsService latencyStatsService;
+
+  private final Map<Method, String> endpointNames = new ConcurrentHashMap<>();
+
+  /**
+   * This method is called around any controller method that is annotated with
+   * {@code @RequestMapping}, {@code @GetMapping}, {@code @PostMapping}, {@code @PutMapping}, {@code @DeleteMapping},
+   * or {@code @PatchMapping}.
+   * @param joinPoint the join point (injected by Spring framework)
+   * @return the value returned by the controller method
+   * @throws Throwable whatever the controller method throws
+   */
+  @Around(pointcut)
+  public Object timeControllers(ProceedingJoinPoint joinPoint) throws Throwable {
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    String endpoint = endpointNames.computeIfAbsent(method,
+        m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
+    long start = System.nanoTime();
+    try {
+      Object result = joinPoint.proceed();
+      latencyStatsService.record(endpoint, statusOf(result, method), System.nanoTime() - start);
+      return result;
+    } catch (Throwable t) {
+      latencyStatsService.record(endpoint, statusOf(t), System.nanoTime() - start);
+      throw t;
+    }
+  }
+
+  /**
+   * Returns the status that a controller method's return value will produce.
+   * A method that returns null may already have written the response itself
+   * (e.g. a 304 Not Modified from a conditional GET), so then the status that
+   * was set on the response counts.
+   */
+  static int statusOf(Object result, Method method) {
+    if (result instanceof ResponseEntity<?> entity) {
+      return entity.getStatusCode().value();
+    }
+    if (result == null
+        && RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+      HttpServletResponse response = attributes.getResponse();
+      if (response != null && response.getStatus() != HttpStatus.OK.value()) {
+        return response.getStatus();
+      }
+    }
+    return statusOf(AnnotatedElementUtils.findMergedAnnotation(method, ResponseStatus.class), HttpStatus.OK);
+  }
+
+  /**
+   * Returns the status that an exception thrown by a controller method will produce.
+   */
+  static int statusOf(Throwable t) {
+    if (t instanceof EntityNotFoundException) {
+      return HttpStatus.NOT_FOUND.value();
+    }
+    if (t instanceof OptimisticLockingFailureException || t instanceof DataIntegrityViolationException) {
+      return HttpStatus.CONFLICT.value();
+    }
+    if (t instanceof VersionRequiredException) {
+      return HttpStatus.PRECONDITION_REQUIRED.value();
+    }
+    if (t instanceof AccessDeniedException) {
+      return HttpStatus.FORBIDDEN.value();
+    }
+    if (t instanceof ErrorResponse errorResponse) {
+      return errorResponse.getStatusCode().value();
+    }
+    return statusOf(AnnotatedElementUtils.findMergedAnnotation(t.getClass(), ResponseStatus.class),
+        HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  private static int statusOf(ResponseStatus responseStatus, HttpStatus otherwise) {
+    return responseStatus != null ? responseStatus.code().value() : otherwise.value();
+  }
+}
@@ -5,19 +5,29 @@ import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Optional;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class is an Aspect that logs all invocations of controller methods that are annotated
  * with {@code @RequestMapping}, {@code @GetMapping}, {@code @PostMapping}, {@code @PutMapping}, {@code @DeleteMapping},
  * or {@code @PatchMapping}.
  * 
+ * The part of each log line that only depends on the handler method ("handled by x in y") is
+ * computed once per method, when the application starts, and nothing is formatted at all unless
+ * INFO logging is enabled for this class.
+ * 
  * For more information on Aspect Oriented Programming (AOP)
  * and AspectJ, including what a {@code JoinPoint} is, 
  * refer to <a href="https://www.baeldung.com/aspectj">https://www.baeldung.com/aspectj</a> 
@@ -38,8 +48,39 @@ public class LoggingAspect {
       @annotation(org.springframework.web.bind.annotation.PatchMapping)
       """;
 
-  private ArrayList<String> stoplist = new ArrayList<String>(Arrays.asList(
-      "edu.ucsb.cs156.example.controllers.FrontendProxyController"));
+  private static final Set<String> stoplist = Set.of(
+      "edu.ucsb.cs156.example.controllers.FrontendProxyController");
+
+  /**
+   * What to log for a handler method: the precomputed "method in class" text,
+   * or nothing at all if the controller is on the stoplist.
+   * 
+   * @param handledBy text describing the handler method
+   * @param enabled whether invocations of the handler method are logged
+   */
+  record HandlerLogDescriptor(String handledBy, boolean enabled) {
+    static HandlerLogDescriptor of(Method method) {
+      String declaringTypeName = method.getDeclaringClass().getName();
+      return new HandlerLogDescriptor(
+          method.getName() + " in " + declaringTypeName,
+          !stoplist.contains(declaringTypeName));
+    }
+  }
+
+  private final Map<Method, HandlerLogDescriptor> descriptors = new ConcurrentHashMap<>();
+
+  /**
+   * This method builds the log descriptors for every handler method known to Spring MVC,
+   * once the application context has been started.
+   * @param event the context refreshed event (provided by Spring framework)
+   */
+  @EventListener
+  public void resolveHandlerMethods(ContextRefreshedEvent event) {
+    event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class).values()
+        .forEach(mapping -> mapping.getHandlerMethods().values()
+            .forEach(handlerMethod -> descriptor(handlerMethod.getMethod())));
+    log.info("LoggingAspect resolved {} handler methods", descriptors.size());
+  }
 
   /**
    * This method is called before any controller method that is annotated with
@@ -49,26 +90,39 @@ public class LoggingAspect {
    */
   @Before(pointcut)
   public void logControllers(JoinPoint joinPoint) {
-    getCurrentHttpRequest().ifPresent(
-        request -> {
-          String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
-          if (!stoplist.contains(declaringTypeName)) {
-            log.info("===== %s %s handled by %s in %s".formatted(request.getMethod(), request.getRequestURI(),
-                joinPoint.getSignature().getName(), declaringTypeName));
-          }
-        });
+    if (!log.isInfoEnabled()) {
+      return;
+    }
+    HandlerLogDescriptor descriptor = descriptor(((MethodSignature) joinPoint.getSignature()).getMethod());
+    if (!descriptor.enabled()) {
+      return;
+    }
+    HttpServletRequest request = getCurrentHttpRequest();
+    if (request != null) {
+      log.info("===== {} {} handled by {}", request.getMethod(), request.getRequestURI(), descriptor.handledBy());
+    }
+  }
+
+  /**
+   * Returns the descriptor for a handler method, building it on first use for
+   * any method that was not known at startup.
+   */
+  private HandlerLogDescriptor descriptor(Method method) {
+    HandlerLogDescriptor descriptor = descriptors.get(method);
+    return descriptor != null ? descriptor : descriptors.computeIfAbsent(method, HandlerLogDescriptor::of);
   }
 
   /**
-   * The function `getCurrentHttpRequest` returns an `Optional` containing the current
+   * The function `getCurrentHttpRequest` returns the current
    * `HttpServletRequest` if available.
    * 
-   * @return An Optional object containing the current HttpServletRequest, if available.
+   * @return the current HttpServletRequest, or null if there is none.
    */
-  private static Optional<HttpServletRequest> getCurrentHttpRequest() {
-    return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
-        .filter(ServletRequestAttributes.class::isInstance)
-        .map(ServletRequestAttributes.class::cast)
-        .map(ServletRequestAttributes::getRequest);
+  private static HttpServletRequest getCurrentHttpRequest() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (attributes instanceof ServletRequestAttributes servletRequestAttributes) {
+      return servletRequestAttributes.getRequest();
+    }
+    return null;
   }
 }
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.Locale;
+
+/**
+ * Reads an Accept-Encoding request header such as {@code gzip, deflate, br;q=0.8}.
+ *
+ * Each coding may have a weight ({@code q}) between 0 and 1; a coding without one has
+ * weight 1, and {@code q=0} means the coding must not be used.  A coding that is not
+ * listed gets the weight of {@code *}, if there is one, and is not acceptable
+ * otherwise.
+ */
+public final class AcceptEncoding {
+
+  private AcceptEncoding() {
+  }
+
+  /**
+   * This method returns the weight the client gives to a content coding.
+   * @param header the Accept-Encoding header, or null if there is none
+   * @param coding the content coding, e.g. gzip
+   * @return the weight, from 0 (not acceptable) to 1
+   */
+  public static double quality(String header, String coding) {
+    if (header == null) {
+      return 0;
+    }
+    double wildcard = 0;
+    for (String element : header.split(",")) {
+      String[] parts = element.split(";");
+      String name = parts[0].trim().toLowerCase(Locale.ROOT);
+      if (!name.equals(coding) && !name.equals("*")) {
+        continue;
+      }
+      double q = weight(parts);
+      if (name.equals(coding)) {
+        return q;
+      }
+      wildcard = q;
+    }
+    return wildcard;
+  }
+
+  /**
+   * This method tells whether the client accepts a content coding.
+   * @param header the Accept-Encoding header, or null if there is none
+   * @param coding the content coding, e.g. gzip
+   * @return true if the coding has a weight above 0
+   */
+  public static boolean accepts(String header, String coding) {
+    return quality(header, coding) > 0;
+  }
+
+  /**
+   * Returns the q parameter of a coding, 1 if it has none, or 0 if it can't be read.
+   */
+  private static double weight(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.length() > 2 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+        try {
+          double q = Double.parseDouble(parameter.substring(2).trim());
+          return q >= 0 && q <= 1 ? q : 0;
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * When {@code app.logging.async.enabled=true}, this configuration moves every appender
+ * of the root logger (e.g. Spring Boot's console appender) behind a logback
+ * {@code AsyncAppender}.
+ * 
+ * Request threads then only put log events on a bounded queue; a single background
+ * thread drains the queue in batches and does the actual I/O.  With
+ * {@code app.logging.async.never-block=true} (the default) events are dropped
+ * rather than blocking a request thread if the queue is ever full.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.logging.async.enabled", havingValue = "true")
+public class AsyncLoggingConfig {
+
+  @Value("${app.logging.async.queue-size:8192}")
+  private int queueSize;
+
+  @Value("${app.logging.async.never-block:true}")
+  private boolean neverBlock;
+
+  /**
+   * Wraps each appender of the root logger in an AsyncAppender.
+   */
+  @PostConstruct
+  public void wrapRootAppenders() {
+    LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+    Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+
+    List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+    root.iteratorForAppenders().forEachRemaining(appenders::add);
+
+    for (Appender<ILoggingEvent> appender : appenders) {
+      if (appender instanceof AsyncAppender) {
+        continue;
+      }
+      AsyncAppender async = new AsyncAppender();
+      async.setContext(loggerContext);
+      async.setName("ASYNC_" + appender.getName());
+      async.setQueueSize(queueSize);
+      // keep INFO events (the request log) even when the queue is filling up
+      async.setDiscardingThreshold(0);
+      async.setNeverBlock(neverBlock);
+      async.addAppender(appender);
+      async.start();
+
+      root.detachAppender(appender);
+      root.addAppender(async);
+    }
+    log.info("async logging enabled for {} appender(s), queueSize={}, neverBlock={}",
+        appenders.size(), queueSize, neverBlock);
+  }
+}
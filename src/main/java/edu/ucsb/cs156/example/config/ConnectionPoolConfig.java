@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import edu.ucsb.cs156.example.services.ConnectionPoolStatsService;
+
+/**
+ * Installs ConnectionPoolStatsService as the metrics tracker of the HikariCP
+ * connection pool, so that the pool's connection counts and acquire/usage times
+ * show up at {@code /api/admin/stats/pool}.
+ *
+ * The pool itself is sized and tuned with the {@code spring.datasource.hikari.*}
+ * properties (see application-production.properties).
+ */
+@Configuration
+public class ConnectionPoolConfig {
+
+  /**
+   * Sets the metrics tracker factory on each HikariDataSource before the pool starts.
+   * @param connectionPoolStats the service (looked up lazily, since this post processor is created early)
+   * @return the bean post processor
+   */
+  @Bean
+  public static BeanPostProcessor connectionPoolMetricsPostProcessor(
+      ObjectProvider<ConnectionPoolStatsService> connectionPoolStats) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+          dataSource.setMetricsTrackerFactory(connectionPoolStats.getObject());
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A set of path prefixes such as {@code /api} or {@code /v3/api-docs}, built once,
+ * that can tell whether a request path starts with one of them by looking at each
+ * character of the path at most once, without allocating.
+ *
+ * Prefixes only match whole path segments: {@code /api} matches {@code /api} and
+ * {@code /api/restaurants}, but not {@code /apiary}.
+ */
+class PathPrefixTrie {
+
+  private static final class Node {
+    char[] keys = new char[0];
+    Node[] children = new Node[0];
+    boolean end;
+
+    Node child(char c) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] == c) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    Node add(char c) {
+      Node child = child(c);
+      if (child == null) {
+        child = new Node();
+        keys = Arrays.copyOf(keys, keys.length + 1);
+        children = Arrays.copyOf(children, children.length + 1);
+        keys[keys.length - 1] = c;
+        children[children.length - 1] = child;
+      }
+      return child;
+    }
+  }
+
+  private final Node root = new Node();
+
+  /**
+   * Build the trie
+   * @param prefixes the prefixes, each starting with / and not ending with /
+   */
+  PathPrefixTrie(Collection<String> prefixes) {
+    for (String prefix : prefixes) {
+      Node node = root;
+      for (int i = 0; i < prefix.length(); i++) {
+        node = node.add(prefix.charAt(i));
+      }
+      node.end = true;
+    }
+  }
+
+  /**
+   * @param path a request path, e.g. /api/restaurants/all
+   * @return whether the path is one of the prefixes, or starts with one of them followed by /
+   */
+  boolean matches(String path) {
+    Node node = root;
+    for (int i = 0; i < path.length(); i++) {
+      char c = path.charAt(i);
+      if (c == '/' && node.end) {
+        return true;
+      }
+      node = node.child(c);
+      if (node == null) {
+        return false;
+      }
+    }
+    return node.end;
+  }
+}
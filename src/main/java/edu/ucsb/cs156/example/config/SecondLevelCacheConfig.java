@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.config;
+
+import java.net.URI;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import edu.ucsb.cs156.example.services.TableVersionService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Gives Hibernate's second-level cache its own Ehcache CacheManager, configured from
+ * {@code ehcache.xml}.
+ *
+ * JCache normally hands out one CacheManager per configuration file, which would be shared
+ * by every application context in the JVM (e.g. the many contexts of the integration tests,
+ * each with its own database), so rows cached from one database could be returned for
+ * another, and closing one context would close the caches of all the others.
+ *
+ * The CacheManager is a bean, so that it is closed with the application context.
+ *
+ * The cache is local to each instance, and Hibernate only evicts rows changed through
+ * this instance.  So that rows changed through another instance (or directly in the
+ * database) aren't served under the new ETag, a table's entities are evicted whenever
+ * this instance sees the table's version in TABLE_VERSIONS change (see
+ * TableVersionService.onChange).  Every read that can be answered from the cache
+ * (findById in conditionalGet and the ReferenceCacheService) reads the version first.
+ * A load that started before the change and finishes after the eviction can still put
+ * the old row back, until the entry expires (see ehcache.xml).
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  /**
+   * Creates a CacheManager for this application context.
+   * @return the CacheManager, closed when the context is closed
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager secondLevelCacheManager() {
+    EhcacheCachingProvider provider =
+        (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+    XmlConfiguration configuration = new XmlConfiguration(SecondLevelCacheConfig.class.getResource("/ehcache.xml"));
+    return provider.getCacheManager(URI.create("urn:team02:second-level-cache:" + UUID.randomUUID()), configuration);
+  }
+
+  /**
+   * Passes the CacheManager of this application context to Hibernate.
+   * @param secondLevelCacheManager the CacheManager
+   * @return the customizer of Hibernate's properties
+   */
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+  }
+
+  /**
+   * Evicts a table's entities from the second-level cache when its version changes.
+   * @param tableVersionService the versions of the tables
+   * @param entityManagerFactory the EntityManagerFactory whose cache is evicted
+   * @return registers the listener once all singletons have been created
+   */
+  @Bean
+  public SmartInitializingSingleton secondLevelCacheEviction(@Qualifier("tableVersions") TableVersionService tableVersionService,
+      EntityManagerFactory entityManagerFactory) {
+    return () -> tableVersionService.onChange(table -> entityManagerFactory.getCache().evict(table));
+  }
+}
@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.example.config;
+
+import java.io.IOException;
+import java.util.Collection;
+
+import edu.ucsb.cs156.example.services.StaticAssetService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Answers requests for the frontend's client-side routes (e.g. /restaurants/edit/7)
+ * with index.html, so that reloading the page or following a link to such a route
+ * starts the React app, which then shows the route.
+ *
+ * A GET or HEAD request is a client-side route unless its path starts with one of
+ * the reserved prefixes (the API, OAuth, Swagger, ...) or its last segment has a dot
+ * in it (a file).  The reserved prefixes are looked up in a trie built at startup, so
+ * API requests are passed on after looking at a few characters of their path.
+ * index.html is written from StaticAssetService's in-memory copy, without a forward.
+ */
+public class SpaFallbackFilter extends HttpFilter {
+
+  private final StaticAssetService staticAssets;
+  private final PathPrefixTrie reserved;
+
+  /**
+   * Create the filter
+   * @param staticAssets where to get index.html from
+   * @param reservedPrefixes path prefixes that are never client-side routes, e.g. /api
+   */
+  public SpaFallbackFilter(StaticAssetService staticAssets, Collection<String> reservedPrefixes) {
+    this.staticAssets = staticAssets;
+    this.reserved = new PathPrefixTrie(reservedPrefixes);
+  }
+
+  /**
+   * This method decides whether a path is a client-side route of the frontend.
+   * @param path the path of the request, without the context path
+   * @return true if the request should be answered with index.html
+   */
+  public boolean isSpaRoute(String path) {
+    return path.indexOf('.', path.lastIndexOf('/')) < 0 && !reserved.matches(path);
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    boolean head = "HEAD".equals(request.getMethod());
+    StaticAssetService.Asset index = head || "GET".equals(request.getMethod())
+        ? staticAssets.find("/index.html")
+        : null;
+    if (index == null || !isSpaRoute(request.getRequestURI().substring(request.getContextPath().length()))) {
+      chain.doFilter(request, response);
+      return;
+    }
+    StaticAssetFilter.serve(request, response, index, head);
+  }
+}
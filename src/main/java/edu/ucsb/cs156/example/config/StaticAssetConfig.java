@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import edu.ucsb.cs156.example.services.StaticAssetService;
+
+/**
+ * Registers the filters that serve the built frontend from memory: StaticAssetFilter
+ * for the assets themselves, and SpaFallbackFilter, which answers the frontend's
+ * client-side routes with index.html.
+ *
+ * The filters run after Spring Security's filters, so the frontend still gets the
+ * security headers and the CSRF cookie.
+ *
+ * Not used in development, where FrontendProxyController passes requests for the
+ * frontend on to the React dev server.
+ */
+@Profile("!development")
+@Configuration
+public class StaticAssetConfig {
+
+  /**
+   * @param staticAssets the in-memory assets
+   * @return the registration of the filter
+   */
+  @Bean
+  public FilterRegistrationBean<StaticAssetFilter> staticAssetFilter(StaticAssetService staticAssets) {
+    return new FilterRegistrationBean<>(new StaticAssetFilter(staticAssets));
+  }
+
+  /**
+   * @param staticAssets the in-memory assets
+   * @param reservedPrefixes path prefixes that belong to the backend, never to the frontend
+   * @return the registration of the filter
+   */
+  @Bean
+  public FilterRegistrationBean<SpaFallbackFilter> spaFallbackFilter(StaticAssetService staticAssets,
+      @Value("${app.spa.reserved-prefixes}") List<String> reservedPrefixes) {
+    return new FilterRegistrationBean<>(new SpaFallbackFilter(staticAssets, reservedPrefixes));
+  }
+}
@@ -0,0 +1,101 @@
+package edu.ucsb.cs156.example.config;
+
+import java.io.IOException;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import edu.ucsb.cs156.example.services.StaticAssetService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Serves the frontend's static assets from the in-memory table of StaticAssetService.
+ * Requests for anything else are passed on down the filter chain.
+ *
+ * Assets with a content hash in their name are cached by the browser for a year
+ * without revalidation; everything else (in particular index.html, which names the
+ * current bundles) is sent with {@code no-cache} and a strong ETag, so the browser
+ * revalidates it on each use and gets a 304 if it has not changed.  The .br or .gz
+ * copy of an asset is sent when the browser accepts it, i.e. lists it in Accept-Encoding
+ * without {@code q=0}; if it accepts both, the one with the higher weight, or br if
+ * they are equal.
+ */
+public class StaticAssetFilter extends HttpFilter {
+
+  private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+  private static final String REVALIDATE = CacheControl.noCache().getHeaderValue();
+
+  private final StaticAssetService staticAssets;
+
+  /**
+   * Create the filter
+   * @param staticAssets the assets to serve
+   */
+  public StaticAssetFilter(StaticAssetService staticAssets) {
+    this.staticAssets = staticAssets;
+  }
+
+  @Override
+  protected void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    boolean head = "HEAD".equals(request.getMethod());
+    StaticAssetService.Asset asset = head || "GET".equals(request.getMethod())
+        ? staticAssets.find(request.getRequestURI().substring(request.getContextPath().length()))
+        : null;
+    if (asset == null) {
+      chain.doFilter(request, response);
+      return;
+    }
+    serve(request, response, asset, head);
+  }
+
+  /**
+   * This method sends an asset, in the best encoding the browser accepts.
+   * @param request the request
+   * @param response the response
+   * @param asset the asset
+   * @param head whether this is a HEAD request, which gets the headers only
+   * @throws IOException if the response can't be written
+   */
+  static void serve(HttpServletRequest request, HttpServletResponse response, StaticAssetService.Asset asset,
+      boolean head) throws IOException {
+    byte[] body = asset.body();
+    String etag = asset.etag();
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    double br = asset.brotli() == null ? 0 : AcceptEncoding.quality(acceptEncoding, "br");
+    double gzip = asset.gzip() == null ? 0 : AcceptEncoding.quality(acceptEncoding, "gzip");
+    if (br > 0 && br >= gzip) {
+      body = asset.brotli();
+      etag = variant(etag, "br");
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "br");
+    } else if (gzip > 0) {
+      body = asset.gzip();
+      etag = variant(etag, "gzip");
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    if (asset.gzip() != null || asset.brotli() != null) {
+      response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+    response.setHeader(HttpHeaders.CACHE_CONTROL, asset.immutable() ? IMMUTABLE : REVALIDATE);
+    if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+      return;
+    }
+    response.setContentType(asset.contentType().toString());
+    response.setContentLength(body.length);
+    if (!head) {
+      response.getOutputStream().write(body);
+    }
+  }
+
+  /**
+   * Each encoding of an asset is a different representation, so it needs its own strong ETag.
+   */
+  private static String variant(String etag, String encoding) {
+    return etag.substring(0, etag.length() - 1) + "-" + encoding + "\"";
+  }
+}
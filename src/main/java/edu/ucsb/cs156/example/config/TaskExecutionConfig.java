@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+/**
+ * Configuration for the application task executor, which runs background work such as
+ * rebuilding JSON snapshots.
+ *
+ * With {@code spring.threads.virtual.enabled=true} (set VIRTUAL_THREADS=true), Spring Boot
+ * runs both Tomcat's request handling and this executor on virtual threads, so a request
+ * that is blocked waiting for the database no longer holds one of a fixed number of
+ * platform threads.  Request threads get their SecurityContext from Spring Security's
+ * filters either way; the decorator below makes sure that tasks handed to the executor
+ * see the SecurityContext of the thread that submitted them (e.g. for CurrentUserService),
+ * whichever kind of thread they end up running on.
+ */
+@Configuration
+public class TaskExecutionConfig {
+
+  /**
+   * Copies the submitter's SecurityContext to each task, and clears it again when the task is done.
+   * Spring Boot applies this decorator to the application task executor.
+   * @return the task decorator
+   */
+  @Bean
+  public TaskDecorator securityContextTaskDecorator() {
+    return task -> DelegatingSecurityContextRunnable.create(task, null);
+  }
+}
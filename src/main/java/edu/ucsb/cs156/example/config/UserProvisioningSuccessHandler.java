@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.services.UserCacheService;
+import edu.ucsb.cs156.example.services.UserProvisioningService;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
+
+import java.io.IOException;
+
+/**
+ * The login success handler for OAuth2 login.  It creates (or promotes) the user's row
+ * through the UserProvisioningService, once per login, and puts the user in the
+ * UserCacheService so that the first request after the login doesn't need the database.
+ * Then it redirects like the default handler does.
+ */
+class UserProvisioningSuccessHandler extends SavedRequestAwareAuthenticationSuccessHandler {
+
+  private final UserProvisioningService userProvisioningService;
+  private final UserCacheService userCacheService;
+
+  UserProvisioningSuccessHandler(UserProvisioningService userProvisioningService, UserCacheService userCacheService) {
+    this.userProvisioningService = userProvisioningService;
+    this.userCacheService = userCacheService;
+  }
+
+  @Override
+  public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+      Authentication authentication) throws ServletException, IOException {
+    if (authentication instanceof OAuth2AuthenticationToken token) {
+      User user = userProvisioningService.provision(token.getPrincipal());
+      userCacheService.put(user);
+    }
+    super.onAuthenticationSuccess(request, response, authentication);
+  }
+}
@@ -1,16 +1,40 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.config.AcceptEncoding;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.TooManyIdsException;
+import edu.ucsb.cs156.example.errors.VersionConflictException;
+import edu.ucsb.cs156.example.errors.VersionRequiredException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.JsonSnapshotService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import lombok.extern.slf4j.Slf4j;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 /**
  * This is an abstract class that provides common functionality for all API controllers.
@@ -18,9 +42,46 @@ import java.util.Map;
 
 @Slf4j
 public abstract class ApiController {
+  /**
+   * The largest page size that the keyset-paginated endpoints will return,
+   * no matter what limit the client asks for.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  /**
+   * The largest number of ids that the bulk delete endpoints accept in one request;
+   * the ids end up in a single {@code in (...)} list, one bind parameter each.
+   */
+  public static final int MAX_BULK_IDS = 1000;
+
+  /**
+   * Header carrying the cursor for the next page of a keyset-paginated listing.
+   */
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  /**
+   * Cache-Control for responses with an ETag: they may be stored by the browser
+   * (but not shared caches, since they depend on who is logged in), and must be
+   * revalidated with a conditional GET before each use.
+   */
+  private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+  /**
+   * The parts of the body of every 404 before and after the (JSON-quoted) message.
+   */
+  private static final byte[] NOT_FOUND_PREFIX =
+      "{\"type\":\"EntityNotFoundException\",\"message\":\"".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] NOT_FOUND_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
   @Autowired
   private CurrentUserService currentUserService;
 
+  @Autowired
+  private TableVersionService tableVersionService;
+
+  @Autowired
+  private JsonSnapshotService jsonSnapshotService;
+
   /**
    * This method returns the current user.
    * @return the current user
@@ -39,16 +100,245 @@ public abstract class ApiController {
   }
 
   /**
-   * This method handles the EntityNotFoundException.
+   * This method clamps a client-supplied page size to the range 1..MAX_PAGE_SIZE.
+   * @param limit the requested page size
+   * @return the page size to use for the query
+   */
+  protected int pageSize(int limit) {
+    return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+  }
+
+  /**
+   * This method builds the response for one page of a keyset-paginated listing.
+   * When the page is full, there may be more rows, so the key of the last row is
+   * returned as the next cursor, both in the {@code X-Next-Cursor} header and as
+   * a {@code Link} header with {@code rel="next"}.
+   * @param <T> the type of the rows
+   * @param page the rows on this page, ordered by key
+   * @param pageSize the page size that was used for the query
+   * @param keyOf function that extracts the key (e.g. the id) from a row
+   * @return response entity with the page as its body
+   */
+  protected <T> ResponseEntity<List<T>> keysetPage(List<T> page, int pageSize, Function<T, ?> keyOf) {
+    if (page.size() < pageSize) {
+      return ResponseEntity.ok(page);
+    }
+    String cursor = String.valueOf(keyOf.apply(page.get(page.size() - 1)));
+    String next = ServletUriComponentsBuilder.fromCurrentRequest()
+        .replaceQueryParam("after", cursor)
+        .replaceQueryParam("limit", pageSize)
+        .toUriString();
+    return ResponseEntity.ok()
+        .header(NEXT_CURSOR_HEADER, cursor)
+        .header(HttpHeaders.LINK, "<%s>; rel=\"next\"".formatted(next))
+        .body(page);
+  }
+
+  /**
+   * This method answers a GET request whose response only depends on the contents
+   * of one table, using an ETag built from the table's version (see TableVersionService).
+   * If the request's {@code If-None-Match} header already has the current ETag, a
+   * 304 Not Modified is sent and the body is never computed, so the database is
+   * not queried.
+   * @param <T> the type of the body
+   * @param request the current request
+   * @param table the entity class of the table the body is read from
+   * @param body supplies the body, e.g. by querying a repository
+   * @return response entity with the ETag and the body, or null if a 304 has been sent
+   */
+  protected <T> ResponseEntity<T> conditionalGet(ServletWebRequest request, Class<?> table, Supplier<T> body) {
+    String etag = tableVersionService.etag(table);
+    if (notModified(request, etag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(body.get());
+  }
+
+  /**
+   * This method answers a GET request for all rows of one table like conditionalGet,
+   * but writes pre-serialized JSON from the JsonSnapshotService instead of running
+   * Jackson on every request.  Clients that accept gzip (not with {@code q=0}) get the
+   * gzipped snapshot.
+   * @param request the current request
+   * @param table the entity class of the table
+   * @param rows supplies the rows when the snapshot has to be rebuilt
+   * @return response entity with the ETag and the JSON, or null if a 304 has been sent
+   */
+  protected ResponseEntity<byte[]> conditionalGetJson(ServletWebRequest request, Class<?> table, Supplier<?> rows) {
+    String etag = tableVersionService.etag(table);
+    if (notModified(request, etag)) {
+      return null;
+    }
+    JsonSnapshotService.Snapshot snapshot = jsonSnapshotService.get(table, rows);
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(REVALIDATE)
+        .contentType(MediaType.APPLICATION_JSON)
+        .varyBy(HttpHeaders.ACCEPT_ENCODING);
+    String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    if (AcceptEncoding.accepts(acceptEncoding, "gzip")) {
+      return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+    }
+    return response.body(snapshot.json());
+  }
+
+  /**
+   * This method rebuilds the JSON snapshot used by conditionalGetJson in the background.
+   * Call it after changing the table.
+   * @param table the entity class of the table
+   * @param rows supplies the rows of the table
+   */
+  protected void refreshJsonSnapshot(Class<?> table, Supplier<?> rows) {
+    jsonSnapshotService.refreshAsync(table, rows);
+  }
+
+  /**
+   * This method runs a single-statement update of one row that only applies if the row
+   * still has the version the client read, e.g.
+   * {@code update ... where id = :id and version = :version}.
+   * Unlike loading the row, copying the fields and saving it, this is one round trip, and
+   * an update based on an old version is rejected instead of overwriting someone else's change.
+   * The update and the bump of the table's version commit together (see TableVersionService.change).
+   * @param table the entity class of the table
+   * @param id the id of the row
+   * @param version the version the update is based on
+   * @param update runs the update and returns the number of rows changed
+   * @param exists checks whether the row exists; only called when the update changed nothing
+   * @return the version of the row after the update
+   * @throws VersionRequiredException if no version was given; the update is not run
+   * @throws EntityNotFoundException if there is no row with the id
+   * @throws VersionConflictException if the row has been changed since the given version
+   */
+  protected long updateIfVersionMatches(Class<?> table, Object id, Long version, IntSupplier update, BooleanSupplier exists) {
+    if (version == null) {
+      throw new VersionRequiredException(table, id);
+    }
+    if (tableVersionService.change(table, update) == 0) {
+      if (!exists.getAsBoolean()) {
+        throw new EntityNotFoundException(table, id);
+      }
+      throw new VersionConflictException(table, id, version);
+    }
+    return version + 1;
+  }
+
+  /**
+   * This method runs a single-statement delete of one row, e.g.
+   * {@code delete ... where id = :id}, instead of loading the row and then deleting it.
+   * @param table the entity class of the table
+   * @param id the id of the row
+   * @param delete runs the delete and returns the number of rows deleted
+   * @throws EntityNotFoundException if there is no row with the id
+   */
+  protected void deleteRow(Class<?> table, Object id, IntSupplier delete) {
+    if (tableVersionService.change(table, delete) == 0) {
+      throw new EntityNotFoundException(table, id);
+    }
+  }
+
+  /**
+   * This method runs a single-statement delete of many rows, e.g.
+   * {@code delete ... where id in :ids}.  Ids that do not exist are ignored.
+   * @param table the entity class of the table
+   * @param ids the ids of the rows, at most MAX_BULK_IDS of them
+   * @param delete runs the delete and returns the number of rows deleted
+   * @return a map with a message and the number of rows deleted
+   * @throws TooManyIdsException if there are more than MAX_BULK_IDS ids; nothing is deleted
+   */
+  protected Object deleteRows(Class<?> table, Collection<?> ids, IntSupplier delete) {
+    if (ids.size() > MAX_BULK_IDS) {
+      throw new TooManyIdsException(table, ids.size(), MAX_BULK_IDS);
+    }
+    int deleted = tableVersionService.change(table, delete);
+    return Map.of(
+      "message", "%d of %d %s rows deleted".formatted(deleted, ids.size(), table.getSimpleName()),
+      "deleted", deleted
+    );
+  }
+
+  private static boolean notModified(ServletWebRequest request, String etag) {
+    if (!request.checkNotModified(etag)) {
+      return false;
+    }
+    request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, REVALIDATE.getHeaderValue());
+    return true;
+  }
+
+  /**
+   * This method handles the EntityNotFoundException.  Since 404s are common (and cheap
+   * to cause), the body is written straight to bytes instead of building a map for Jackson.
    * @param e the exception
-   * @return a map with the type and message of the exception
+   * @return response entity with the type and message of the exception as JSON
    */
   @ExceptionHandler({ EntityNotFoundException.class })
-  @ResponseStatus(HttpStatus.NOT_FOUND)
+  public ResponseEntity<byte[]> handleNotFound(EntityNotFoundException e) {
+    byte[] message = JsonStringEncoder.getInstance().quoteAsUTF8(e.getMessage());
+    byte[] body = Arrays.copyOf(NOT_FOUND_PREFIX, NOT_FOUND_PREFIX.length + message.length + NOT_FOUND_SUFFIX.length);
+    System.arraycopy(message, 0, body, NOT_FOUND_PREFIX.length, message.length);
+    System.arraycopy(NOT_FOUND_SUFFIX, 0, body, NOT_FOUND_PREFIX.length + message.length, NOT_FOUND_SUFFIX.length);
+    return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(body);
+  }
+
+  /**
+   * This method builds the body of an error response.
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
   public Object handleGenericException(Throwable e) {
     return Map.of(
       "type", e.getClass().getSimpleName(),
       "message", e.getMessage()
     );
   }
+
+  /**
+   * This method handles optimistic locking failures, such as a VersionConflictException
+   * from an update that was based on an old version of an entity.
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({ OptimisticLockingFailureException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleConflict(Throwable e) {
+    return handleGenericException(e);
+  }
+
+  /**
+   * This method handles a change that the database rejected because it conflicts with
+   * rows already there, e.g. creating a row with a code that is already taken.  The
+   * database's message names tables and SQL, so it is only logged.
+   * @param e the exception
+   * @return a map with the type of the exception and a generic message
+   */
+  @ExceptionHandler({ DataIntegrityViolationException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleDataIntegrityViolation(DataIntegrityViolationException e) {
+    log.info("change rejected by the database: {}", e.getMostSpecificCause().getMessage());
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", "the change conflicts with existing data, e.g. a row with the same code already exists"
+    );
+  }
+
+  /**
+   * This method handles a bulk request with more ids than MAX_BULK_IDS.
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({ TooManyIdsException.class })
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleTooManyIds(TooManyIdsException e) {
+    return handleGenericException(e);
+  }
+
+  /**
+   * This method handles an update that did not include the version it is based on.
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({ VersionRequiredException.class })
+  @ResponseStatus(HttpStatus.PRECONDITION_REQUIRED)
+  public Object handleVersionRequired(VersionRequiredException e) {
+    return handleGenericException(e);
+  }
 }
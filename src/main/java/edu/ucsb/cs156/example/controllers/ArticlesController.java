@@ -3,6 +3,7 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.Articles;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +13,9 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,10 +26,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 /**
  * This is a REST controller for Articles
  */
@@ -39,16 +47,49 @@ public class ArticlesController extends ApiController {
     @Autowired
     ArticlesRepository articlesRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * This method returns a list of all articles.
-     * @return a list of all articles
+     * @param request the current request, for its If-None-Match header
+     * @return a list of all articles, or null if 304 Not Modified was sent
      */
     @Operation(summary = "List all articles")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Articles> allArticles() {
-        Iterable<Articles> articles = articlesRepository.findAll();
-        return articles;
+    public ResponseEntity<Iterable<Articles>> allArticles(ServletWebRequest request) {
+        return conditionalGet(request, Articles.class, articlesRepository::findAll);
+    }
+
+    /**
+     * This method returns one page of articles, ordered by id (keyset pagination).
+     * Unlike /all, only one page of rows is loaded from the database per request.
+     * @param after only articles with an id greater than this are returned (the cursor from the previous page)
+     * @param limit maximum number of articles to return
+     * @return a page of articles, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary = "List articles one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/page")
+    public ResponseEntity<List<Articles>> pageOfArticles(
+            @Parameter(name = "after", description = "return articles with an id greater than this") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name = "limit", description = "maximum number of articles to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<Articles> articles = articlesRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+        return keysetPage(articles, pageSize, Articles::getId);
+    }
+
+    /**
+     * This method exports all articles as newline-delimited JSON (one article per line).
+     * Rows are streamed from the database, so this is safe to use on large tables.
+     * @return a streaming response with all articles
+     */
+    @Operation(summary = "Export all articles as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportArticles() {
+        return ndjsonExportService.export(articlesRepository::streamAllByOrderByIdAsc);
     }
 
     /**
@@ -85,24 +126,26 @@ public class ArticlesController extends ApiController {
     /**
      * This method returns a single article.
      * @param id id of the article to get
-     * @return a single article
+     * @param request the current request, for its If-None-Match header
+     * @return a single article, or null if 304 Not Modified was sent
      */
     @Operation(summary = "Get a single article")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public Articles getById(
-            @Parameter(name = "id") @RequestParam Long id) {
-        Articles article = articlesRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Articles.class, id));
-
-        return article;
+    public ResponseEntity<Articles> getById(
+            @Parameter(name = "id") @RequestParam Long id,
+            ServletWebRequest request) {
+        return conditionalGet(request, Articles.class, () -> articlesRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(Articles.class, id)));
     }
 
     /**
      * Update a single article
      * 
      * @param id       id of the article to update
-     * @param incoming the new article
+     * @param incoming the new article, with the version it is based on; the update fails with
+     *                 428 Precondition Required without a version, and with 409 Conflict when the
+     *                 article has been changed since that version
      * @return the updated article object
      */
     @Operation(summary= "Update a single article")
@@ -112,18 +155,14 @@ public class ArticlesController extends ApiController {
             @Parameter(name="id") @RequestParam Long id,
             @RequestBody @Valid Articles incoming) {
 
-        Articles article = articlesRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Articles.class, id));
-
-        article.setTitle(incoming.getTitle());
-        article.setUrl(incoming.getUrl());
-        article.setExplanation(incoming.getExplanation());
-        article.setEmail(incoming.getEmail());
-        article.setDateAdded(incoming.getDateAdded());
+        long version = updateIfVersionMatches(Articles.class, id, incoming.getVersion(),
+                () -> articlesRepository.updateIfVersionMatches(id, incoming.getTitle(), incoming.getUrl(),
+                        incoming.getExplanation(), incoming.getEmail(), incoming.getDateAdded(), incoming.getVersion()),
+                () -> articlesRepository.existsById(id));
 
-        articlesRepository.save(article);
-
-        return article;
+        incoming.setId(id);
+        incoming.setVersion(version);
+        return incoming;
     }
 
     /**
@@ -137,10 +176,21 @@ public class ArticlesController extends ApiController {
     @DeleteMapping("")
     public Object deleteArticle(
             @Parameter(name="id") @RequestParam Long id) {
-        Articles article = articlesRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Articles.class, id));
-
-        articlesRepository.delete(article);
+        deleteRow(Articles.class, id, () -> articlesRepository.deleteRowById(id));
         return genericMessage("Articles with id %s deleted".formatted(id));
     }
+
+    /**
+     * Delete many Articles at once
+     * 
+     * @param ids the ids of the articles to delete; ids that do not exist are ignored
+     * @return a message with the number of articles that were deleted
+     */
+    @Operation(summary= "Delete many Articles")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    public Object deleteArticles(
+            @Parameter(name="ids", description="comma separated list of ids (at most 1000)") @RequestParam Set<Long> ids) {
+        return deleteRows(Articles.class, ids, () -> articlesRepository.deleteRowsByIdIn(ids));
+    }
 }
\ No newline at end of file
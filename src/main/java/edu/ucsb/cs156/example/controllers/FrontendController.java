@@ -14,6 +14,9 @@ import edu.ucsb.cs156.example.services.wiremock.WiremockService;
  * This is only enabled in the production profile, and is used to serve the frontend of the application.
  * For development, see the FrontendProxyController.
  * 
+ * The frontend itself (its files, and index.html for its client-side routes) is served from
+ * memory by StaticAssetFilter and SpaFallbackFilter (see StaticAssetConfig).
+ * 
  * @see edu.ucsb.cs156.example.controllers.FrontendProxyController
  */
 
@@ -24,16 +27,6 @@ public class FrontendController {
   @Autowired
   WiremockService wiremockService;
   
-  /**
-   * Serve home page of application
-   * @return the home page (via index.html)
-   */
-
-  @GetMapping("/**/{path:[^\\.]*}")
-  public String index() {
-    return "forward:/index.html";
-  }
-
   /**
    * When not in development, the CSRF endpoint is not used, so return 404
    * @return response entity with 404 return code (not found)
@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.example.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.mvc.ProxyExchange;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
@@ -8,8 +9,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.ResourceAccessException;
 
+import edu.ucsb.cs156.example.services.frontendproxy.FrontendProxyService;
 import edu.ucsb.cs156.example.services.wiremock.WiremockService;
 
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
 import java.net.ConnectException;
 
 /**
@@ -20,6 +27,11 @@ import java.net.ConnectException;
  * 
  * For production, see the FrontendController.
  * 
+ * By default, responses are streamed through the FrontendProxyService, and the dev
+ * server's hot reload WebSocket is tunnelled through as well.  Setting
+ * {@code app.frontend.proxy.streaming=false} goes back to buffering each response
+ * in a ProxyExchange (without WebSocket support).
+ * 
  * @see edu.ucsb.cs156.example.controllers.FrontendController
  */
 
@@ -29,36 +41,63 @@ public class FrontendProxyController {
 
   @Autowired
   WiremockService wiremockService;
+
+  @Autowired
+  FrontendProxyService frontendProxyService;
+
+  @Value("${app.frontend.proxy.streaming:true}")
+  boolean streaming;
   
   /**
-   * This method proxies requests to the frontend server.  It is only used in development.
+   * This method proxies requests to the frontend server at {@code app.frontend.proxy.uri}.
+   * It is only used in development.
    * The regular expression is used to exclude the paths that should NOT be proxied to the
    * frontend server, such as the endpoints for the api, oauth2, and swagger-ui.
    * 
    * @param proxy the proxy exchange, injected by Spring automatically
-   * @return response entity with the response from the frontend server, or a response entity with instructions in case the frontend server cannot be reached.
+   * @param request the request
+   * @param response the response; when streaming, the frontend server's response is written to it directly
+   * @return response entity with the response from the frontend server, a response entity with instructions in case the frontend server cannot be reached, or null if the response has already been written.
+   * @throws IOException if the response from the frontend server can't be copied
+   * @throws ServletException if a WebSocket connection can't be upgraded
+   * @throws InterruptedException if the thread is interrupted while waiting for the frontend server
    */
 
   @GetMapping({"/", "/{path:^(?!api|oauth2|swagger-ui|h2-console).*}/**"})
-  public ResponseEntity<?> proxy(ProxyExchange<byte []> proxy) {
-    String path = proxy.path("/");
+  public ResponseEntity<?> proxy(ProxyExchange<byte []> proxy, HttpServletRequest request, HttpServletResponse response)
+      throws IOException, ServletException, InterruptedException {
     try {
-      return proxy.uri("http://localhost:3000/" + path).get();
+      if (FrontendProxyService.isWebSocketUpgrade(request)) {
+        frontendProxyService.tunnel(request, response);
+        return null;
+      }
+      if (streaming) {
+        frontendProxyService.stream(request, response);
+        return null;
+      }
+      String path = proxy.path("/");
+      return proxy.uri(frontendProxyService.getFrontend().resolve("/" + path)).get();
+    } catch (ConnectException e) {
+      return instructions();
     } catch (ResourceAccessException e) {
       if (e.getCause() instanceof ConnectException) {
-        String instructions = """
-                <p>Failed to connect to the frontend server...</p>
-                <p>On Dokku, be sure that <code>PRODUCTION</code> is defined.</p>
-                <p>On localhost, open a second terminal window, cd into <code>frontend</code> and type: <code>npm install; npm start</code></p>
-                <p>Or, you may click to access: </p>
-                <ul>
-                  <li><a href='/swagger-ui/index.html'>/swagger-ui/index.html</a></li>
-                  <li><a href='/h2-console'>/h2-console</a></li>
-                </ul>""";
-
-        return ResponseEntity.ok(instructions);
+        return instructions();
       }
       throw e;
     }
   }
+
+  private ResponseEntity<String> instructions() {
+    String instructions = """
+            <p>Failed to connect to the frontend server...</p>
+            <p>On Dokku, be sure that <code>PRODUCTION</code> is defined.</p>
+            <p>On localhost, open a second terminal window, cd into <code>frontend</code> and type: <code>npm install; npm start</code></p>
+            <p>Or, you may click to access: </p>
+            <ul>
+              <li><a href='/swagger-ui/index.html'>/swagger-ui/index.html</a></li>
+              <li><a href='/h2-console'>/h2-console</a></li>
+            </ul>""";
+
+    return ResponseEntity.ok(instructions);
+  }
 }
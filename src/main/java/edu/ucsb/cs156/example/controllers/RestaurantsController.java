@@ -9,6 +9,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,9 +20,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * This is a REST controller for Restaurants
  */
@@ -35,30 +41,47 @@ public class RestaurantsController extends ApiController {
 
     /**
      * This method returns a list of all restaurants.
-     * @return a list of all restaurants
+     * @param request the current request, for its If-None-Match header
+     * @return a list of all restaurants, or null if 304 Not Modified was sent
      */
     @Operation(summary = "List all restaurants")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Restaurant> allRestaurants() {
-        Iterable<Restaurant> restaurants = restaurantRepository.findAll();
-        return restaurants;
+    public ResponseEntity<Iterable<Restaurant>> allRestaurants(ServletWebRequest request) {
+        return conditionalGet(request, Restaurant.class, restaurantRepository::findAll);
+    }
+
+    /**
+     * This method returns one page of restaurants, ordered by id (keyset pagination).
+     * @param after only restaurants with an id greater than this are returned (the cursor from the previous page)
+     * @param limit maximum number of restaurants to return
+     * @return a page of restaurants, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary = "List restaurants one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/page")
+    public ResponseEntity<List<Restaurant>> pageOfRestaurants(
+            @Parameter(name = "after", description = "return restaurants with an id greater than this") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name = "limit", description = "maximum number of restaurants to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<Restaurant> restaurants = restaurantRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+        return keysetPage(restaurants, pageSize, Restaurant::getId);
     }
 
     /**
      * This method returns a single restaurant.
      * @param id id of the restaurant to get
-     * @return a single restaurant
+     * @param request the current request, for its If-None-Match header
+     * @return a single restaurant, or null if 304 Not Modified was sent
      */
     @Operation(summary = "Get a single restaurant")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public Restaurant getById(
-            @Parameter(name = "id") @RequestParam Long id) {
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
-
-        return restaurant;
+    public ResponseEntity<Restaurant> getById(
+            @Parameter(name = "id") @RequestParam Long id,
+            ServletWebRequest request) {
+        return conditionalGet(request, Restaurant.class, () -> restaurantRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id)));
     }
 
     /**
@@ -92,17 +115,29 @@ public class RestaurantsController extends ApiController {
     @DeleteMapping("")
     public Object deleteRestaurant(
             @Parameter(name = "id") @RequestParam Long id) {
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
-
-        restaurantRepository.delete(restaurant);
+        deleteRow(Restaurant.class, id, () -> restaurantRepository.deleteRowById(id));
         return genericMessage("Restaurant with id %s deleted".formatted(id));
     }
 
+    /**
+     * Deletes many restaurants at once. Accessible only to users with the role "ROLE_ADMIN".
+     * @param ids ids of the restaurants to delete; ids that do not exist are ignored
+     * @return a message with the number of restaurants that were deleted
+     */
+    @Operation(summary = "Delete many Restaurants")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    public Object deleteRestaurants(
+            @Parameter(name = "ids", description = "comma separated list of ids (at most 1000)") @RequestParam Set<Long> ids) {
+        return deleteRows(Restaurant.class, ids, () -> restaurantRepository.deleteRowsByIdIn(ids));
+    }
+
     /**
      * Update a single restaurant. Accessible only to users with the role "ROLE_ADMIN".
      * @param id id of the restaurant to update
-     * @param incoming the new restaurant contents
+     * @param incoming the new restaurant contents, with the version they are based on; the update
+     * fails with 428 Precondition Required without a version, and with 409 Conflict when the
+     * restaurant has been changed since that version
      * @return the updated restaurant object
      */
     @Operation(summary = "Update a single restaurant")
@@ -112,14 +147,13 @@ public class RestaurantsController extends ApiController {
             @Parameter(name = "id") @RequestParam Long id,
             @RequestBody @Valid Restaurant incoming) {
 
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
-
-        restaurant.setName(incoming.getName());
-        restaurant.setDescription(incoming.getDescription());
-
-        restaurantRepository.save(restaurant);
+        long version = updateIfVersionMatches(Restaurant.class, id, incoming.getVersion(),
+                () -> restaurantRepository.updateIfVersionMatches(id, incoming.getName(), incoming.getDescription(),
+                        incoming.getVersion()),
+                () -> restaurantRepository.existsById(id));
 
-        return restaurant;
+        incoming.setId(id);
+        incoming.setVersion(version);
+        return incoming;
     }
 }
\ No newline at end of file
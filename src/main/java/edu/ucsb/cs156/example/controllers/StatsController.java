@@ -0,0 +1,113 @@
+package edu.ucsb.cs156.example.controllers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.models.LatencyStats;
+import edu.ucsb.cs156.example.models.SecondLevelCacheStats;
+import edu.ucsb.cs156.example.services.ConnectionPoolStatsService;
+import edu.ucsb.cs156.example.services.LatencyStatsService;
+import edu.ucsb.cs156.example.services.ReferenceCacheService;
+import edu.ucsb.cs156.example.services.SecondLevelCacheStatsService;
+import edu.ucsb.cs156.example.services.UserCacheService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+/**
+ * This is a REST controller for getting runtime statistics about the application.
+ * 
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ */
+
+@Tag(name="Statistics (admin only)")
+@RequestMapping("/api/admin/stats")
+@RestController
+public class StatsController extends ApiController {
+
+    @Autowired
+    UserCacheService userCacheService;
+
+    @Autowired
+    ReferenceCacheService referenceCacheService;
+
+    @Autowired
+    LatencyStatsService latencyStatsService;
+
+    @Autowired
+    ConnectionPoolStatsService connectionPoolStatsService;
+
+    @Autowired
+    SecondLevelCacheStatsService secondLevelCacheStatsService;
+
+    /**
+     * This method returns hit/miss statistics for the in-memory caches.  Accessible only to users with the role "ROLE_ADMIN".
+     * @return a list of cache statistics, one per cache
+     */
+    @Operation(summary= "Get statistics for the in-memory caches")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/caches")
+    public List<CacheStats> caches() {
+        List<CacheStats> stats = new ArrayList<>();
+        stats.add(userCacheService.getStats());
+        stats.addAll(referenceCacheService.getStats());
+        return stats;
+    }
+
+    /**
+     * This method returns latency percentiles and counts by HTTP status for each controller method
+     * that has been called since startup (or the last reset).  Accessible only to users with the role "ROLE_ADMIN".
+     * @return a list of latency statistics, one per controller method
+     */
+    @Operation(summary= "Get request latency statistics for each controller method")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/latency")
+    public List<LatencyStats> latency() {
+        return latencyStatsService.getStats();
+    }
+
+    /**
+     * This method clears the latency statistics, e.g. before a load test.  Accessible only to users with the role "ROLE_ADMIN".
+     * @return a message confirming that the statistics were cleared
+     */
+    @Operation(summary= "Clear the request latency statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/latency")
+    public Object resetLatency() {
+        latencyStatsService.reset();
+        return genericMessage("latency statistics cleared");
+    }
+
+    /**
+     * This method returns the state of the database connection pool: active, idle and pending
+     * connections, and percentiles of the time taken to get a connection and how long connections
+     * were held.  Accessible only to users with the role "ROLE_ADMIN".
+     * @return a list of connection pool statistics, one per pool
+     */
+    @Operation(summary= "Get database connection pool statistics")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/pool")
+    public List<ConnectionPoolStats> pool() {
+        return connectionPoolStatsService.getStats();
+    }
+
+    /**
+     * This method returns hit/miss statistics for each region of Hibernate's second-level cache
+     * (entities and cacheable queries).  Accessible only to users with the role "ROLE_ADMIN".
+     * @return a list of second-level cache statistics, one per region
+     */
+    @Operation(summary= "Get statistics for Hibernate's second-level cache")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/hibernate")
+    public List<SecondLevelCacheStats> hibernate() {
+        return secondLevelCacheStatsService.getStats();
+    }
+}
@@ -3,6 +3,7 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +13,9 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,10 +26,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 /**
  * This is a REST controller for UCSBDates
@@ -40,34 +48,119 @@ public class UCSBDatesController extends ApiController {
     @Autowired
     UCSBDateRepository ucsbDateRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
     /**
      * List all UCSB dates
      * 
-     * @return an iterable of UCSBDate
+     * @param request the current request, for its If-None-Match header
+     * @return an iterable of UCSBDate, or null if 304 Not Modified was sent
      */
     @Operation(summary= "List all ucsb dates")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDate> allUCSBDates() {
-        Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
-        return dates;
+    public ResponseEntity<Iterable<UCSBDate>> allUCSBDates(ServletWebRequest request) {
+        return conditionalGet(request, UCSBDate.class, ucsbDateRepository::findAll);
+    }
+
+    /**
+     * List UCSB dates one page at a time, ordered by id (keyset pagination)
+     * 
+     * @param after only dates with an id greater than this are returned (the cursor from the previous page)
+     * @param limit maximum number of dates to return
+     * @return a page of UCSBDate, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary= "List ucsb dates one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/page")
+    public ResponseEntity<List<UCSBDate>> pageOfUCSBDates(
+            @Parameter(name="after", description="return dates with an id greater than this") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit", description="maximum number of dates to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<UCSBDate> dates = ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+        return keysetPage(dates, pageSize, UCSBDate::getId);
+    }
+
+    /**
+     * List the UCSB dates of a quarter in date order, optionally only those in a date range,
+     * which may be open at either end
+     * 
+     * @param quarterYYYYQ the quarter in the format YYYYQ
+     * @param start if given, only dates at or after this are returned
+     * @param end if given, only dates at or before this are returned
+     * @param request the current request, for its If-None-Match header
+     * @return a list of UCSBDate, earliest first, or null if 304 Not Modified was sent
+     */
+    @Operation(summary= "List the ucsb dates of a quarter")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/quarter")
+    public ResponseEntity<List<UCSBDate>> ucsbDatesOfQuarter(
+            @Parameter(name="quarterYYYYQ", description="quarter in the format YYYYQ (e.g. 20244 for Fall 2024)") @RequestParam String quarterYYYYQ,
+            @Parameter(name="start", description="start of the date range (iso format, e.g. 2024-09-01T00:00:00)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(name="end", description="end of the date range (iso format, e.g. 2024-12-31T23:59:59)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            ServletWebRequest request) {
+        if (start != null && end != null) {
+            return conditionalGet(request, UCSBDate.class,
+                    () -> ucsbDateRepository.findAllByQuarterYYYYQAndLocalDateTimeBetweenOrderByLocalDateTimeAsc(quarterYYYYQ, start, end));
+        }
+        if (start != null) {
+            return conditionalGet(request, UCSBDate.class,
+                    () -> ucsbDateRepository.findAllByQuarterYYYYQAndLocalDateTimeGreaterThanEqualOrderByLocalDateTimeAsc(quarterYYYYQ, start));
+        }
+        if (end != null) {
+            return conditionalGet(request, UCSBDate.class,
+                    () -> ucsbDateRepository.findAllByQuarterYYYYQAndLocalDateTimeLessThanEqualOrderByLocalDateTimeAsc(quarterYYYYQ, end));
+        }
+        return conditionalGet(request, UCSBDate.class, () -> ucsbDateRepository.findAllByQuarterYYYYQOrderByLocalDateTimeAsc(quarterYYYYQ));
+    }
+
+    /**
+     * List the UCSB dates in a date range, in date order
+     * 
+     * @param start only dates at or after this are returned
+     * @param end only dates at or before this are returned
+     * @param request the current request, for its If-None-Match header
+     * @return a list of UCSBDate, earliest first, or null if 304 Not Modified was sent
+     */
+    @Operation(summary= "List the ucsb dates in a date range")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/range")
+    public ResponseEntity<List<UCSBDate>> ucsbDatesInRange(
+            @Parameter(name="start", description="start of the date range (iso format, e.g. 2024-09-01T00:00:00)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(name="end", description="end of the date range (iso format, e.g. 2024-12-31T23:59:59)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            ServletWebRequest request) {
+        return conditionalGet(request, UCSBDate.class,
+                () -> ucsbDateRepository.findAllByLocalDateTimeBetweenOrderByLocalDateTimeAsc(start, end));
+    }
+
+    /**
+     * Export all UCSB dates as newline-delimited JSON (one date per line)
+     * 
+     * @return a streaming response with all UCSBDates
+     */
+    @Operation(summary= "Export all ucsb dates as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUCSBDates() {
+        return ndjsonExportService.export(ucsbDateRepository::streamAllByOrderByIdAsc);
     }
 
     /**
      * Get a single date by id
      * 
      * @param id the id of the date
-     * @return a UCSBDate
+     * @param request the current request, for its If-None-Match header
+     * @return a UCSBDate, or null if 304 Not Modified was sent
      */
     @Operation(summary= "Get a single date")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public UCSBDate getById(
-            @Parameter(name="id") @RequestParam Long id) {
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
-
-        return ucsbDate;
+    public ResponseEntity<UCSBDate> getById(
+            @Parameter(name="id") @RequestParam Long id,
+            ServletWebRequest request) {
+        return conditionalGet(request, UCSBDate.class, () -> ucsbDateRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id)));
     }
 
     /**
@@ -113,18 +206,31 @@ public class UCSBDatesController extends ApiController {
     @DeleteMapping("")
     public Object deleteUCSBDate(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
-
-        ucsbDateRepository.delete(ucsbDate);
+        deleteRow(UCSBDate.class, id, () -> ucsbDateRepository.deleteRowById(id));
         return genericMessage("UCSBDate with id %s deleted".formatted(id));
     }
 
+    /**
+     * Delete many UCSBDates at once
+     * 
+     * @param ids the ids of the dates to delete; ids that do not exist are ignored
+     * @return a message with the number of dates that were deleted
+     */
+    @Operation(summary= "Delete many UCSBDates")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    public Object deleteUCSBDates(
+            @Parameter(name="ids", description="comma separated list of ids (at most 1000)") @RequestParam Set<Long> ids) {
+        return deleteRows(UCSBDate.class, ids, () -> ucsbDateRepository.deleteRowsByIdIn(ids));
+    }
+
     /**
      * Update a single date
      * 
      * @param id       id of the date to update
-     * @param incoming the new date
+     * @param incoming the new date, with the version it is based on; the update fails with
+     *                 428 Precondition Required without a version, and with 409 Conflict when the
+     *                 date has been changed since that version
      * @return the updated date object
      */
     @Operation(summary= "Update a single date")
@@ -134,15 +240,13 @@ public class UCSBDatesController extends ApiController {
             @Parameter(name="id") @RequestParam Long id,
             @RequestBody @Valid UCSBDate incoming) {
 
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
-
-        ucsbDate.setQuarterYYYYQ(incoming.getQuarterYYYYQ());
-        ucsbDate.setName(incoming.getName());
-        ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
-
-        ucsbDateRepository.save(ucsbDate);
+        long version = updateIfVersionMatches(UCSBDate.class, id, incoming.getVersion(),
+                () -> ucsbDateRepository.updateIfVersionMatches(id, incoming.getQuarterYYYYQ(), incoming.getName(),
+                        incoming.getLocalDateTime(), incoming.getVersion()),
+                () -> ucsbDateRepository.existsById(id));
 
-        return ucsbDate;
+        incoming.setId(id);
+        incoming.setVersion(version);
+        return incoming;
     }
 }
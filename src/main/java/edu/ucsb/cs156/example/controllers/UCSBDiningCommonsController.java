@@ -3,13 +3,20 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.services.ReferenceCacheService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,9 +26,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * This is a REST controller for UCSBDiningCommons
  */
@@ -35,32 +46,54 @@ public class UCSBDiningCommonsController extends ApiController {
     @Autowired
     UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+    @Autowired
+    ReferenceCacheService referenceCacheService;
+
     /**
      * THis method returns a list of all ucsbdiningcommons.
-     * @return a list of all ucsbdiningcommons
+     * @param request the current request, for its If-None-Match header
+     * @return a list of all ucsbdiningcommons as (pre-serialized) JSON, or null if 304 Not Modified was sent
      */
     @Operation(summary= "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommons> allCommonss() {
-        Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
-        return commons;
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = UCSBDiningCommons.class))))
+    public ResponseEntity<byte[]> allCommonss(ServletWebRequest request) {
+        return conditionalGetJson(request, UCSBDiningCommons.class, this::loadAll);
+    }
+
+    /**
+     * This method returns one page of ucsbdiningcommons, ordered by code (keyset pagination).
+     * @param after only commons whose code sorts after this are returned (the cursor from the previous page)
+     * @param limit maximum number of commons to return
+     * @return a page of ucsbdiningcommons, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary= "List ucsb dining commons one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/page")
+    public ResponseEntity<List<UCSBDiningCommons>> pageOfCommons(
+            @Parameter(name="after", description="return commons whose code sorts after this") @RequestParam(defaultValue = "") String after,
+            @Parameter(name="limit", description="maximum number of commons to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(after, Limit.of(pageSize));
+        return keysetPage(commons, pageSize, UCSBDiningCommons::getCode);
     }
 
     /**
      * This method returns a single diningcommons.
      * @param code code of the diningcommons
-     * @return a single diningcommons
+     * @param request the current request, for its If-None-Match header
+     * @return a single diningcommons, or null if 304 Not Modified was sent
      */
     @Operation(summary= "Get a single commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public UCSBDiningCommons getById(
-            @Parameter(name="code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
-
-        return commons;
+    public ResponseEntity<UCSBDiningCommons> getById(
+            @Parameter(name="code") @RequestParam String code,
+            ServletWebRequest request) {
+        return conditionalGet(request, UCSBDiningCommons.class,
+                () -> referenceCacheService.findById(UCSBDiningCommons.class, code, ucsbDiningCommonsRepository::findById)
+                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code)));
     }
 
     /**
@@ -98,6 +131,7 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(longitude);
 
         UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+        tableChanged();
 
         return savedCommons;
     }
@@ -112,17 +146,32 @@ public class UCSBDiningCommonsController extends ApiController {
     @DeleteMapping("")
     public Object deleteCommons(
             @Parameter(name="code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
-
-        ucsbDiningCommonsRepository.delete(commons);
+        deleteRow(UCSBDiningCommons.class, code, () -> ucsbDiningCommonsRepository.deleteRowByCode(code));
+        tableChanged();
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
+    /**
+     * Delete many diningcommons at once. Accessible only to users with the role "ROLE_ADMIN".
+     * @param codes codes of the commons; codes that do not exist are ignored
+     * @return a message with the number of commons that were deleted
+     */
+    @Operation(summary= "Delete many UCSBDiningCommons")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    public Object deleteManyCommons(
+            @Parameter(name="codes", description="comma separated list of codes (at most 1000)") @RequestParam Set<String> codes) {
+        Object result = deleteRows(UCSBDiningCommons.class, codes, () -> ucsbDiningCommonsRepository.deleteRowsByCodeIn(codes));
+        tableChanged();
+        return result;
+    }
+
     /**
      * Update a single diningcommons. Accessible only to users with the role "ROLE_ADMIN".
      * @param code code of the diningcommons
-     * @param incoming the new commons contents
+     * @param incoming the new commons contents, with the version they are based on; the update
+     * fails with 428 Precondition Required without a version, and with 409 Conflict when the
+     * commons has been changed since that version
      * @return the updated commons object
      */
     @Operation(summary= "Update a single commons")
@@ -132,19 +181,24 @@ public class UCSBDiningCommonsController extends ApiController {
             @Parameter(name="code") @RequestParam String code,
             @RequestBody @Valid UCSBDiningCommons incoming) {
 
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
-
+        long version = updateIfVersionMatches(UCSBDiningCommons.class, code, incoming.getVersion(),
+                () -> ucsbDiningCommonsRepository.updateIfVersionMatches(code, incoming.getName(),
+                        incoming.getHasSackMeal(), incoming.getHasTakeOutMeal(), incoming.getHasDiningCam(),
+                        incoming.getLatitude(), incoming.getLongitude(), incoming.getVersion()),
+                () -> ucsbDiningCommonsRepository.existsById(code));
+        tableChanged();
 
-        commons.setName(incoming.getName());  
-        commons.setHasSackMeal(incoming.getHasSackMeal());
-        commons.setHasTakeOutMeal(incoming.getHasTakeOutMeal());
-        commons.setHasDiningCam(incoming.getHasDiningCam());
-        commons.setLatitude(incoming.getLatitude());
-        commons.setLongitude(incoming.getLongitude());
+        incoming.setCode(code);
+        incoming.setVersion(version);
+        return incoming;
+    }
 
-        ucsbDiningCommonsRepository.save(commons);
+    private List<UCSBDiningCommons> loadAll() {
+        return referenceCacheService.findAll(UCSBDiningCommons.class, ucsbDiningCommonsRepository::findAll);
+    }
 
-        return commons;
+    private void tableChanged() {
+        referenceCacheService.invalidate(UCSBDiningCommons.class);
+        refreshJsonSnapshot(UCSBDiningCommons.class, this::loadAll);
     }
 }
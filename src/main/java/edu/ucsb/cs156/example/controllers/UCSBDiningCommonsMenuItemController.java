@@ -2,7 +2,10 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.BulkItemResult;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.BulkInsertService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +15,9 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,10 +28,16 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
 
 /**
  * This is a REST controller for UCSBDiningCommonsMenuItems
@@ -40,34 +52,139 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
     @Autowired
     UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
+    @Autowired
+    NdjsonExportService ndjsonExportService;
+
+    @Autowired
+    BulkInsertService bulkInsertService;
+
     /**
      * List all UCSB menu items
      * 
-     * @return an iterable of UCSBDiningCommonsMenuItem
+     * @param request the current request, for its If-None-Match header
+     * @return an iterable of UCSBDiningCommonsMenuItem, or null if 304 Not Modified was sent
      */
     @Operation(summary= "List all menu items")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommonsMenuItem> allUCSBMenuItems() {
-        Iterable<UCSBDiningCommonsMenuItem> items = ucsbDiningCommonsMenuItemRepository.findAll();
-        return items;
+    public ResponseEntity<Iterable<UCSBDiningCommonsMenuItem>> allUCSBMenuItems(ServletWebRequest request) {
+        return conditionalGet(request, UCSBDiningCommonsMenuItem.class, ucsbDiningCommonsMenuItemRepository::findAll);
+    }
+
+    /**
+     * List UCSB menu items one page at a time, ordered by id (keyset pagination)
+     * 
+     * @param after only menu items with an id greater than this are returned (the cursor from the previous page)
+     * @param limit maximum number of menu items to return
+     * @return a page of UCSBDiningCommonsMenuItem, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary= "List menu items one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/page")
+    public ResponseEntity<List<UCSBDiningCommonsMenuItem>> pageOfUCSBMenuItems(
+            @Parameter(name="after", description="return menu items with an id greater than this") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit", description="maximum number of menu items to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<UCSBDiningCommonsMenuItem> items = ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize));
+        return keysetPage(items, pageSize, UCSBDiningCommonsMenuItem::getId);
+    }
+
+    /**
+     * List the menu items of a dining commons (optionally only one station), one page at a time, ordered by id
+     * 
+     * @param diningCommonsCode code of the dining commons
+     * @param station if given, only menu items of this station are returned
+     * @param after only menu items with an id greater than this are returned (the cursor from the previous page)
+     * @param limit maximum number of menu items to return
+     * @return a page of UCSBDiningCommonsMenuItem, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary= "List the menu items of a dining commons")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/diningcommons")
+    public ResponseEntity<List<UCSBDiningCommonsMenuItem>> menuItemsByDiningCommons(
+            @Parameter(name="diningCommonsCode") @RequestParam String diningCommonsCode,
+            @Parameter(name="station", description="only return menu items of this station") @RequestParam(required = false) String station,
+            @Parameter(name="after", description="return menu items with an id greater than this") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit", description="maximum number of menu items to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<UCSBDiningCommonsMenuItem> items = station == null
+                ? ucsbDiningCommonsMenuItemRepository.findByDiningCommonsCodeAndIdGreaterThanOrderByIdAsc(diningCommonsCode, after, Limit.of(pageSize))
+                : ucsbDiningCommonsMenuItemRepository.findByDiningCommonsCodeAndStationAndIdGreaterThanOrderByIdAsc(diningCommonsCode, station, after, Limit.of(pageSize));
+        return keysetPage(items, pageSize, UCSBDiningCommonsMenuItem::getId);
+    }
+
+    /**
+     * List the menu items of a station (in any dining commons), one page at a time, ordered by id
+     * 
+     * @param station name of the station
+     * @param after only menu items with an id greater than this are returned (the cursor from the previous page)
+     * @param limit maximum number of menu items to return
+     * @return a page of UCSBDiningCommonsMenuItem, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary= "List the menu items of a station")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/station")
+    public ResponseEntity<List<UCSBDiningCommonsMenuItem>> menuItemsByStation(
+            @Parameter(name="station") @RequestParam String station,
+            @Parameter(name="after", description="return menu items with an id greater than this") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit", description="maximum number of menu items to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<UCSBDiningCommonsMenuItem> items = ucsbDiningCommonsMenuItemRepository.findByStationAndIdGreaterThanOrderByIdAsc(station, after, Limit.of(pageSize));
+        return keysetPage(items, pageSize, UCSBDiningCommonsMenuItem::getId);
+    }
+
+    /**
+     * Search menu items by name (ignoring case), one page at a time, ordered by id
+     * 
+     * @param name text to look for in the name
+     * @param prefix if true, only names that start with the text match; otherwise names that contain it anywhere
+     * @param after only menu items with an id greater than this are returned (the cursor from the previous page)
+     * @param limit maximum number of menu items to return
+     * @return a page of UCSBDiningCommonsMenuItem, with a Link header pointing to the next page when there may be more
+     */
+    @Operation(summary= "Search menu items by name")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/search")
+    public ResponseEntity<List<UCSBDiningCommonsMenuItem>> searchMenuItems(
+            @Parameter(name="name", description="text to look for in the name (ignoring case)") @RequestParam String name,
+            @Parameter(name="prefix", description="only match names that start with the text (faster, can use an index)") @RequestParam(defaultValue = "false") boolean prefix,
+            @Parameter(name="after", description="return menu items with an id greater than this") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit", description="maximum number of menu items to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<UCSBDiningCommonsMenuItem> items = prefix
+                ? ucsbDiningCommonsMenuItemRepository.findByNameStartingWithIgnoreCaseAndIdGreaterThanOrderByIdAsc(name, after, Limit.of(pageSize))
+                : ucsbDiningCommonsMenuItemRepository.findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(name, after, Limit.of(pageSize));
+        return keysetPage(items, pageSize, UCSBDiningCommonsMenuItem::getId);
+    }
+
+    /**
+     * Export all UCSB menu items as newline-delimited JSON (one menu item per line).
+     * Rows are streamed from the database, so this is safe to use on large tables.
+     * 
+     * @return a streaming response with all UCSBDiningCommonsMenuItems
+     */
+    @Operation(summary= "Export all menu items as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUCSBMenuItems() {
+        return ndjsonExportService.export(ucsbDiningCommonsMenuItemRepository::streamAllByOrderByIdAsc);
     }
 
     /**
      * Get a single menu item by id
      * 
      * @param id the id of the menu item
-     * @return a UCSB menu item
+     * @param request the current request, for its If-None-Match header
+     * @return a UCSB menu item, or null if 304 Not Modified was sent
      */
     @Operation(summary= "Get a single menu item")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public UCSBDiningCommonsMenuItem getById(
-            @Parameter(name="id") @RequestParam Long id) {
-        UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItem = ucsbDiningCommonsMenuItemRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
-
-        return ucsbDiningCommonsMenuItem;
+    public ResponseEntity<UCSBDiningCommonsMenuItem> getById(
+            @Parameter(name="id") @RequestParam Long id,
+            ServletWebRequest request) {
+        return conditionalGet(request, UCSBDiningCommonsMenuItem.class, () -> ucsbDiningCommonsMenuItemRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id)));
     }
 
     /**
@@ -97,11 +214,55 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
         return savedUCSBDiningCommonsMenuItem;
     }
 
+    /**
+     * Create many menu items at once.
+     * 
+     * The body is either a JSON array of menu items or newline-delimited JSON (one menu item per line),
+     * each with a diningCommonsCode, name and station; any id in the body is ignored.
+     * Items are saved in batches, and the result of each item is reported separately.
+     * 
+     * @param body the request body
+     * @return one result per menu item in the body, with the new id or the reason it was not saved
+     * @throws IOException if the body cannot be read
+     */
+    @Operation(summary= "Create many menu items from a JSON array or newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public List<BulkItemResult> bulkPostUCSBDiningCommonsMenuItems(InputStream body) throws IOException {
+        return bulkInsertService.insert(body, UCSBDiningCommonsMenuItem.class, this::prepareForBulkInsert,
+                ucsbDiningCommonsMenuItemRepository, UCSBDiningCommonsMenuItem::getId);
+    }
+
+    /**
+     * Check that a menu item from a bulk request has all of its fields, and clear its id and version so that
+     * it is inserted (an item with a version would be merged into an existing row instead)
+     * 
+     * @param item the menu item
+     * @return a description of what is wrong with the item, or null if it can be saved
+     */
+    String prepareForBulkInsert(UCSBDiningCommonsMenuItem item) {
+        if (item == null) {
+            return "menu item is null";
+        }
+        if (isBlank(item.getDiningCommonsCode()) || isBlank(item.getName()) || isBlank(item.getStation())) {
+            return "diningCommonsCode, name and station are required";
+        }
+        item.setId(0);
+        item.setVersion(null);
+        return null;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
     /**
      * Update a single menu item
      * 
      * @param id       id of the menu item to update
-     * @param incoming the new menu item
+     * @param incoming the new menu item, with the version it is based on; the update fails with
+     *                 428 Precondition Required without a version, and with 409 Conflict when the
+     *                 menu item has been changed since that version
      * @return the updated menu item object
      */
     @Operation(summary= "Update a single menu item")
@@ -111,16 +272,14 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
             @Parameter(name="id") @RequestParam Long id,
             @RequestBody @Valid UCSBDiningCommonsMenuItem incoming) {
 
-        UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItem = ucsbDiningCommonsMenuItemRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
-
-        ucsbDiningCommonsMenuItem.setDiningCommonsCode(incoming.getDiningCommonsCode());
-        ucsbDiningCommonsMenuItem.setName(incoming.getName());
-        ucsbDiningCommonsMenuItem.setStation(incoming.getStation());
-
-        ucsbDiningCommonsMenuItemRepository.save(ucsbDiningCommonsMenuItem);
+        long version = updateIfVersionMatches(UCSBDiningCommonsMenuItem.class, id, incoming.getVersion(),
+                () -> ucsbDiningCommonsMenuItemRepository.updateIfVersionMatches(id, incoming.getDiningCommonsCode(),
+                        incoming.getName(), incoming.getStation(), incoming.getVersion()),
+                () -> ucsbDiningCommonsMenuItemRepository.existsById(id));
 
-        return ucsbDiningCommonsMenuItem;
+        incoming.setId(id);
+        incoming.setVersion(version);
+        return incoming;
     }
 
     /**
@@ -134,10 +293,22 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
     @DeleteMapping("")
     public Object deleteUCSBMenuItem(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItem = ucsbDiningCommonsMenuItemRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
-
-        ucsbDiningCommonsMenuItemRepository.delete(ucsbDiningCommonsMenuItem);
+        deleteRow(UCSBDiningCommonsMenuItem.class, id, () -> ucsbDiningCommonsMenuItemRepository.deleteRowById(id));
         return genericMessage("UCSBDiningCommonsMenuItem with id %s deleted".formatted(id));
     }
+
+    /**
+     * Delete many menu items at once
+     * 
+     * @param ids the ids of the menu items to delete; ids that do not exist are ignored
+     * @return a message with the number of menu items that were deleted
+     */
+    @Operation(summary= "Delete many menu items")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    public Object deleteUCSBMenuItems(
+            @Parameter(name="ids", description="comma separated list of ids (at most 1000)") @RequestParam Set<Long> ids) {
+        return deleteRows(UCSBDiningCommonsMenuItem.class, ids,
+                () -> ucsbDiningCommonsMenuItemRepository.deleteRowsByIdIn(ids));
+    }
 }
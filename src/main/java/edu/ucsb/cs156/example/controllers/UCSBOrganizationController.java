@@ -3,13 +3,20 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
+import edu.ucsb.cs156.example.services.ReferenceCacheService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,9 +26,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+import java.util.Set;
+
 @Tag(name = "UCSBOrganization")
 @RequestMapping("/api/ucsborganization")
 @RestController
@@ -31,12 +42,26 @@ public class UCSBOrganizationController extends ApiController {
     @Autowired
     UCSBOrganizationRepository ucsbOrganizationRepository;
 
+    @Autowired
+    ReferenceCacheService referenceCacheService;
+
     @Operation(summary= "List all ucsb organizations")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBOrganization> allOrganizations() {
-        Iterable<UCSBOrganization> organizations = ucsbOrganizationRepository.findAll();
-        return organizations;
+    @ApiResponse(responseCode = "200", content = @Content(array = @ArraySchema(schema = @Schema(implementation = UCSBOrganization.class))))
+    public ResponseEntity<byte[]> allOrganizations(ServletWebRequest request) {
+        return conditionalGetJson(request, UCSBOrganization.class, this::loadAll);
+    }
+
+    @Operation(summary= "List ucsb organizations one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/page")
+    public ResponseEntity<List<UCSBOrganization>> pageOfOrganizations(
+            @Parameter(name="after", description="return organizations whose orgCode sorts after this") @RequestParam(defaultValue = "") String after,
+            @Parameter(name="limit", description="maximum number of organizations to return (at most 1000)") @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = pageSize(limit);
+        List<UCSBOrganization> organizations = ucsbOrganizationRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(after, Limit.of(pageSize));
+        return keysetPage(organizations, pageSize, UCSBOrganization::getOrgCode);
     }
 
     @Operation(summary= "Create a new ucsb organization")
@@ -55,18 +80,19 @@ public class UCSBOrganizationController extends ApiController {
             org.setOrgTranslation(orgTranslation);
             org.setInactive(inactive);
             UCSBOrganization savedOrg = ucsbOrganizationRepository.save(org);
+            tableChanged();
             return savedOrg;
     }
 
     @Operation(summary= "Get a single organization")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public UCSBOrganization getById(
-            @Parameter(name="orgCode") @RequestParam String orgCode) {
-        UCSBOrganization organization = ucsbOrganizationRepository.findById(orgCode)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
-        
-        return organization;
+    public ResponseEntity<UCSBOrganization> getById(
+            @Parameter(name="orgCode") @RequestParam String orgCode,
+            ServletWebRequest request) {
+        return conditionalGet(request, UCSBOrganization.class,
+                () -> referenceCacheService.findById(UCSBOrganization.class, orgCode, ucsbOrganizationRepository::findById)
+                .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode)));
     }
 
     @Operation(summary= "Update a single organization")
@@ -76,17 +102,15 @@ public class UCSBOrganizationController extends ApiController {
             @Parameter(name="orgCode") @RequestParam String orgCode,
             @RequestBody @Valid UCSBOrganization newOrg) {
 
-        UCSBOrganization organization = ucsbOrganizationRepository.findById(orgCode)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
-
-        organization.setOrgCode(newOrg.getOrgCode());
-        organization.setOrgTranslationShort(newOrg.getOrgTranslationShort());
-        organization.setOrgTranslation(newOrg.getOrgTranslation());
-        organization.setInactive(newOrg.getInactive());
+        long version = updateIfVersionMatches(UCSBOrganization.class, orgCode, newOrg.getVersion(),
+                () -> ucsbOrganizationRepository.updateIfVersionMatches(orgCode, newOrg.getOrgTranslationShort(),
+                        newOrg.getOrgTranslation(), newOrg.getInactive(), newOrg.getVersion()),
+                () -> ucsbOrganizationRepository.existsById(orgCode));
+        tableChanged();
 
-        ucsbOrganizationRepository.save(organization);
-
-        return organization;
+        newOrg.setOrgCode(orgCode);
+        newOrg.setVersion(version);
+        return newOrg;
     }
 
     @Operation(summary= "Delete a UCSBOrganization")
@@ -94,10 +118,28 @@ public class UCSBOrganizationController extends ApiController {
     @DeleteMapping("")
     public Object deleteOrganization(
             @Parameter(name="orgCode") @RequestParam String orgCode) {
-        UCSBOrganization organization = ucsbOrganizationRepository.findById(orgCode)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBOrganization.class, orgCode));
-
-        ucsbOrganizationRepository.delete(organization);
+        deleteRow(UCSBOrganization.class, orgCode, () -> ucsbOrganizationRepository.deleteRowByOrgCode(orgCode));
+        tableChanged();
         return genericMessage("UCSBOrganization with id %s deleted".formatted(orgCode));
     }
-}
\ No newline at end of file
+
+    @Operation(summary= "Delete many UCSBOrganizations")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("/bulk")
+    public Object deleteOrganizations(
+            @Parameter(name="orgCodes", description="comma separated list of orgCodes (at most 1000)") @RequestParam Set<String> orgCodes) {
+        Object result = deleteRows(UCSBOrganization.class, orgCodes,
+                () -> ucsbOrganizationRepository.deleteRowsByOrgCodeIn(orgCodes));
+        tableChanged();
+        return result;
+    }
+
+    private List<UCSBOrganization> loadAll() {
+        return referenceCacheService.findAll(UCSBOrganization.class, ucsbOrganizationRepository::findAll);
+    }
+
+    private void tableChanged() {
+        referenceCacheService.invalidate(UCSBOrganization.class);
+        refreshJsonSnapshot(UCSBOrganization.class, this::loadAll);
+    }
+}
@@ -1,9 +1,14 @@
 package edu.ucsb.cs156.example.entities;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +25,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity(name = "articles")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "articles")
+@EntityListeners(TableVersionListener.class)
 public class Articles {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -30,4 +38,7 @@ public class Articles {
     private String explanation;
     private String email;
     private LocalDateTime dateAdded;
-}
\ No newline at end of file
+
+    @Version
+    private Long version;
+}
@@ -0,0 +1,33 @@
+package edu.ucsb.cs156.example.entities;
+
+import edu.ucsb.cs156.example.services.TableVersionService;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * This is a JPA entity listener that bumps the version of an entity's table in
+ * the TableVersionService whenever a row is inserted, updated or deleted,
+ * so that ETags for that table change.
+ */
+
+public class TableVersionListener {
+
+  @Autowired
+  private TableVersionService tableVersionService;
+
+  /**
+   * Record that the entity's table changed
+   * @param entity the entity that was inserted, updated or removed
+   */
+  @PostPersist
+  @PostUpdate
+  @PostRemove
+  public void changed(Object entity) {
+    tableVersionService.bumpAfterCommit(Hibernate.getClass(entity));
+  }
+}
@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.example.entities;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -12,6 +13,9 @@ import lombok.NoArgsConstructor;
 
 /**
  * This is a JPA entity that represents a user.
+ *
+ * Users are not in Hibernate's second-level cache: the UserCacheService already
+ * keeps them by email, and is the only place that reads them on every request.
  */
 
 @Data
@@ -19,6 +23,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Builder
 @Entity(name = "users")
+@EntityListeners(UserCacheEvictionListener.class)
 public class User {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
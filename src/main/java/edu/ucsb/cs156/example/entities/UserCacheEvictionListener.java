@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.entities;
+
+import edu.ucsb.cs156.example.services.UserCacheService;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * This is a JPA entity listener that evicts a user from the UserCacheService
+ * whenever their row is updated (e.g. their admin flag changes) or deleted,
+ * so that the cache never serves a stale admin flag.
+ *
+ * The user is evicted when the change is flushed, and again after the transaction
+ * commits: until then, other requests still read the old row from the database,
+ * and a lookup in between could otherwise put it back into the cache.
+ */
+
+public class UserCacheEvictionListener {
+
+  @Autowired
+  private UserCacheService userCacheService;
+
+  /**
+   * Evict the user from the cache
+   * @param user the user that was updated or removed
+   */
+  @PostUpdate
+  @PostRemove
+  public void evict(User user) {
+    String email = user.getEmail();
+    userCacheService.invalidate(email);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          userCacheService.invalidate(email);
+        }
+      });
+    }
+  }
+}
@@ -3,8 +3,16 @@ package edu.ucsb.cs156.example.errors;
 /**
  * This is an error class for a custom RuntimeException in Java that is used to indicate
  * when an entity of a specific type with a given ID is not found.
+ *
+ * Not found is an expected outcome (e.g. a stale client or a crawler asking for an id
+ * that has been deleted), not a bug, so this exception has no stack trace, and its
+ * message is only built when something asks for it.
  */
 public class EntityNotFoundException extends RuntimeException {
+  private final Class<?> entityType;
+  private final Object id;
+  private String message;
+
   /**
    * Constructor for the exception
    * 
@@ -12,7 +20,33 @@ public class EntityNotFoundException extends RuntimeException {
    * @param id the id that was being searched for
    */
   public EntityNotFoundException(Class<?> entityType, Object id) {
-    super("%s with id %s not found"
-      .formatted(entityType.getSimpleName(), id.toString()));
+    super(null, null, false, false);
+    this.entityType = entityType;
+    this.id = id;
+  }
+
+  /**
+   * @return the class of the entity that was not found
+   */
+  public Class<?> getEntityType() {
+    return entityType;
+  }
+
+  /**
+   * @return the id that was being searched for
+   */
+  public Object getId() {
+    return id;
+  }
+
+  /**
+   * @return a message such as "Restaurant with id 7 not found"
+   */
+  @Override
+  public String getMessage() {
+    if (message == null) {
+      message = entityType.getSimpleName() + " with id " + id + " not found";
+    }
+    return message;
   }
 }
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.errors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * This is an error class for an exception that is used to indicate that a request
+ * named more rows than a bulk endpoint handles at once.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TooManyIdsException extends RuntimeException {
+  /**
+   * Constructor for the exception
+   * 
+   * @param entityType The class of the entity, e.g. Restaurant.class
+   * @param count the number of ids in the request
+   * @param max the largest number of ids allowed
+   */
+  public TooManyIdsException(Class<?> entityType, int count, int max) {
+    super("%d %s ids given, but at most %d can be handled at once"
+      .formatted(count, entityType.getSimpleName(), max));
+  }
+}
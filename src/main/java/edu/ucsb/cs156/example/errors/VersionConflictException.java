@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.errors;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * This is an error class for an exception that is used to indicate that an update
+ * was based on a version of an entity that is no longer current, i.e. someone else
+ * has changed the entity since it was read.
+ */
+public class VersionConflictException extends OptimisticLockingFailureException {
+  /**
+   * Constructor for the exception
+   * 
+   * @param entityType The class of the entity that was being updated, e.g. Restaurant.class
+   * @param id the id of the entity
+   * @param version the version that the update was based on
+   */
+  public VersionConflictException(Class<?> entityType, Object id, long version) {
+    super("%s with id %s has been changed since version %d"
+      .formatted(entityType.getSimpleName(), id.toString(), version));
+  }
+}
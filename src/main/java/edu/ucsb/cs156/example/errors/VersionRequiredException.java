@@ -0,0 +1,19 @@
+package edu.ucsb.cs156.example.errors;
+
+/**
+ * This is an error class for an exception that is used to indicate that an update
+ * did not say which version of the entity it was based on, so it can't be checked
+ * against changes made by someone else since.
+ */
+public class VersionRequiredException extends RuntimeException {
+  /**
+   * Constructor for the exception
+   * 
+   * @param entityType The class of the entity that was being updated, e.g. Restaurant.class
+   * @param id the id of the entity
+   */
+  public VersionRequiredException(Class<?> entityType, Object id) {
+    super("an update of %s with id %s must include the version it is based on"
+      .formatted(entityType.getSimpleName(), id.toString()));
+  }
+}
@@ -0,0 +1,35 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that represents the outcome of one item of a bulk insert.
+ *
+ * The status is one of:
+ * <ul>
+ * <li>{@code created}: the item was saved; {@code id} is its new id</li>
+ * <li>{@code invalid}: the item was rejected before saving; see {@code message}</li>
+ * <li>{@code failed}: the batch containing the item could not be saved; see {@code message}</li>
+ * <li>{@code error}: the request body could not be parsed at this item; no further items were read</li>
+ * </ul>
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class BulkItemResult {
+  public static final String CREATED = "created";
+  public static final String INVALID = "invalid";
+  public static final String FAILED = "failed";
+  public static final String ERROR = "error";
+
+  private int index;
+  private String status;
+  private Object id;
+  private String message;
+}
@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that represents a snapshot of the statistics of one
+ * of the application's in-memory caches.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class CacheStats {
+  private String name;
+  private long size;
+  private long maxSize;
+  private long ttlSeconds;
+  private long hits;
+  private long misses;
+  private long evictions;
+  private double hitRate;
+}
@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that represents a snapshot of the state of a database
+ * connection pool: how many connections are in use, how many requests are waiting
+ * for one, and how long getting and holding a connection has taken.
+ *
+ * Times are in milliseconds; percentiles are accurate to about 3%.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ConnectionPoolStats {
+  private String pool;
+  private int activeConnections;
+  private int idleConnections;
+  private int pendingThreads;
+  private int totalConnections;
+  private int maxConnections;
+  private long acquireCount;
+  private long connectionTimeouts;
+  private double acquireMeanMillis;
+  private double acquireP50Millis;
+  private double acquireP95Millis;
+  private double acquireP99Millis;
+  private double acquireMaxMillis;
+  private double usageP50Millis;
+  private double usageP95Millis;
+  private double usageP99Millis;
+  private double usageMaxMillis;
+}
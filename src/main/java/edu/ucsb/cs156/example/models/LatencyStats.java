@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.models;
+
+import java.util.Map;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that represents a snapshot of the latency statistics
+ * of one controller method (endpoint).
+ *
+ * Latencies are in milliseconds; percentiles are accurate to about 3%.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class LatencyStats {
+  private String endpoint;
+  private long count;
+  private double meanMillis;
+  private double p50Millis;
+  private double p95Millis;
+  private double p99Millis;
+  private double maxMillis;
+  private Map<Integer, Long> statusCounts;
+}
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that represents a snapshot of the statistics of one region
+ * of Hibernate's second-level cache (an entity, or the results of cacheable queries).
+ *
+ * Counts are since startup, and stay at 0 if {@code hibernate.generate_statistics} is off.
+ * {@code elementsInMemory} is -1 if the cache does not report it.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SecondLevelCacheStats {
+  private String region;
+  private long elementsInMemory;
+  private long hits;
+  private long misses;
+  private long puts;
+  private double hitRate;
+}
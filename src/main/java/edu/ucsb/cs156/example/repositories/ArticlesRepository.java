@@ -2,13 +2,101 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Articles;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The ArticlesRepository is a repository for Articles entities.
  */
 @Repository
 public interface ArticlesRepository extends CrudRepository<Articles, Long> {
+  /**
+   * This method returns one page of Articles entities, ordered by id, for keyset pagination.
+   * @param id only articles with an id greater than this are returned
+   * @param limit maximum number of articles to return
+   * @return the next page of Articles entities
+   */
+  List<Articles> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  /**
+   * This method streams all Articles entities, ordered by id, for exports.
+   * Rows are fetched from the database in batches as the stream is consumed
+   * rather than all at once, and are not put in the second-level cache,
+   * so it must be called inside a (read-only)
+   * transaction and the stream must be closed when done.
+   * @return a stream of all Articles entities
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+  })
+  Stream<Articles> streamAllByOrderByIdAsc();
+
+  /**
+   * This method updates an article in a single statement, without loading it first,
+   * provided that it still has the given version.  The version is incremented.
+   * @param id id of the row to update
+   * @param title new title
+   * @param url new url
+   * @param explanation new explanation
+   * @param email new email
+   * @param dateAdded new date added
+   * @param version the version the update is based on
+   * @return the number of rows updated: 0 if there is no such row, or it has a different version
+   */
+  @Transactional
+  @Modifying
+  @Query("""
+      update articles e
+      set e.title = :title,
+          e.url = :url,
+          e.explanation = :explanation,
+          e.email = :email,
+          e.dateAdded = :dateAdded,
+          e.version = e.version + 1
+      where e.id = :id and e.version = :version
+      """)
+  int updateIfVersionMatches(
+      @Param("id") long id,
+      @Param("title") String title,
+      @Param("url") String url,
+      @Param("explanation") String explanation,
+      @Param("email") String email,
+      @Param("dateAdded") LocalDateTime dateAdded,
+      @Param("version") long version);
+
+  /**
+   * This method deletes an article in a single statement, without loading it first.
+   * @param id id of the row to delete
+   * @return the number of rows deleted: 0 if there is no such row
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from articles e where e.id = :id")
+  int deleteRowById(@Param("id") long id);
 
-}
\ No newline at end of file
+  /**
+   * This method deletes many articles in a single statement, without loading them first.
+   * @param ids ids of the rows to delete; ids that do not exist are ignored
+   * @return the number of rows deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from articles e where e.id in :ids")
+  int deleteRowsByIdIn(@Param("ids") Collection<Long> ids);
+}
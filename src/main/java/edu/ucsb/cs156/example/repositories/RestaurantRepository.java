@@ -2,12 +2,71 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * The RestaurantRepository is a repository for Restaurant entities
  */
 @Repository
 public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
+  /**
+   * This method returns one page of Restaurant entities, ordered by id, for keyset pagination.
+   * @param id only restaurants with an id greater than this are returned
+   * @param limit maximum number of restaurants to return
+   * @return the next page of Restaurant entities
+   */
+  List<Restaurant> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  /**
+   * This method updates a restaurant in a single statement, without loading it first,
+   * provided that it still has the given version.  The version is incremented.
+   * @param id id of the row to update
+   * @param name new name
+   * @param description new description
+   * @param version the version the update is based on
+   * @return the number of rows updated: 0 if there is no such row, or it has a different version
+   */
+  @Transactional
+  @Modifying
+  @Query("""
+      update restaurants e
+      set e.name = :name,
+          e.description = :description,
+          e.version = e.version + 1
+      where e.id = :id and e.version = :version
+      """)
+  int updateIfVersionMatches(
+      @Param("id") long id,
+      @Param("name") String name,
+      @Param("description") String description,
+      @Param("version") long version);
+
+  /**
+   * This method deletes a restaurant in a single statement, without loading it first.
+   * @param id id of the row to delete
+   * @return the number of rows deleted: 0 if there is no such row
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from restaurants e where e.id = :id")
+  int deleteRowById(@Param("id") long id);
+
+  /**
+   * This method deletes many restaurants in a single statement, without loading them first.
+   * @param ids ids of the rows to delete; ids that do not exist are ignored
+   * @return the number of rows deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from restaurants e where e.id in :ids")
+  int deleteRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -2,8 +2,22 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The UCSBDateRepository is a repository for UCSBDate entities.
@@ -17,4 +31,114 @@ public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
    * @return all UCSBDate entities with a given quarterYYYYQ
    */
   Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
-}
\ No newline at end of file
+
+  /**
+   * This method returns all UCSBDate entities with a given quarterYYYYQ, in date order.
+   * @param quarterYYYYQ quarter in the format YYYYQ
+   * @return the dates of the quarter, earliest first
+   */
+  List<UCSBDate> findAllByQuarterYYYYQOrderByLocalDateTimeAsc(String quarterYYYYQ);
+
+  /**
+   * This method returns the UCSBDate entities of a quarter that fall in a range, in date order.
+   * @param quarterYYYYQ quarter in the format YYYYQ
+   * @param start start of the range (inclusive)
+   * @param end end of the range (inclusive)
+   * @return the matching dates, earliest first
+   */
+  List<UCSBDate> findAllByQuarterYYYYQAndLocalDateTimeBetweenOrderByLocalDateTimeAsc(String quarterYYYYQ, LocalDateTime start, LocalDateTime end);
+
+  /**
+   * This method returns the UCSBDate entities of a quarter at or after a given time, in date order.
+   * @param quarterYYYYQ quarter in the format YYYYQ
+   * @param start start of the range (inclusive)
+   * @return the matching dates, earliest first
+   */
+  List<UCSBDate> findAllByQuarterYYYYQAndLocalDateTimeGreaterThanEqualOrderByLocalDateTimeAsc(String quarterYYYYQ, LocalDateTime start);
+
+  /**
+   * This method returns the UCSBDate entities of a quarter at or before a given time, in date order.
+   * @param quarterYYYYQ quarter in the format YYYYQ
+   * @param end end of the range (inclusive)
+   * @return the matching dates, earliest first
+   */
+  List<UCSBDate> findAllByQuarterYYYYQAndLocalDateTimeLessThanEqualOrderByLocalDateTimeAsc(String quarterYYYYQ, LocalDateTime end);
+
+  /**
+   * This method returns the UCSBDate entities that fall in a range, in date order.
+   * @param start start of the range (inclusive)
+   * @param end end of the range (inclusive)
+   * @return the matching dates, earliest first
+   */
+  List<UCSBDate> findAllByLocalDateTimeBetweenOrderByLocalDateTimeAsc(LocalDateTime start, LocalDateTime end);
+
+  /**
+   * This method returns one page of UCSBDate entities, ordered by id, for keyset pagination.
+   * @param id only dates with an id greater than this are returned
+   * @param limit maximum number of dates to return
+   * @return the next page of UCSBDate entities
+   */
+  List<UCSBDate> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  /**
+   * This method streams all UCSBDate entities, ordered by id, for exports.
+   * Rows are fetched from the database in batches as the stream is consumed
+   * rather than all at once, and are not put in the second-level cache,
+   * so it must be called inside a (read-only)
+   * transaction and the stream must be closed when done.
+   * @return a stream of all UCSBDate entities
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+  })
+  Stream<UCSBDate> streamAllByOrderByIdAsc();
+
+  /**
+   * This method updates a UCSBDate in a single statement, without loading it first,
+   * provided that it still has the given version.  The version is incremented.
+   * @param id id of the row to update
+   * @param quarterYYYYQ new quarter, in the format YYYYQ
+   * @param name new name
+   * @param localDateTime new date and time
+   * @param version the version the update is based on
+   * @return the number of rows updated: 0 if there is no such row, or it has a different version
+   */
+  @Transactional
+  @Modifying
+  @Query("""
+      update ucsbdates e
+      set e.quarterYYYYQ = :quarterYYYYQ,
+          e.name = :name,
+          e.localDateTime = :localDateTime,
+          e.version = e.version + 1
+      where e.id = :id and e.version = :version
+      """)
+  int updateIfVersionMatches(
+      @Param("id") long id,
+      @Param("quarterYYYYQ") String quarterYYYYQ,
+      @Param("name") String name,
+      @Param("localDateTime") LocalDateTime localDateTime,
+      @Param("version") long version);
+
+  /**
+   * This method deletes a date in a single statement, without loading it first.
+   * @param id id of the row to delete
+   * @return the number of rows deleted: 0 if there is no such row
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsbdates e where e.id = :id")
+  int deleteRowById(@Param("id") long id);
+
+  /**
+   * This method deletes many dates in a single statement, without loading them first.
+   * @param ids ids of the rows to delete; ids that do not exist are ignored
+   * @return the number of rows deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsbdates e where e.id in :ids")
+  int deleteRowsByIdIn(@Param("ids") Collection<Long> ids);
+}
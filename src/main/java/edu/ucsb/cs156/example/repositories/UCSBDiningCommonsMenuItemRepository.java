@@ -2,13 +2,142 @@ package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.QueryHint;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
 public interface UCSBDiningCommonsMenuItemRepository extends CrudRepository<UCSBDiningCommonsMenuItem, Long> {
- 
-}
\ No newline at end of file
+  /**
+   * This method returns one page of UCSBDiningCommonsMenuItem entities, ordered by id, for keyset pagination.
+   * @param id only menu items with an id greater than this are returned
+   * @param limit maximum number of menu items to return
+   * @return the next page of UCSBDiningCommonsMenuItem entities
+   */
+  List<UCSBDiningCommonsMenuItem> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  /**
+   * This method returns one page of the menu items of a dining commons, ordered by id.
+   * @param diningCommonsCode code of the dining commons
+   * @param id only menu items with an id greater than this are returned
+   * @param limit maximum number of menu items to return
+   * @return the next page of matching UCSBDiningCommonsMenuItem entities
+   */
+  List<UCSBDiningCommonsMenuItem> findByDiningCommonsCodeAndIdGreaterThanOrderByIdAsc(String diningCommonsCode, long id, Limit limit);
+
+  /**
+   * This method returns one page of the menu items of one station of a dining commons, ordered by id.
+   * @param diningCommonsCode code of the dining commons
+   * @param station name of the station
+   * @param id only menu items with an id greater than this are returned
+   * @param limit maximum number of menu items to return
+   * @return the next page of matching UCSBDiningCommonsMenuItem entities
+   */
+  List<UCSBDiningCommonsMenuItem> findByDiningCommonsCodeAndStationAndIdGreaterThanOrderByIdAsc(String diningCommonsCode, String station, long id, Limit limit);
+
+  /**
+   * This method returns one page of the menu items of a station (in any dining commons), ordered by id.
+   * @param station name of the station
+   * @param id only menu items with an id greater than this are returned
+   * @param limit maximum number of menu items to return
+   * @return the next page of matching UCSBDiningCommonsMenuItem entities
+   */
+  List<UCSBDiningCommonsMenuItem> findByStationAndIdGreaterThanOrderByIdAsc(String station, long id, Limit limit);
+
+  /**
+   * This method returns one page of the menu items whose name starts with the given text
+   * (ignoring case), ordered by id.
+   * @param prefix the start of the name
+   * @param id only menu items with an id greater than this are returned
+   * @param limit maximum number of menu items to return
+   * @return the next page of matching UCSBDiningCommonsMenuItem entities
+   */
+  List<UCSBDiningCommonsMenuItem> findByNameStartingWithIgnoreCaseAndIdGreaterThanOrderByIdAsc(String prefix, long id, Limit limit);
+
+  /**
+   * This method returns one page of the menu items whose name contains the given text
+   * (ignoring case), ordered by id.
+   * @param text text to look for in the name
+   * @param id only menu items with an id greater than this are returned
+   * @param limit maximum number of menu items to return
+   * @return the next page of matching UCSBDiningCommonsMenuItem entities
+   */
+  List<UCSBDiningCommonsMenuItem> findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(String text, long id, Limit limit);
+
+  /**
+   * This method streams all UCSBDiningCommonsMenuItem entities, ordered by id, for exports.
+   * Rows are fetched from the database in batches as the stream is consumed
+   * rather than all at once, and are not put in the second-level cache,
+   * so it must be called inside a (read-only)
+   * transaction and the stream must be closed when done.
+   * @return a stream of all UCSBDiningCommonsMenuItem entities
+   */
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+  })
+  Stream<UCSBDiningCommonsMenuItem> streamAllByOrderByIdAsc();
+
+  /**
+   * This method updates a menu item in a single statement, without loading it first,
+   * provided that it still has the given version.  The version is incremented.
+   * @param id id of the row to update
+   * @param diningCommonsCode new dining commons code
+   * @param name new name
+   * @param station new station
+   * @param version the version the update is based on
+   * @return the number of rows updated: 0 if there is no such row, or it has a different version
+   */
+  @Transactional
+  @Modifying
+  @Query("""
+      update ucsbdiningcommonsmenuitem e
+      set e.diningCommonsCode = :diningCommonsCode,
+          e.name = :name,
+          e.station = :station,
+          e.version = e.version + 1
+      where e.id = :id and e.version = :version
+      """)
+  int updateIfVersionMatches(
+      @Param("id") long id,
+      @Param("diningCommonsCode") String diningCommonsCode,
+      @Param("name") String name,
+      @Param("station") String station,
+      @Param("version") long version);
+
+  /**
+   * This method deletes a menu item in a single statement, without loading it first.
+   * @param id id of the row to delete
+   * @return the number of rows deleted: 0 if there is no such row
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsbdiningcommonsmenuitem e where e.id = :id")
+  int deleteRowById(@Param("id") long id);
+
+  /**
+   * This method deletes many menu items in a single statement, without loading them first.
+   * @param ids ids of the rows to delete; ids that do not exist are ignored
+   * @return the number of rows deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsbdiningcommonsmenuitem e where e.id in :ids")
+  int deleteRowsByIdIn(@Param("ids") Collection<Long> ids);
+}
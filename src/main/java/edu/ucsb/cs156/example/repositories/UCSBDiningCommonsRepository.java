@@ -3,13 +3,83 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
 public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
-}
\ No newline at end of file
+  /**
+   * This method returns one page of UCSBDiningCommons entities, ordered by code, for keyset pagination.
+   * @param code only commons whose code sorts after this are returned
+   * @param limit maximum number of commons to return
+   * @return the next page of UCSBDiningCommons entities
+   */
+  List<UCSBDiningCommons> findByCodeGreaterThanOrderByCodeAsc(String code, Limit limit);
+
+  /**
+   * This method updates a dining commons in a single statement, without loading it first,
+   * provided that it still has the given version.  The version is incremented.
+   * @param code code of the row to update
+   * @param name new name
+   * @param hasSackMeal whether it has sack meals
+   * @param hasTakeOutMeal whether it has take out meals
+   * @param hasDiningCam whether it has a dining cam
+   * @param latitude new latitude
+   * @param longitude new longitude
+   * @param version the version the update is based on
+   * @return the number of rows updated: 0 if there is no such row, or it has a different version
+   */
+  @Transactional
+  @Modifying
+  @Query("""
+      update ucsbdiningcommons e
+      set e.name = :name,
+          e.hasSackMeal = :hasSackMeal,
+          e.hasTakeOutMeal = :hasTakeOutMeal,
+          e.hasDiningCam = :hasDiningCam,
+          e.latitude = :latitude,
+          e.longitude = :longitude,
+          e.version = e.version + 1
+      where e.code = :code and e.version = :version
+      """)
+  int updateIfVersionMatches(
+      @Param("code") String code,
+      @Param("name") String name,
+      @Param("hasSackMeal") boolean hasSackMeal,
+      @Param("hasTakeOutMeal") boolean hasTakeOutMeal,
+      @Param("hasDiningCam") boolean hasDiningCam,
+      @Param("latitude") Double latitude,
+      @Param("longitude") Double longitude,
+      @Param("version") long version);
+
+  /**
+   * This method deletes a dining commons in a single statement, without loading it first.
+   * @param code code of the row to delete
+   * @return the number of rows deleted: 0 if there is no such row
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsbdiningcommons e where e.code = :code")
+  int deleteRowByCode(@Param("code") String code);
+
+  /**
+   * This method deletes many dining commons in a single statement, without loading them first.
+   * @param codes codes of the rows to delete; codes that do not exist are ignored
+   * @return the number of rows deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsbdiningcommons e where e.code in :codes")
+  int deleteRowsByCodeIn(@Param("codes") Collection<String> codes);
+}
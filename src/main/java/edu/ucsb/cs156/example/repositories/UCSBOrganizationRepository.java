@@ -3,11 +3,72 @@ package edu.ucsb.cs156.example.repositories;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 
 @Repository
 public interface UCSBOrganizationRepository extends CrudRepository<UCSBOrganization, String> {
- 
-}
\ No newline at end of file
+  /**
+   * This method returns one page of UCSBOrganization entities, ordered by orgCode, for keyset pagination.
+   * @param orgCode only organizations whose orgCode sorts after this are returned
+   * @param limit maximum number of organizations to return
+   * @return the next page of UCSBOrganization entities
+   */
+  List<UCSBOrganization> findByOrgCodeGreaterThanOrderByOrgCodeAsc(String orgCode, Limit limit);
+
+  /**
+   * This method updates an organization in a single statement, without loading it first,
+   * provided that it still has the given version.  The version is incremented.
+   * @param orgCode orgCode of the row to update
+   * @param orgTranslationShort new short name
+   * @param orgTranslation new full name
+   * @param inactive whether it is inactive
+   * @param version the version the update is based on
+   * @return the number of rows updated: 0 if there is no such row, or it has a different version
+   */
+  @Transactional
+  @Modifying
+  @Query("""
+      update ucsborganization e
+      set e.orgTranslationShort = :orgTranslationShort,
+          e.orgTranslation = :orgTranslation,
+          e.inactive = :inactive,
+          e.version = e.version + 1
+      where e.orgCode = :orgCode and e.version = :version
+      """)
+  int updateIfVersionMatches(
+      @Param("orgCode") String orgCode,
+      @Param("orgTranslationShort") String orgTranslationShort,
+      @Param("orgTranslation") String orgTranslation,
+      @Param("inactive") boolean inactive,
+      @Param("version") long version);
+
+  /**
+   * This method deletes an organization in a single statement, without loading it first.
+   * @param orgCode orgCode of the row to delete
+   * @return the number of rows deleted: 0 if there is no such row
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsborganization e where e.orgCode = :orgCode")
+  int deleteRowByOrgCode(@Param("orgCode") String orgCode);
+
+  /**
+   * This method deletes many organizations in a single statement, without loading them first.
+   * @param orgCodes orgCodes of the rows to delete; orgCodes that do not exist are ignored
+   * @return the number of rows deleted
+   */
+  @Transactional
+  @Modifying
+  @Query("delete from ucsborganization e where e.orgCode in :orgCodes")
+  int deleteRowsByOrgCodeIn(@Param("orgCodes") Collection<String> orgCodes);
+}
@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that decides whether a user is an admin.
+ *
+ * A user is an admin if their email is listed in {@code app.admin.emails}, or if
+ * the admin flag is set on their row in the users table.  The configured emails
+ * are kept in a hashed set, and user rows are read through the shared
+ * UserCacheService, so the login flow (SecurityConfig) and CurrentUserServiceImpl
+ * share a single lookup of the user.
+ */
+
+@Service("adminLookup")
+public class AdminLookupService {
+
+  private final Set<String> adminEmails;
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  UserCacheService userCacheService;
+
+  /**
+   * Create the service
+   * @param adminEmails the email addresses of users that are always admins
+   */
+  public AdminLookupService(@Value("${app.admin.emails}") List<String> adminEmails) {
+    this.adminEmails = Set.copyOf(adminEmails);
+  }
+
+  /**
+   * This method checks whether the email is listed in {@code app.admin.emails}.
+   * @param email email address of the user
+   * @return whether the email is a configured admin email
+   */
+  public boolean isConfiguredAdmin(String email) {
+    return adminEmails.contains(email);
+  }
+
+  /**
+   * This method checks if the given email belongs to an admin user either from
+   * the configured list or from the admin flag of the user in the database.
+   * @param email email address of the user
+   * @return whether the user with the given email is an admin
+   */
+  public boolean isAdmin(String email) {
+    if (isConfiguredAdmin(email)) {
+      return true;
+    }
+    User u = findUser(email);
+    return u != null && u.getAdmin();
+  }
+
+  /**
+   * This method returns the user with the given email, using the cache if possible.
+   * @param email email address of the user
+   * @return the user, or null if there is no user with that email
+   */
+  public User findUser(String email) {
+    return userCacheService.get(email, e -> userRepository.findByEmail(e).orElse(null));
+  }
+
+  /**
+   * This method forgets the cached user (and so the admin flag) for the given email.
+   * @param email email address of the user
+   */
+  public void invalidate(String email) {
+    userCacheService.invalidate(email);
+  }
+}
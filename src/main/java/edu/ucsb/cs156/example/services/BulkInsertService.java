@@ -0,0 +1,125 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.models.BulkItemResult;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * This is a service for inserting many entities from a single request body,
+ * which may be either a JSON array or newline-delimited JSON (one object per line).
+ *
+ * Items are read from the body one at a time and saved in chunks of
+ * {@code app.bulk.chunk-size} (default 500), one transaction per chunk, so that
+ * Hibernate can send each chunk to the database as JDBC batches.  Memory use
+ * does not grow with the size of the body.  A chunk that fails to save is rolled
+ * back on its own; the other chunks are still saved.
+ */
+
+@Slf4j
+@Service("bulkInsert")
+public class BulkInsertService {
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private ObjectMapper mapper;
+
+  @Value("${app.bulk.chunk-size:500}")
+  private int chunkSize = 500;
+
+  /**
+   * This method reads entities from the body and saves the valid ones.
+   *
+   * @param <T> the entity type
+   * @param body the request body: a JSON array, or one JSON object per line
+   * @param type the entity class
+   * @param prepare function that checks an item and prepares it for insert; returns
+   *                a description of the problem, or null if the item should be saved
+   * @param repository the repository to save the items with
+   * @param idOf function that returns the id of a saved item
+   * @return one result per item that was read, in the order the items appeared in the body
+   * @throws IOException if reading the body fails
+   */
+  public <T> List<BulkItemResult> insert(InputStream body, Class<T> type, Function<T, String> prepare,
+      CrudRepository<T, ?> repository, Function<T, ?> idOf) throws IOException {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    List<BulkItemResult> results = new ArrayList<>();
+    List<T> chunk = new ArrayList<>();
+    List<Integer> chunkIndexes = new ArrayList<>();
+    int index = 0;
+
+    try (MappingIterator<T> items = mapper.readerFor(type).readValues(body)) {
+      while (items.hasNextValue()) {
+        T item = items.nextValue();
+        String problem = prepare.apply(item);
+        if (problem != null) {
+          results.add(BulkItemResult.builder().index(index).status(BulkItemResult.INVALID).message(problem).build());
+        } else {
+          chunk.add(item);
+          chunkIndexes.add(index);
+          if (chunk.size() >= chunkSize) {
+            saveChunk(transaction, repository, idOf, chunk, chunkIndexes, results);
+          }
+        }
+        index++;
+      }
+    } catch (JsonProcessingException e) {
+      results.add(BulkItemResult.builder().index(index).status(BulkItemResult.ERROR).message(e.getOriginalMessage()).build());
+    }
+    saveChunk(transaction, repository, idOf, chunk, chunkIndexes, results);
+
+    results.sort(Comparator.comparingInt(BulkItemResult::getIndex));
+    log.info("bulk insert of {} items into {}", index, type.getSimpleName());
+    return results;
+  }
+
+  /**
+   * This method saves one chunk of items in its own transaction, records the
+   * outcome of each item, and empties the chunk.
+   */
+  private <T> void saveChunk(TransactionTemplate transaction, CrudRepository<T, ?> repository, Function<T, ?> idOf,
+      List<T> chunk, List<Integer> chunkIndexes, List<BulkItemResult> results) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    try {
+      List<T> saved = transaction.execute(status -> {
+        List<T> list = new ArrayList<>(chunk.size());
+        repository.saveAll(chunk).forEach(list::add);
+        return list;
+      });
+      for (int i = 0; i < saved.size(); i++) {
+        results.add(BulkItemResult.builder().index(chunkIndexes.get(i)).status(BulkItemResult.CREATED)
+            .id(idOf.apply(saved.get(i))).build());
+      }
+    } catch (DataAccessException | TransactionException e) {
+      log.warn("bulk insert chunk of {} items failed: {}", chunk.size(), e.getMessage());
+      for (Integer chunkIndex : chunkIndexes) {
+        results.add(BulkItemResult.builder().index(chunkIndex).status(BulkItemResult.FAILED)
+            .message(e.getMostSpecificCause().getMessage()).build());
+      }
+    }
+    chunk.clear();
+    chunkIndexes.clear();
+  }
+}
@@ -0,0 +1,155 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.services.latency.LatencyHistogram;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * This is a service that collects metrics from the HikariCP connection pool
+ * (it is installed as the pool's MetricsTrackerFactory by ConnectionPoolConfig).
+ *
+ * For each pool it keeps the current number of active, idle and pending connections,
+ * and histograms of how long it took to get a connection and how long it was held.
+ *
+ * When a connection is returned after being held for at least
+ * {@code spring.datasource.hikari.leak-detection-threshold} milliseconds, a warning naming
+ * the controller method that held it is logged.  (Hikari itself logs the stack trace of
+ * where a connection was taken if it is still not returned by then.)
+ */
+
+@Slf4j
+@Service("connectionPoolStats")
+public class ConnectionPoolStatsService implements MetricsTrackerFactory {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final long leakThresholdMillis;
+  private final Map<String, Tracker> pools = new ConcurrentHashMap<>();
+
+  /**
+   * Create the service
+   * @param leakThresholdMillis how long a connection may be held before a warning is logged; 0 for never
+   */
+  public ConnectionPoolStatsService(
+      @Value("${spring.datasource.hikari.leak-detection-threshold:0}") long leakThresholdMillis) {
+    this.leakThresholdMillis = leakThresholdMillis;
+  }
+
+  /**
+   * This method is called by Hikari when a pool starts.
+   * @param poolName the name of the pool
+   * @param poolStats the pool's connection counts
+   * @return the tracker that Hikari reports the pool's events to
+   */
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    Tracker tracker = new Tracker(poolName, poolStats);
+    pools.put(poolName, tracker);
+    return tracker;
+  }
+
+  /**
+   * This method returns the statistics of every running pool.
+   * @return the statistics, sorted by pool name
+   */
+  public List<ConnectionPoolStats> getStats() {
+    return pools.values().stream()
+        .map(Tracker::toStats)
+        .sorted(Comparator.comparing(ConnectionPoolStats::getPool))
+        .toList();
+  }
+
+  /**
+   * Returns the name of the controller method that the current thread is handling,
+   * in the same form as the latency statistics (e.g. "ArticlesController.allArticles"),
+   * or the name of the thread if it is not handling a request.
+   */
+  static String currentEndpoint() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    Object handler = attributes == null ? null
+        : attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (handler instanceof HandlerMethod method) {
+      return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+    }
+    return "thread " + Thread.currentThread().getName();
+  }
+
+  private class Tracker implements IMetricsTracker {
+    final String poolName;
+    final PoolStats poolStats;
+    final LatencyHistogram acquire = new LatencyHistogram();
+    final LatencyHistogram usage = new LatencyHistogram();
+    final LongAdder timeouts = new LongAdder();
+
+    Tracker(String poolName, PoolStats poolStats) {
+      this.poolName = poolName;
+      this.poolStats = poolStats;
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+      acquire.record(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+      usage.record(elapsedBorrowedMillis * 1_000_000);
+      if (leakThresholdMillis > 0 && elapsedBorrowedMillis >= leakThresholdMillis) {
+        log.warn("connection from pool {} was held for {} ms by {}",
+            poolName, elapsedBorrowedMillis, currentEndpoint());
+      }
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+      timeouts.increment();
+    }
+
+    @Override
+    public void close() {
+      pools.remove(poolName, this);
+    }
+
+    ConnectionPoolStats toStats() {
+      LatencyHistogram.Snapshot acquired = acquire.snapshot();
+      LatencyHistogram.Snapshot used = usage.snapshot();
+      return ConnectionPoolStats.builder()
+          .pool(poolName)
+          .activeConnections(poolStats.getActiveConnections())
+          .idleConnections(poolStats.getIdleConnections())
+          .pendingThreads(poolStats.getPendingThreads())
+          .totalConnections(poolStats.getTotalConnections())
+          .maxConnections(poolStats.getMaxConnections())
+          .acquireCount(acquired.count())
+          .connectionTimeouts(timeouts.sum())
+          .acquireMeanMillis(acquired.mean() / NANOS_PER_MILLI)
+          .acquireP50Millis(acquired.percentile(50) / NANOS_PER_MILLI)
+          .acquireP95Millis(acquired.percentile(95) / NANOS_PER_MILLI)
+          .acquireP99Millis(acquired.percentile(99) / NANOS_PER_MILLI)
+          .acquireMaxMillis(acquired.max() / NANOS_PER_MILLI)
+          .usageP50Millis(used.percentile(50) / NANOS_PER_MILLI)
+          .usageP95Millis(used.percentile(95) / NANOS_PER_MILLI)
+          .usageP99Millis(used.percentile(99) / NANOS_PER_MILLI)
+          .usageMaxMillis(used.max() / NANOS_PER_MILLI)
+          .build();
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * This is a service that keeps the JSON of whole-table listings (e.g. /all endpoints
+ * that are polled by many clients) already serialized, both as plain UTF-8 and gzipped,
+ * so that serving them is just copying bytes to the response.
+ *
+ * A snapshot is only used while its table's version in the TableVersionService is
+ * unchanged; after a change it is rebuilt, either on the next request or, when the
+ * change was made through a controller, in the background right away.  Since the
+ * versions are kept in the database, a change made through another instance makes the
+ * snapshot stale too, within {@code app.table-versions.max-staleness}.
+ */
+
+@Slf4j
+@Service("jsonSnapshots")
+public class JsonSnapshotService {
+
+  /**
+   * The serialized contents of a table.
+   * @param version the version of the table the rows were read at
+   * @param json the rows as UTF-8 JSON
+   * @param gzip the same JSON, gzipped
+   */
+  public record Snapshot(long version, byte[] json, byte[] gzip) {
+  }
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  @Autowired
+  TaskExecutor taskExecutor;
+
+  private final Map<Class<?>, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+  /**
+   * This method returns the snapshot of a table, building it if the table has
+   * changed since the last one was built.
+   * @param table the entity class of the table
+   * @param rows supplies the rows of the table
+   * @return the current snapshot
+   */
+  public Snapshot get(Class<?> table, Supplier<?> rows) {
+    Snapshot snapshot = snapshots.get(table);
+    if (snapshot != null && snapshot.version() == tableVersionService.version(table)) {
+      return snapshot;
+    }
+    return build(table, rows);
+  }
+
+  /**
+   * This method rebuilds the snapshot of a table in the background.  Call it after
+   * changing the table, so that the next request does not have to wait for the rebuild.
+   * @param table the entity class of the table
+   * @param rows supplies the rows of the table
+   */
+  public void refreshAsync(Class<?> table, Supplier<?> rows) {
+    taskExecutor.execute(() -> {
+      try {
+        build(table, rows);
+      } catch (RuntimeException e) {
+        log.warn("could not rebuild json snapshot of {}: {}", table.getSimpleName(), e.toString());
+      }
+    });
+  }
+
+  /**
+   * This method serializes the rows of a table and stores the result, unless a
+   * snapshot of a later version has been stored in the meantime.
+   * @param table the entity class of the table
+   * @param rows supplies the rows of the table
+   * @return the new snapshot
+   */
+  Snapshot build(Class<?> table, Supplier<?> rows) {
+    long version = tableVersionService.version(table);
+    Snapshot snapshot;
+    try {
+      byte[] json = mapper.writeValueAsBytes(rows.get());
+      snapshot = new Snapshot(version, json, gzip(json));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    snapshots.merge(table, snapshot, (current, built) -> built.version() >= current.version() ? built : current);
+    return snapshot;
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+}
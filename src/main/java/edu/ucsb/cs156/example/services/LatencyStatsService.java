@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.LatencyStats;
+import edu.ucsb.cs156.example.services.latency.LatencyHistogram;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that keeps a latency histogram and counts by HTTP status
+ * for each controller method.  Latencies are recorded by LatencyAspect.
+ */
+
+@Service("latencyStats")
+public class LatencyStatsService {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private static class EndpointLatency {
+    final LatencyHistogram histogram = new LatencyHistogram();
+    final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+  }
+
+  private final Map<String, EndpointLatency> endpoints = new ConcurrentHashMap<>();
+
+  /**
+   * This method records one call of an endpoint.
+   * @param endpoint name of the endpoint, e.g. "ArticlesController.allArticles"
+   * @param status the HTTP status of the response
+   * @param nanos how long the call took, in nanoseconds
+   */
+  public void record(String endpoint, int status, long nanos) {
+    EndpointLatency latency = endpoints.computeIfAbsent(endpoint, e -> new EndpointLatency());
+    latency.histogram.record(nanos);
+    latency.statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+  }
+
+  /**
+   * This method returns the latency statistics of every endpoint that has been called.
+   * @return the statistics, sorted by endpoint name
+   */
+  public List<LatencyStats> getStats() {
+    return endpoints.entrySet().stream()
+        .sorted(Map.Entry.comparingByKey(Comparator.naturalOrder()))
+        .map(entry -> toStats(entry.getKey(), entry.getValue()))
+        .toList();
+  }
+
+  /**
+   * This method forgets everything recorded so far.
+   */
+  public void reset() {
+    endpoints.clear();
+  }
+
+  private static LatencyStats toStats(String endpoint, EndpointLatency latency) {
+    LatencyHistogram.Snapshot snapshot = latency.histogram.snapshot();
+    Map<Integer, Long> statusCounts = new TreeMap<>();
+    latency.statusCounts.forEach((status, count) -> statusCounts.put(status, count.sum()));
+    return LatencyStats.builder()
+        .endpoint(endpoint)
+        .count(snapshot.count())
+        .meanMillis(snapshot.mean() / NANOS_PER_MILLI)
+        .p50Millis(snapshot.percentile(50) / NANOS_PER_MILLI)
+        .p95Millis(snapshot.percentile(95) / NANOS_PER_MILLI)
+        .p99Millis(snapshot.percentile(99) / NANOS_PER_MILLI)
+        .maxMillis(snapshot.max() / NANOS_PER_MILLI)
+        .statusCounts(statusCounts)
+        .build();
+  }
+}
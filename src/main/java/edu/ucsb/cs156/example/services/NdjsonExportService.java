@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * This is a service for exporting whole tables as newline-delimited JSON
+ * (application/x-ndjson), one entity per line.
+ *
+ * Rows are read from a JPA {@code Stream} inside a read-only transaction,
+ * written to the response as they arrive, and detached from the persistence
+ * context once written, so memory use stays flat no matter how big the table is.
+ */
+
+@Slf4j
+@Service("ndjsonExport")
+public class NdjsonExportService {
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private ObjectMapper mapper;
+
+  /**
+   * This method returns a response that streams the given rows as newline-delimited JSON.
+   * The query is not run until the response body is written.
+   *
+   * @param <T> the entity type
+   * @param rows supplier of the stream of rows, e.g. a repository method reference
+   * @return response entity whose body writes one JSON object per line
+   */
+  public <T> ResponseEntity<StreamingResponseBody> export(Supplier<Stream<T>> rows) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(out -> writeRows(rows, out));
+  }
+
+  /**
+   * This method writes all of the rows to the output stream, one JSON object per line.
+   *
+   * @param <T> the entity type
+   * @param rows supplier of the stream of rows
+   * @param out the output stream
+   * @throws IOException if writing to the output stream fails
+   */
+  <T> void writeRows(Supplier<Stream<T>> rows, OutputStream out) throws IOException {
+    ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    transaction.setReadOnly(true);
+
+    try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(null);
+      transaction.executeWithoutResult(status -> {
+        try (Stream<T> stream = rows.get()) {
+          stream.forEach(row -> {
+            try {
+              writer.writeValue(generator, row);
+              generator.writeRaw('\n');
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            entityManager.detach(row);
+          });
+        }
+      });
+      generator.flush();
+    } catch (UncheckedIOException e) {
+      log.warn("ndjson export aborted: {}", e.getMessage());
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.services.cache.TtlCache;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that caches small reference tables (e.g. dining commons and
+ * organizations) in memory, so that reading them does not need a database round trip.
+ *
+ * Each table gets its own cache, holding both single rows (by id) and the list of all rows.
+ * Entries are keyed by the table's version in the TableVersionService, so once a change
+ * commits, entries loaded before it are never returned again, even if a concurrent
+ * reader put them in the cache after the writer called invalidate.
+ *
+ * Entries expire after {@code app.cache.reference.ttl} (default 10 minutes), and at most
+ * {@code app.cache.reference.max-size} entries (default 1000) are kept per table.
+ */
+
+@Service("referenceCache")
+public class ReferenceCacheService {
+
+  private record Key(long version, Object id) {
+  }
+
+  private static final Object ALL = new Object();
+
+  private final int maxSize;
+  private final Duration ttl;
+  private final Map<Class<?>, TtlCache<Key, Object>> caches = new ConcurrentHashMap<>();
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  /**
+   * Create the service
+   * @param maxSize maximum number of entries to cache per table
+   * @param ttl how long a cached entry stays valid
+   */
+  public ReferenceCacheService(
+      @Value("${app.cache.reference.max-size:1000}") int maxSize,
+      @Value("${app.cache.reference.ttl:PT10M}") Duration ttl) {
+    this.maxSize = maxSize;
+    this.ttl = ttl;
+  }
+
+  /**
+   * This method returns all rows of a table, loading them on a cache miss.
+   * @param <T> the entity type
+   * @param table the entity class of the table
+   * @param loader function that loads all rows, e.g. repository::findAll
+   * @return an unmodifiable list of all rows
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> findAll(Class<T> table, Supplier<? extends Iterable<T>> loader) {
+    return (List<T>) cache(table).get(key(table, ALL), k -> copyOf(loader.get()));
+  }
+
+  /**
+   * This method returns a single row of a table, loading it on a cache miss.
+   * Rows that are not found are not cached.
+   * @param <T> the entity type
+   * @param <ID> the type of the id
+   * @param table the entity class of the table
+   * @param id the id of the row
+   * @param loader function that loads one row, e.g. repository::findById
+   * @return the row, if there is one
+   */
+  public <T, ID> Optional<T> findById(Class<T> table, ID id, Function<ID, Optional<T>> loader) {
+    return Optional.ofNullable(table.cast(cache(table).get(key(table, id), k -> loader.apply(id).orElse(null))));
+  }
+
+  /**
+   * This method removes all cached entries for a table.  Call it after writing to the table.
+   * @param table the entity class of the table
+   */
+  public void invalidate(Class<?> table) {
+    cache(table).invalidateAll();
+  }
+
+  /**
+   * This method returns the hit/miss statistics of the cache of each table.
+   * @return the cache statistics, ordered by name
+   */
+  public List<CacheStats> getStats() {
+    return caches.values().stream()
+        .map(TtlCache::stats)
+        .sorted(Comparator.comparing(CacheStats::getName))
+        .toList();
+  }
+
+  private TtlCache<Key, Object> cache(Class<?> table) {
+    return caches.computeIfAbsent(table, t -> new TtlCache<>(t.getSimpleName(), maxSize, ttl));
+  }
+
+  private Key key(Class<?> table, Object id) {
+    return new Key(tableVersionService.version(table), id);
+  }
+
+  private static <T> List<T> copyOf(Iterable<T> rows) {
+    return StreamSupport.stream(rows.spliterator(), false).toList();
+  }
+}
@@ -0,0 +1,53 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.SecondLevelCacheStats;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that reports the hit/miss statistics of each region of
+ * Hibernate's second-level cache (see ehcache.xml for the regions).
+ */
+
+@Service("secondLevelCacheStats")
+public class SecondLevelCacheStatsService {
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  /**
+   * This method returns the statistics of every region of the second-level cache.
+   * @return the statistics, sorted by region name
+   */
+  public List<SecondLevelCacheStats> getStats() {
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+        .sorted()
+        .map(statistics::getCacheRegionStatistics)
+        .filter(Objects::nonNull)
+        .map(SecondLevelCacheStatsService::toStats)
+        .toList();
+  }
+
+  private static SecondLevelCacheStats toStats(CacheRegionStatistics region) {
+    long lookups = region.getHitCount() + region.getMissCount();
+    return SecondLevelCacheStats.builder()
+        .region(region.getRegionName())
+        .elementsInMemory(region.getElementCountInMemory())
+        .hits(region.getHitCount())
+        .misses(region.getMissCount())
+        .puts(region.getPutCount())
+        .hitRate(lookups == 0 ? 0.0 : (double) region.getHitCount() / lookups)
+        .build();
+  }
+}
@@ -0,0 +1,109 @@
+package edu.ucsb.cs156.example.services;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * This is a service that holds the built frontend (the files under {@code public/}
+ * on the classpath, copied there from frontend/build) in memory, so that serving an
+ * asset never touches the filesystem or the jar.  The table is loaded once, at startup.
+ *
+ * The .br and .gz copies written by frontend/scripts/precompress.js are kept with the
+ * file they were made from, rather than as assets of their own.
+ *
+ * Files whose names contain a content hash (e.g. static/js/main.3f2a1b9c.js) can never
+ * change without also changing their name, so they are marked as immutable; everything
+ * else (index.html, manifest.json, ...) has to be revalidated with its ETag.
+ */
+
+@Slf4j
+@Profile("!development")
+@Service("staticAssets")
+public class StaticAssetService {
+
+  /**
+   * An asset, in each of the encodings it is available in.
+   * @param contentType the content type of the (uncompressed) asset
+   * @param body the asset itself
+   * @param gzip the gzipped asset, or null if there is no .gz copy
+   * @param brotli the brotli-compressed asset, or null if there is no .br copy
+   * @param etag a strong ETag of the asset's contents, including the quotes
+   * @param immutable whether the file name contains a content hash
+   */
+  public record Asset(MediaType contentType, byte[] body, byte[] gzip, byte[] brotli, String etag, boolean immutable) {
+  }
+
+  /**
+   * A name with a hash in it, as made by the frontend build: main.3f2a1b9c.js,
+   * 453.8ab44a14.chunk.js, logo.6ce24c58023cc2f8fd88fe9d219db6c6.svg, ...
+   */
+  private static final Pattern HASHED = Pattern.compile("\\.[0-9a-f]{8,}\\.");
+
+  private final Map<String, Asset> assets;
+
+  /**
+   * Create the service, loading all assets
+   * @param location where the assets are, as a resource pattern for a directory
+   * @throws IOException if the assets can not be read
+   */
+  public StaticAssetService(@Value("${app.static-assets.location:classpath*:public/}") String location)
+      throws IOException {
+    this.assets = load(location);
+    log.info("loaded {} static assets from {}", assets.size(), location);
+  }
+
+  /**
+   * This method returns an asset.
+   * @param path the path of the asset, e.g. /static/js/main.3f2a1b9c.js; / is index.html
+   * @return the asset, or null if there is none with this path
+   */
+  public Asset find(String path) {
+    return assets.get(path);
+  }
+
+  private static Map<String, Asset> load(String location) throws IOException {
+    PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+    Map<String, byte[]> files = new HashMap<>();
+    for (Resource root : resolver.getResources(location)) {
+      String rootUrl = root.getURL().toString();
+      for (Resource resource : resolver.getResources(rootUrl + "**")) {
+        if (resource.isReadable()) {
+          String path = "/" + resource.getURL().toString().substring(rootUrl.length());
+          files.putIfAbsent(path, resource.getContentAsByteArray());
+        }
+      }
+    }
+
+    Map<String, Asset> assets = new HashMap<>();
+    files.forEach((path, body) -> {
+      if (path.endsWith(".br") || path.endsWith(".gz")) {
+        return;
+      }
+      assets.put(path, new Asset(
+          MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM),
+          body,
+          files.get(path + ".gz"),
+          files.get(path + ".br"),
+          "\"" + DigestUtils.md5DigestAsHex(body) + "\"",
+          HASHED.matcher(path.substring(path.lastIndexOf('/'))).find()));
+    });
+    Asset index = assets.get("/index.html");
+    if (index != null) {
+      assets.put("/", index);
+    }
+    return Map.copyOf(assets);
+  }
+}
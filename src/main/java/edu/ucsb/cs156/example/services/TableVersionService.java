@@ -0,0 +1,270 @@
+package edu.ucsb.cs156.example.services;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.Entity;
+
+/**
+ * This is a service that keeps a version number for each table, which goes up
+ * every time a row of the table is inserted, updated or deleted (see
+ * TableVersionListener).  Controllers use it to build ETags for their read
+ * endpoints, so that a conditional GET can be answered with 304 Not Modified
+ * without querying the table.
+ *
+ * The versions are stored in the TABLE_VERSIONS table, one row per table, so that
+ * every instance of the application sees the same versions.  The row is bumped in the
+ * same transaction as the change, so a change can't commit without its bump:
+ * TableVersionListener calls bumpAfterCommit while the entity is written, and
+ * single-statement updates and deletes, which skip the entity listeners, run through
+ * {@link #change}.  Each instance reads a table's version at most once per
+ * {@code app.table-versions.max-staleness} (default 1 second), so a change made
+ * through another instance is seen after at most that long.
+ *
+ * On PostgreSQL, a trigger on each table bumps the row instead (changeset
+ * TableVersions-3), so writes that don't go through the application (the SQL console,
+ * data changes in changesets) change the version too, and the application does not
+ * bump the row a second time.  Either way, a write holds the lock on its table's row
+ * until it commits, so concurrent writes to the same table are serialized; writes to
+ * different tables are not.
+ *
+ * Whenever this instance reads a version that differs from the one it read before
+ * (including the first read), it tells the listeners registered with onChange, e.g.
+ * so that copies of the table's rows cached in this instance are evicted before the
+ * rows are read under the new version.
+ *
+ * Versions start at the time the row was created, in milliseconds, so they don't
+ * repeat when the database is recreated.
+ *
+ * Without a database (the no-argument constructor, used in tests), versions are
+ * only kept in memory and start at the time the service was created.
+ */
+
+@Service("tableVersions")
+public class TableVersionService {
+
+  private static final String READ = "SELECT VERSION FROM TABLE_VERSIONS WHERE TABLE_NAME = ?";
+  private static final String BUMP = "UPDATE TABLE_VERSIONS SET VERSION = VERSION + 1 WHERE TABLE_NAME = ?";
+  private static final String CREATE = "INSERT INTO TABLE_VERSIONS (TABLE_NAME, VERSION) VALUES (?, ?)";
+
+  private record Read(long version, long readAt) {
+  }
+
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean bumpedByTriggers;
+  private final long maxStalenessNanos;
+  private final LongSupplier clock;
+  private final long start = System.currentTimeMillis();
+
+  private final Map<Class<?>, AtomicLong> memory = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Read> reads = new ConcurrentHashMap<>();
+  private final Map<Class<?>, Long> seen = new ConcurrentHashMap<>();
+  private final List<Consumer<Class<?>>> changeListeners = new CopyOnWriteArrayList<>();
+  private final Map<Class<?>, String> tableNames = new ConcurrentHashMap<>();
+
+  /**
+   * Create a service that keeps the versions in memory only
+   */
+  public TableVersionService() {
+    this(null, false, Duration.ZERO, System::nanoTime);
+  }
+
+  /**
+   * Create a service that keeps the versions in the TABLE_VERSIONS table
+   * @param jdbcTemplate used to read and bump the versions
+   * @param maxStaleness how long a version read from the database is used before it is read again
+   */
+  @Autowired
+  public TableVersionService(JdbcTemplate jdbcTemplate,
+      @Value("${app.table-versions.max-staleness:PT1S}") Duration maxStaleness) {
+    this(jdbcTemplate, isPostgreSQL(jdbcTemplate), maxStaleness, System::nanoTime);
+  }
+
+  /**
+   * Create a service with a given clock (for testing)
+   * @param jdbcTemplate used to read and bump the versions, or null to keep them in memory
+   * @param bumpedByTriggers true if triggers in the database bump the versions, so the service only reads them
+   * @param maxStaleness how long a version read from the database is used before it is read again
+   * @param clock source of the current time, in nanoseconds
+   */
+  TableVersionService(JdbcTemplate jdbcTemplate, boolean bumpedByTriggers, Duration maxStaleness, LongSupplier clock) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.bumpedByTriggers = bumpedByTriggers;
+    this.maxStalenessNanos = maxStaleness.toNanos();
+    this.clock = clock;
+  }
+
+  /**
+   * This method returns the current version of a table.
+   * @param table the entity class of the table
+   * @return the version of the table, or 0 if the table has no version yet
+   */
+  public long version(Class<?> table) {
+    if (jdbcTemplate == null) {
+      return memory.computeIfAbsent(table, t -> new AtomicLong(start)).get();
+    }
+    long now = clock.getAsLong();
+    Read read = reads.get(table);
+    if (read == null || now - read.readAt() >= maxStalenessNanos) {
+      List<Long> versions = jdbcTemplate.queryForList(READ, Long.class, tableName(table));
+      read = new Read(versions.isEmpty() ? 0 : versions.get(0), now);
+      reads.put(table, read);
+      Long previous = seen.put(table, read.version());
+      if (previous == null || previous != read.version()) {
+        changeListeners.forEach(listener -> listener.accept(table));
+      }
+    }
+    return read.version();
+  }
+
+  /**
+   * This method registers a listener that is called with a table's entity class when
+   * this instance reads a new version of the table from TABLE_VERSIONS, before the
+   * version is returned.  It is called for changes made through any instance, and for
+   * the first version read.  Without a database, it is never called.
+   * @param listener the listener
+   */
+  public void onChange(Consumer<Class<?>> listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * This method returns an ETag for the current contents of a table.
+   * @param table the entity class of the table
+   * @return a (weak) ETag, including the quotes
+   */
+  public String etag(Class<?> table) {
+    return "W/\"%s-%s\"".formatted(table.getSimpleName(), Long.toString(version(table), 36));
+  }
+
+  /**
+   * This method records that a table has changed.
+   * @param table the entity class of the table
+   */
+  public void bump(Class<?> table) {
+    if (jdbcTemplate == null) {
+      memory.computeIfAbsent(table, t -> new AtomicLong(start)).incrementAndGet();
+      return;
+    }
+    increment(table);
+    reads.remove(table);
+  }
+
+  /**
+   * This method runs a change to a table that skips the entity listeners, such as a
+   * single-statement update or delete, and bumps the table's version in the same
+   * transaction if any rows changed.  If the change fails, neither is committed.
+   * @param table the entity class of the table
+   * @param change runs the change and returns the number of rows changed
+   * @return the number of rows changed
+   */
+  @Transactional
+  public int change(Class<?> table, IntSupplier change) {
+    int changed = change.getAsInt();
+    if (changed > 0) {
+      bumpAfterCommit(table);
+    }
+    return changed;
+  }
+
+  /**
+   * This method records that a table has changed in the current transaction
+   * (if any).  The version is bumped once per transaction, as part of it, so other
+   * requests only see the new version once the change has committed; seeing it
+   * earlier would let them cache old rows under the new ETag.  This instance
+   * reads the version again after the commit.  A rolled back transaction does not
+   * change the version.
+   * @param table the entity class of the table
+   */
+  public void bumpAfterCommit(Class<?> table) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      bump(table);
+      return;
+    }
+    @SuppressWarnings("unchecked")
+    Set<Class<?>> changed = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+    if (changed == null) {
+      Set<Class<?>> tables = new HashSet<>();
+      TransactionSynchronizationManager.bindResource(this, tables);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          tables.forEach(TableVersionService.this::committed);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(TableVersionService.this);
+        }
+      });
+      changed = tables;
+    }
+    if (changed.add(table) && jdbcTemplate != null) {
+      increment(table);
+    }
+  }
+
+  /**
+   * Bumps the row of a table in TABLE_VERSIONS, creating it if there is none yet.
+   * Every table with a TableVersionListener gets its row from a changeset, so the
+   * row only has to be created here for a table that was added since.  Nothing is
+   * done where triggers bump the row.
+   */
+  private void increment(Class<?> table) {
+    if (bumpedByTriggers) {
+      return;
+    }
+    String name = tableName(table);
+    if (jdbcTemplate.update(BUMP, name) == 0) {
+      jdbcTemplate.update(CREATE, name, System.currentTimeMillis());
+    }
+  }
+
+  /**
+   * The changesets only create the triggers that bump TABLE_VERSIONS on PostgreSQL.
+   */
+  private static boolean isPostgreSQL(JdbcTemplate jdbcTemplate) {
+    return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+        "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+  }
+
+  private void committed(Class<?> table) {
+    if (jdbcTemplate == null) {
+      bump(table);
+    } else {
+      reads.remove(table);
+    }
+  }
+
+  /**
+   * Returns the name of the table of an entity class, e.g. UCSBDININGCOMMONS, the key
+   * of its row in TABLE_VERSIONS.
+   */
+  String tableName(Class<?> table) {
+    return tableNames.computeIfAbsent(table, t -> {
+      Entity entity = AnnotatedElementUtils.findMergedAnnotation(t, Entity.class);
+      String name = entity == null || entity.name().isEmpty() ? t.getSimpleName() : entity.name();
+      return name.toUpperCase(Locale.ROOT);
+    });
+  }
+}
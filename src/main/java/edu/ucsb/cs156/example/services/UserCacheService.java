@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.services.cache.TtlCache;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * This is a service that caches resolved User entities, keyed by email address,
+ * so that looking up the current user does not need a database round trip on
+ * every request.
+ *
+ * Entries expire after {@code app.cache.users.ttl} (default 5 minutes), and at most
+ * {@code app.cache.users.max-size} users (default 1000) are kept.
+ */
+
+@Service("userCache")
+public class UserCacheService {
+
+  private final TtlCache<String, User> cache;
+
+  /**
+   * Create the cache
+   * @param maxSize maximum number of users to cache
+   * @param ttl how long a cached user stays valid
+   */
+  public UserCacheService(
+      @Value("${app.cache.users.max-size:1000}") int maxSize,
+      @Value("${app.cache.users.ttl:PT5M}") Duration ttl) {
+    this.cache = new TtlCache<>("users", maxSize, ttl);
+  }
+
+  /**
+   * This method returns the user with the given email, loading it on a cache miss.
+   * @param email email address of the user
+   * @param loader function that resolves the user on a cache miss
+   * @return the user (or null if the loader returned null)
+   */
+  public User get(String email, Function<String, User> loader) {
+    return cache.get(email, loader);
+  }
+
+  /**
+   * This method adds or replaces a user in the cache.
+   * @param user the user
+   */
+  public void put(User user) {
+    cache.put(user.getEmail(), user);
+  }
+
+  /**
+   * This method evicts a user from the cache, e.g. when their admin flag changes.
+   * @param email email address of the user
+   */
+  public void invalidate(String email) {
+    cache.invalidate(email);
+  }
+
+  /**
+   * This method returns the hit/miss statistics of the cache.
+   * @return the cache statistics
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+}
@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This is a service that makes sure a user who has just logged in with OAuth2 has a row
+ * in the users table: it creates the row on the first login, and sets the admin flag
+ * if the user's email is listed in {@code app.admin.emails}.
+ *
+ * It runs once per login, from the login success handler in SecurityConfig, in its own
+ * transaction.  The rest of the time the current user is only read (see
+ * CurrentUserServiceImpl), so ordinary requests never write to the users table.
+ *
+ * The caller puts the returned user in the UserCacheService once this method has
+ * returned, i.e. after the commit; an update evicts the user from the cache when it is
+ * flushed (UserCacheEvictionListener), which would undo a put made inside the transaction.
+ */
+
+@Slf4j
+@Service("userProvisioning")
+public class UserProvisioningService {
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Autowired
+  AdminLookupService adminLookupService;
+
+  /**
+   * This method creates or updates the row for an OAuth2 user.
+   * @param oAuthUser the OAuth2 user
+   * @return the User object representing the OAuth2 user
+   */
+  @Transactional
+  public User provision(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
+
+    User u = userRepository.findByEmail(email).orElse(null);
+    if (u == null) {
+      u = userRepository.save(createUser(oAuthUser));
+      log.info("created user {}", email);
+    } else if (adminLookupService.isConfiguredAdmin(email) && !u.getAdmin()) {
+      u.setAdmin(true);
+      u = userRepository.save(u);
+      log.info("promoted user {} to admin", email);
+    }
+    return u;
+  }
+
+  /**
+   * This method builds a new (unsaved) User object for the OAuth2 user.
+   *
+   * @param oAuthUser the OAuth2 user
+   * @return the User object representing the OAuth2 user
+   */
+  User createUser(OAuth2User oAuthUser) {
+    String email = oAuthUser.getAttribute("email");
+    Boolean emailVerified = oAuthUser.getAttribute("email_verified");
+
+    return User.builder()
+        .googleSub(oAuthUser.getAttribute("sub"))
+        .email(email)
+        .pictureUrl(oAuthUser.getAttribute("picture"))
+        .fullName(oAuthUser.getAttribute("name"))
+        .givenName(oAuthUser.getAttribute("given_name"))
+        .familyName(oAuthUser.getAttribute("family_name"))
+        .emailVerified(Boolean.TRUE.equals(emailVerified))
+        .locale(oAuthUser.getAttribute("locale"))
+        .hostedDomain(oAuthUser.getAttribute("hd"))
+        .admin(adminLookupService.isConfiguredAdmin(email))
+        .build();
+  }
+}
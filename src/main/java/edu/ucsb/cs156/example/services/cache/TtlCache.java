@@ -0,0 +1,196 @@
+package edu.ucsb.cs156.example.services.cache;
+
+import edu.ucsb.cs156.example.models.CacheStats;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A small, bounded, in-memory cache whose entries expire a fixed time after they
+ * were written.
+ *
+ * When the cache is full, the least recently used entry is evicted. Hits, misses
+ * and evictions are counted so that the effect of the cache can be observed.
+ * Null values are never cached.
+ *
+ * A value loaded by {@link #get(Object, Function)} is only stored if nothing was
+ * invalidated while it was being loaded, so a load that started before an
+ * invalidation can't put the value from before the change back into the cache.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+public class TtlCache<K, V> {
+
+  private record Entry<V>(V value, long expiresAt) {
+  }
+
+  private final String name;
+  private final int maxSize;
+  private final long ttlNanos;
+  private final LongSupplier clock;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  private final LinkedHashMap<K, Entry<V>> entries;
+
+  /**
+   * Incremented by every invalidation; guarded by this.
+   */
+  private long generation;
+
+  /**
+   * Create a cache
+   *
+   * @param name    the name of the cache (used in the statistics)
+   * @param maxSize maximum number of entries
+   * @param ttl     how long an entry stays valid after it is written
+   */
+  public TtlCache(String name, int maxSize, Duration ttl) {
+    this(name, maxSize, ttl, System::nanoTime);
+  }
+
+  /**
+   * Create a cache with a given clock (for testing)
+   *
+   * @param name    the name of the cache (used in the statistics)
+   * @param maxSize maximum number of entries
+   * @param ttl     how long an entry stays valid after it is written
+   * @param clock   source of the current time, in nanoseconds
+   */
+  TtlCache(String name, int maxSize, Duration ttl, LongSupplier clock) {
+    this.name = name;
+    this.maxSize = maxSize;
+    this.ttlNanos = ttl.toNanos();
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+        boolean full = size() > TtlCache.this.maxSize;
+        if (full) {
+          evictions.increment();
+        }
+        return full;
+      }
+    };
+  }
+
+  /**
+   * Look up a value, without loading it if it is absent.
+   *
+   * @param key the key
+   * @return the cached value, or null if there is no unexpired entry for the key
+   */
+  public synchronized V getIfPresent(K key) {
+    Entry<V> entry = entries.get(key);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    if (clock.getAsLong() - entry.expiresAt() >= 0) {
+      entries.remove(key);
+      evictions.increment();
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.value();
+  }
+
+  /**
+   * Look up a value, loading and caching it on a miss.
+   *
+   * The loader runs outside of the cache's lock, so a slow loader (e.g. a
+   * database query) does not block lookups of other keys.  If an entry is
+   * invalidated while the loader runs, the loaded value is returned but not cached.
+   *
+   * @param key    the key
+   * @param loader function that computes the value on a miss; may return null, in which case nothing is cached
+   * @return the cached or newly loaded value
+   */
+  public V get(K key, Function<? super K, ? extends V> loader) {
+    long loadGeneration;
+    synchronized (this) {
+      V value = getIfPresent(key);
+      if (value != null) {
+        return value;
+      }
+      loadGeneration = generation;
+    }
+    V value = loader.apply(key);
+    if (value != null) {
+      putIfNotInvalidatedSince(key, value, loadGeneration);
+    }
+    return value;
+  }
+
+  private synchronized void putIfNotInvalidatedSince(K key, V value, long loadGeneration) {
+    if (generation == loadGeneration) {
+      put(key, value);
+    }
+  }
+
+  /**
+   * Add or replace an entry
+   *
+   * @param key   the key
+   * @param value the value (if null, any existing entry is removed)
+   */
+  public synchronized void put(K key, V value) {
+    if (value == null) {
+      entries.remove(key);
+      return;
+    }
+    entries.put(key, new Entry<>(value, clock.getAsLong() + ttlNanos));
+  }
+
+  /**
+   * Remove the entry for a key, if any
+   *
+   * @param key the key
+   */
+  public synchronized void invalidate(K key) {
+    generation++;
+    entries.remove(key);
+  }
+
+  /**
+   * Remove all entries
+   */
+  public synchronized void invalidateAll() {
+    generation++;
+    entries.clear();
+  }
+
+  /**
+   * @return the number of entries currently in the cache (including any that have expired but not yet been removed)
+   */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return a snapshot of the statistics of this cache
+   */
+  public CacheStats stats() {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    long lookups = hitCount + missCount;
+    return CacheStats.builder()
+        .name(name)
+        .size(size())
+        .maxSize(maxSize)
+        .ttlSeconds(Duration.ofNanos(ttlNanos).toSeconds())
+        .hits(hitCount)
+        .misses(missCount)
+        .evictions(evictions.sum())
+        .hitRate(lookups == 0 ? 0.0 : (double) hitCount / lookups)
+        .build();
+  }
+}
@@ -0,0 +1,217 @@
+package edu.ucsb.cs156.example.services.frontendproxy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This is a service that passes requests for the frontend on to the React dev server
+ * (by default on http://localhost:3000).  It is only used in development.
+ *
+ * Responses are streamed: each chunk of the body is written to the browser as soon as
+ * it arrives, instead of the whole body being read into memory first.  Requests go
+ * through one HttpClient, which keeps its connections to the dev server open and
+ * reuses them, so a page load with hundreds of module requests doesn't open hundreds
+ * of connections.
+ *
+ * WebSocket upgrade requests (the dev server's hot reload socket) are passed through
+ * as well: after the dev server agrees to the upgrade, bytes are copied in both
+ * directions by a WebSocketTunnel until either side closes the connection.
+ */
+
+@Slf4j
+@Profile("development")
+@Service("frontendProxy")
+public class FrontendProxyService {
+
+  /**
+   * Headers that only apply to a single connection, or that HttpClient sets itself.
+   */
+  private static final Set<String> NOT_FORWARDED = Set.of(
+      "connection", "keep-alive", "proxy-connection", "transfer-encoding", "te", "trailer",
+      "upgrade", "host", "content-length", "expect");
+
+  private final URI frontend;
+  private final Duration connectTimeout;
+  private final HttpClient client;
+  private final SimpleAsyncTaskExecutor tunnelExecutor = new SimpleAsyncTaskExecutor("frontend-proxy-ws-");
+
+  /**
+   * Create the service
+   * @param frontend the URI of the React dev server
+   * @param connectTimeout how long to wait for a connection to the dev server
+   */
+  public FrontendProxyService(
+      @Value("${app.frontend.proxy.uri:http://localhost:3000}") URI frontend,
+      @Value("${app.frontend.proxy.connect-timeout:PT2S}") Duration connectTimeout) {
+    this.frontend = frontend;
+    this.connectTimeout = connectTimeout;
+    this.client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(connectTimeout)
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .build();
+    tunnelExecutor.setDaemon(true);
+  }
+
+  /**
+   * @return the URI of the React dev server
+   */
+  public URI getFrontend() {
+    return frontend;
+  }
+
+  /**
+   * This method checks whether a request asks to be upgraded to a WebSocket.
+   * @param request the request
+   * @return true for a WebSocket handshake
+   */
+  public static boolean isWebSocketUpgrade(HttpServletRequest request) {
+    return "websocket".equalsIgnoreCase(request.getHeader(HttpHeaders.UPGRADE));
+  }
+
+  /**
+   * This method passes a GET request on to the dev server and streams the response back.
+   * @param request the request from the browser
+   * @param response the response to the browser
+   * @throws IOException if the dev server can't be reached (java.net.ConnectException)
+   * or the response can't be copied
+   * @throws InterruptedException if the thread is interrupted while waiting for the dev server
+   */
+  public void stream(HttpServletRequest request, HttpServletResponse response)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder upstream = HttpRequest.newBuilder(frontend.resolve(pathAndQuery(request))).GET();
+    for (String name : Collections.list(request.getHeaderNames())) {
+      if (!NOT_FORWARDED.contains(name.toLowerCase(Locale.ROOT))) {
+        for (String value : Collections.list(request.getHeaders(name))) {
+          upstream.header(name, value);
+        }
+      }
+    }
+
+    HttpResponse<InputStream> upstreamResponse = client.send(upstream.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+    response.setStatus(upstreamResponse.statusCode());
+    copyHeaders(upstreamResponse.headers().map(), response);
+    try (InputStream body = upstreamResponse.body()) {
+      OutputStream out = response.getOutputStream();
+      byte[] buffer = new byte[8192];
+      int n;
+      while ((n = body.read(buffer)) >= 0) {
+        out.write(buffer, 0, n);
+        out.flush();
+      }
+    }
+  }
+
+  /**
+   * This method passes a WebSocket handshake on to the dev server and, if the dev server
+   * accepts it, upgrades the browser's connection and tunnels it to the dev server.
+   * @param request the handshake request from the browser
+   * @param response the response to the browser
+   * @throws IOException if the dev server can't be reached (java.net.ConnectException,
+   * or java.net.SocketTimeoutException after the connect timeout)
+   * @throws ServletException if the connection can't be upgraded
+   */
+  public void tunnel(HttpServletRequest request, HttpServletResponse response) throws IOException, ServletException {
+    Socket socket = new Socket();
+    try {
+      socket.connect(new InetSocketAddress(frontend.getHost(), frontend.getPort() < 0 ? 80 : frontend.getPort()),
+          (int) connectTimeout.toMillis());
+      StringBuilder handshake = new StringBuilder("GET " + pathAndQuery(request) + " HTTP/1.1\r\n");
+      handshake.append("Host: ").append(frontend.getAuthority()).append("\r\n");
+      for (String name : Collections.list(request.getHeaderNames())) {
+        if (!name.equalsIgnoreCase(HttpHeaders.HOST)) {
+          for (String value : Collections.list(request.getHeaders(name))) {
+            handshake.append(name).append(": ").append(value).append("\r\n");
+          }
+        }
+      }
+      handshake.append("\r\n");
+      OutputStream toFrontend = socket.getOutputStream();
+      toFrontend.write(handshake.toString().getBytes(StandardCharsets.ISO_8859_1));
+      toFrontend.flush();
+
+      InputStream fromFrontend = new BufferedInputStream(socket.getInputStream());
+      String[] status = readLine(fromFrontend).split(" ", 3);
+      if (status.length < 2 || !"101".equals(status[1])) {
+        log.warn("frontend dev server refused websocket upgrade of {}: {}", request.getRequestURI(), String.join(" ", status));
+        socket.close();
+        response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+        return;
+      }
+      for (String line = readLine(fromFrontend); !line.isEmpty(); line = readLine(fromFrontend)) {
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+          log.debug("ignoring malformed header line from frontend dev server: {}", line);
+          continue;
+        }
+        String name = line.substring(0, colon).trim();
+        if (!name.equalsIgnoreCase(HttpHeaders.CONNECTION) && !name.equalsIgnoreCase(HttpHeaders.UPGRADE)) {
+          response.addHeader(name, line.substring(colon + 1).trim());
+        }
+      }
+      response.setHeader(HttpHeaders.CONNECTION, "Upgrade");
+      response.setHeader(HttpHeaders.UPGRADE, "websocket");
+
+      request.upgrade(WebSocketTunnel.class).connect(socket, fromFrontend, tunnelExecutor);
+    } catch (IOException | ServletException | RuntimeException e) {
+      socket.close();
+      throw e;
+    }
+  }
+
+  private static String pathAndQuery(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    return request.getQueryString() == null ? path : path + "?" + request.getQueryString();
+  }
+
+  private static void copyHeaders(Map<String, List<String>> headers, HttpServletResponse response) {
+    headers.forEach((name, values) -> {
+      if (!name.startsWith(":") && !NOT_FORWARDED.contains(name.toLowerCase(Locale.ROOT))) {
+        values.forEach(value -> response.addHeader(name, value));
+      }
+    });
+  }
+
+  /**
+   * Reads one line of an HTTP response head, without the CRLF.
+   */
+  private static String readLine(InputStream in) throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+    int c;
+    while ((c = in.read()) >= 0 && c != '\n') {
+      if (c != '\r') {
+        line.write(c);
+      }
+    }
+    return line.toString(StandardCharsets.ISO_8859_1);
+  }
+}
@@ -0,0 +1,99 @@
+package edu.ucsb.cs156.example.services.frontendproxy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.core.task.TaskExecutor;
+
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.WebConnection;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+/**
+ * This is the handler for a browser connection that FrontendProxyService has upgraded
+ * to a WebSocket.  It copies bytes between the browser and the React dev server, one
+ * thread per direction, until either side closes, and then closes both.
+ *
+ * The frames are not looked at: after the handshake, the tunnel is just two byte streams.
+ */
+
+@Slf4j
+public class WebSocketTunnel implements HttpUpgradeHandler {
+
+  private Socket frontend;
+  private InputStream fromFrontend;
+  private TaskExecutor executor;
+
+  /**
+   * Create the handler; the servlet container does this when the connection is upgraded.
+   */
+  public WebSocketTunnel() {
+  }
+
+  /**
+   * This method hands the tunnel the connection to the dev server.  It has to be called
+   * before the container calls init, i.e. before the servlet request returns.
+   * @param frontend the socket to the dev server, after the handshake
+   * @param fromFrontend the input of the socket, possibly with frames already buffered
+   * @param executor runs the two copying threads
+   */
+  void connect(Socket frontend, InputStream fromFrontend, TaskExecutor executor) {
+    this.frontend = frontend;
+    this.fromFrontend = fromFrontend;
+    this.executor = executor;
+  }
+
+  @Override
+  public void init(WebConnection browser) {
+    try {
+      InputStream fromBrowser = browser.getInputStream();
+      OutputStream toBrowser = browser.getOutputStream();
+      OutputStream toFrontend = frontend.getOutputStream();
+      executor.execute(() -> pump(fromFrontend, toBrowser, browser));
+      executor.execute(() -> pump(fromBrowser, toFrontend, browser));
+    } catch (IOException e) {
+      log.warn("could not open websocket tunnel to frontend: {}", e.toString());
+      close(browser);
+    }
+  }
+
+  @Override
+  public void destroy() {
+    closeFrontend();
+  }
+
+  private void pump(InputStream in, OutputStream out, WebConnection browser) {
+    byte[] buffer = new byte[8192];
+    try {
+      int n;
+      while ((n = in.read(buffer)) >= 0) {
+        out.write(buffer, 0, n);
+        out.flush();
+      }
+    } catch (IOException e) {
+      log.debug("websocket tunnel closed: {}", e.toString());
+    } finally {
+      close(browser);
+    }
+  }
+
+  private void close(WebConnection browser) {
+    closeFrontend();
+    try {
+      browser.close();
+    } catch (Exception e) {
+      log.debug("could not close browser connection: {}", e.toString());
+    }
+  }
+
+  private void closeFrontend() {
+    try {
+      frontend.close();
+    } catch (IOException e) {
+      log.debug("could not close frontend connection: {}", e.toString());
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package edu.ucsb.cs156.example.services.latency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of latencies, in nanoseconds, with log-linear buckets
+ * (in the style of HdrHistogram).
+ *
+ * Every power of two is split into 32 equal sub-buckets, so any recorded value
+ * can be read back with a relative error of at most 1/32 (about 3%), using a fixed
+ * 8KB of memory.  Values of about 68 seconds and up share the last bucket; the
+ * maximum is tracked exactly.
+ *
+ * Recording is a few atomic increments and is safe to call from any number of
+ * threads at once.
+ */
+public class LatencyHistogram {
+
+  static final int SUB_BUCKET_BITS = 5;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int MAX_EXPONENT = 35;
+  static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder total = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Record one latency
+   *
+   * @param nanos the latency in nanoseconds (negative values are recorded as 0)
+   */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts.incrementAndGet(bucketOf(value));
+    total.increment();
+    sum.add(value);
+    max.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * @return a consistent-enough copy of the histogram for computing percentiles
+   */
+  public Snapshot snapshot() {
+    long[] copy = new long[BUCKETS];
+    long n = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      copy[i] = counts.get(i);
+      n += copy[i];
+    }
+    return new Snapshot(copy, n, sum.sum(), max.get());
+  }
+
+  static int bucketOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    if (exponent > MAX_EXPONENT) {
+      return BUCKETS - 1;
+    }
+    int shift = exponent - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+  }
+
+  static long highestValueIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+  }
+
+  /**
+   * A point-in-time copy of a histogram
+   *
+   * @param counts    the count of each bucket
+   * @param count     the number of recorded values
+   * @param sum       the sum of the recorded values
+   * @param max       the largest recorded value
+   */
+  public record Snapshot(long[] counts, long count, long sum, long max) {
+
+    /**
+     * @return the mean of the recorded values, or 0 if there are none
+     */
+    public double mean() {
+      return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile the percentile, between 0 and 100
+     * @return the smallest value such that the given percentage of recorded values are at or below it
+     */
+    public long percentile(double percentile) {
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          // the last bucket is open-ended, so only the max is known for it
+          return i == counts.length - 1 ? max : Math.min(highestValueIn(i), max);
+        }
+      }
+      return max;
+    }
+  }
+}
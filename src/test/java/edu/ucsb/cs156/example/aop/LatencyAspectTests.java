@@ -0,0 +1,184 @@
+package edu.ucsb.cs156.example.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.server.ResponseStatusException;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.VersionConflictException;
+import edu.ucsb.cs156.example.errors.VersionRequiredException;
+import edu.ucsb.cs156.example.services.LatencyStatsService;
+
+class LatencyAspectTests {
+
+  @ResponseStatus(HttpStatus.CONFLICT)
+  static class ConflictException extends RuntimeException {
+  }
+
+  public static class SampleController {
+    @GetMapping("/plain")
+    public String plain() {
+      return "plain";
+    }
+
+    @GetMapping("/entity")
+    public ResponseEntity<String> entity() {
+      return ResponseEntity.accepted().body("entity");
+    }
+
+    @PostMapping("/created")
+    @ResponseStatus(HttpStatus.CREATED)
+    public String created() {
+      return "created";
+    }
+
+    @GetMapping("/written")
+    public String written() {
+      return null;
+    }
+
+    @GetMapping("/fail")
+    public String fail(RuntimeException e) {
+      throw e;
+    }
+
+    public String notAHandler() {
+      return "not a handler";
+    }
+  }
+
+  LatencyStatsService latencyStatsService = mock(LatencyStatsService.class);
+  SampleController controller;
+
+  @BeforeEach
+  void setup() {
+    LatencyAspect aspect = new LatencyAspect();
+    aspect.latencyStatsService = latencyStatsService;
+    AspectJProxyFactory factory = new AspectJProxyFactory(new SampleController());
+    factory.setProxyTargetClass(true);
+    factory.addAspect(aspect);
+    controller = factory.getProxy();
+  }
+
+  @AfterEach
+  void teardown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  void records_200_for_plain_return_values() {
+    assertEquals("plain", controller.plain());
+    assertEquals("plain", controller.plain());
+    verify(latencyStatsService, times(2))
+        .record(eq("SampleController.plain"), eq(200), anyLong());
+  }
+
+  @Test
+  void records_status_of_response_entity() {
+    controller.entity();
+    verify(latencyStatsService).record(eq("SampleController.entity"), eq(202), anyLong());
+  }
+
+  @Test
+  void records_status_of_response_status_annotation() {
+    controller.created();
+    verify(latencyStatsService).record(eq("SampleController.created"), eq(201), anyLong());
+  }
+
+  @Test
+  void records_status_of_response_written_by_the_method() {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+
+    controller.written();
+    response.setStatus(HttpStatus.NOT_MODIFIED.value());
+    controller.written();
+
+    verify(latencyStatsService).record(eq("SampleController.written"), eq(200), anyLong());
+    verify(latencyStatsService).record(eq("SampleController.written"), eq(304), anyLong());
+  }
+
+  @Test
+  void records_200_for_null_without_a_response() {
+    controller.written();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    controller.written();
+    verify(latencyStatsService, times(2)).record(eq("SampleController.written"), eq(200), anyLong());
+  }
+
+  @Test
+  void does_not_time_methods_that_are_not_handlers() {
+    controller.notAHandler();
+    verify(latencyStatsService, never()).record(any(), anyInt(), anyLong());
+  }
+
+  private void assertRecordsStatusFor(RuntimeException e, int status) {
+    assertThrows(e.getClass(), () -> controller.fail(e));
+    verify(latencyStatsService).record(eq("SampleController.fail"), eq(status), anyLong());
+  }
+
+  @Test
+  void records_404_for_entity_not_found() {
+    assertRecordsStatusFor(new EntityNotFoundException(Restaurant.class, 7L), 404);
+  }
+
+  @Test
+  void records_409_for_version_conflict() {
+    assertRecordsStatusFor(new VersionConflictException(Restaurant.class, 7L, 3L), 409);
+  }
+
+  @Test
+  void records_409_for_data_integrity_violation() {
+    assertRecordsStatusFor(new DataIntegrityViolationException("duplicate key"), 409);
+  }
+
+  @Test
+  void records_428_for_missing_version() {
+    assertRecordsStatusFor(new VersionRequiredException(Restaurant.class, 7L), 428);
+  }
+
+  @Test
+  void records_403_for_access_denied() {
+    assertRecordsStatusFor(new AccessDeniedException("denied"), 403);
+  }
+
+  @Test
+  void records_status_of_response_status_exception() {
+    assertRecordsStatusFor(new ResponseStatusException(HttpStatus.BAD_REQUEST), 400);
+  }
+
+  @Test
+  void records_status_of_annotated_exception() {
+    assertRecordsStatusFor(new ConflictException(), 409);
+  }
+
+  @Test
+  void records_500_for_other_exceptions() {
+    assertRecordsStatusFor(new IllegalStateException("boom"), 500);
+  }
+}
@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class AcceptEncodingTests {
+
+  @Test
+  void listed_codings_are_accepted() {
+    assertTrue(AcceptEncoding.accepts("gzip, deflate, br", "gzip"));
+    assertTrue(AcceptEncoding.accepts("gzip, deflate, br", "br"));
+    assertTrue(AcceptEncoding.accepts("GZIP", "gzip"));
+    assertEquals(1, AcceptEncoding.quality("gzip", "gzip"));
+  }
+
+  @Test
+  void codings_that_are_not_listed_are_not_accepted() {
+    assertFalse(AcceptEncoding.accepts(null, "gzip"));
+    assertFalse(AcceptEncoding.accepts("", "gzip"));
+    assertFalse(AcceptEncoding.accepts("identity", "gzip"));
+    assertFalse(AcceptEncoding.accepts("x-gzip", "gzip"));
+    assertFalse(AcceptEncoding.accepts("gzip", "br"));
+  }
+
+  @Test
+  void q_0_means_not_acceptable() {
+    assertFalse(AcceptEncoding.accepts("gzip;q=0", "gzip"));
+    assertFalse(AcceptEncoding.accepts("br;q=0, gzip", "br"));
+    assertFalse(AcceptEncoding.accepts("gzip ; Q=0.000", "gzip"));
+    assertTrue(AcceptEncoding.accepts("br;q=0, gzip", "gzip"));
+  }
+
+  @Test
+  void weights_are_read() {
+    assertEquals(0.5, AcceptEncoding.quality("br;q=0.5, gzip;q=0.8", "br"));
+    assertEquals(0.8, AcceptEncoding.quality("br;q=0.5, gzip;q=0.8", "gzip"));
+  }
+
+  @Test
+  void weights_that_cannot_be_read_are_not_acceptable() {
+    assertFalse(AcceptEncoding.accepts("gzip;q=high", "gzip"));
+    assertFalse(AcceptEncoding.accepts("gzip;q=2", "gzip"));
+    assertFalse(AcceptEncoding.accepts("gzip;q=-1", "gzip"));
+  }
+
+  @Test
+  void wildcard_applies_to_codings_that_are_not_listed() {
+    assertTrue(AcceptEncoding.accepts("*", "br"));
+    assertEquals(0.3, AcceptEncoding.quality("identity, *;q=0.3", "gzip"));
+    assertFalse(AcceptEncoding.accepts("gzip, *;q=0", "br"));
+    assertFalse(AcceptEncoding.accepts("*, gzip;q=0", "gzip"));
+    assertTrue(AcceptEncoding.accepts("br;q=1, *;q=0", "br"));
+  }
+}
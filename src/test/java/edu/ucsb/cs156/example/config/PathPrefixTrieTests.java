@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class PathPrefixTrieTests {
+
+  PathPrefixTrie trie = new PathPrefixTrie(List.of("/api", "/v3/api-docs", "/oauth2", "/login"));
+
+  @Test
+  void matches_a_prefix_and_the_paths_under_it() {
+    assertTrue(trie.matches("/api"));
+    assertTrue(trie.matches("/api/"));
+    assertTrue(trie.matches("/api/restaurants/all"));
+    assertTrue(trie.matches("/v3/api-docs/swagger-config"));
+    assertTrue(trie.matches("/login"));
+  }
+
+  @Test
+  void only_matches_whole_segments() {
+    assertFalse(trie.matches("/apiary"));
+    assertFalse(trie.matches("/ap"));
+    assertFalse(trie.matches("/v3"));
+    assertFalse(trie.matches("/v3/api"));
+    assertFalse(trie.matches("/loginpage/x"));
+  }
+
+  @Test
+  void does_not_match_other_paths() {
+    assertFalse(trie.matches("/"));
+    assertFalse(trie.matches(""));
+    assertFalse(trie.matches("/restaurants/edit/7"));
+    assertFalse(trie.matches("/x/api"));
+  }
+}
@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import edu.ucsb.cs156.example.services.StaticAssetService;
+
+/**
+ * The index.html used here is in src/test/resources/static-assets.
+ */
+class SpaFallbackFilterTests {
+
+  static final List<String> RESERVED = List.of("/api", "/oauth2", "/swagger-ui", "/v3/api-docs");
+
+  StaticAssetService staticAssets;
+  SpaFallbackFilter filter;
+  MockFilterChain chain = new MockFilterChain();
+  MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @BeforeEach
+  void setup() throws Exception {
+    staticAssets = new StaticAssetService("classpath*:static-assets/");
+    filter = new SpaFallbackFilter(staticAssets, RESERVED);
+  }
+
+  @Test
+  void client_side_routes_are_spa_routes() {
+    assertTrue(filter.isSpaRoute("/"));
+    assertTrue(filter.isSpaRoute("/restaurants"));
+    assertTrue(filter.isSpaRoute("/restaurants/edit/7"));
+    assertTrue(filter.isSpaRoute("/apiary"));
+    assertTrue(filter.isSpaRoute("/v1.2/help"));
+  }
+
+  @Test
+  void reserved_paths_and_files_are_not_spa_routes() {
+    assertFalse(filter.isSpaRoute("/api/restaurants/all"));
+    assertFalse(filter.isSpaRoute("/oauth2/authorization/google"));
+    assertFalse(filter.isSpaRoute("/v3/api-docs"));
+    assertFalse(filter.isSpaRoute("/favicon.ico"));
+    assertFalse(filter.isSpaRoute("/static/js/main.3f2a1b9c.js"));
+  }
+
+  @Test
+  void client_side_route_gets_index_html() throws Exception {
+    StaticAssetService.Asset index = staticAssets.find("/index.html");
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/restaurants/edit/7"), response, chain);
+
+    assertNull(chain.getRequest());
+    assertEquals(200, response.getStatus());
+    assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    assertEquals(index.etag(), response.getHeader(HttpHeaders.ETAG));
+    assertArrayEquals(index.body(), response.getContentAsByteArray());
+  }
+
+  @Test
+  void head_of_a_client_side_route_gets_headers_only() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("HEAD", "/restaurants"), response, chain);
+
+    assertNull(chain.getRequest());
+    assertEquals(200, response.getStatus());
+    assertEquals(0, response.getContentAsByteArray().length);
+  }
+
+  @Test
+  void context_path_is_not_part_of_the_route() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/team02/api/restaurants/all");
+    request.setContextPath("/team02");
+
+    filter.doFilter(request, response, chain);
+
+    assertNotNull(chain.getRequest());
+  }
+
+  @Test
+  void api_requests_are_passed_on() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/restaurants/all"), response, chain);
+
+    assertNotNull(chain.getRequest());
+  }
+
+  @Test
+  void other_methods_are_passed_on() throws Exception {
+    filter.doFilter(new MockHttpServletRequest("POST", "/restaurants"), response, chain);
+
+    assertNotNull(chain.getRequest());
+  }
+
+  @Test
+  void without_index_html_everything_is_passed_on() throws Exception {
+    filter = new SpaFallbackFilter(new StaticAssetService("classpath*:static-assets/static/"), RESERVED);
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/restaurants"), response, chain);
+
+    assertNotNull(chain.getRequest());
+  }
+}
@@ -0,0 +1,184 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import edu.ucsb.cs156.example.services.StaticAssetService;
+
+/**
+ * The assets used here are under src/test/resources/static-assets.
+ */
+class StaticAssetFilterTests {
+
+  StaticAssetService staticAssets;
+  StaticAssetFilter filter;
+  MockFilterChain chain = new MockFilterChain();
+  MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @BeforeEach
+  void setup() throws Exception {
+    staticAssets = new StaticAssetService("classpath*:static-assets/");
+    filter = new StaticAssetFilter(staticAssets);
+  }
+
+  private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+
+  @Test
+  void index_html_must_be_revalidated() throws Exception {
+    StaticAssetService.Asset index = staticAssets.find("/index.html");
+
+    perform(new MockHttpServletRequest("GET", "/"));
+
+    assertNull(chain.getRequest());
+    assertEquals(200, response.getStatus());
+    assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    assertEquals(index.etag(), response.getHeader(HttpHeaders.ETAG));
+    assertEquals("text/html", response.getContentType());
+    assertEquals(index.body().length, response.getContentLength());
+    assertNull(response.getHeader(HttpHeaders.VARY));
+    assertArrayEquals(index.body(), response.getContentAsByteArray());
+  }
+
+  @Test
+  void hashed_assets_are_immutable() throws Exception {
+    perform(new MockHttpServletRequest("GET", "/static/css/main.1a2b3c4d.css"));
+
+    assertEquals("public, max-age=31536000, immutable", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    assertEquals("text/css", response.getContentType());
+  }
+
+  @Test
+  void brotli_copy_is_sent_when_the_browser_accepts_it() throws Exception {
+    StaticAssetService.Asset asset = staticAssets.find("/static/js/main.test.js");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/js/main.test.js");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br");
+
+    perform(request);
+
+    assertEquals("br", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals("Accept-Encoding", response.getHeader(HttpHeaders.VARY));
+    assertEquals(asset.etag().replaceFirst("\"$", "-br\""), response.getHeader(HttpHeaders.ETAG));
+    assertArrayEquals(asset.brotli(), response.getContentAsByteArray());
+  }
+
+  @Test
+  void gzip_copy_is_sent_when_the_browser_only_accepts_gzip() throws Exception {
+    StaticAssetService.Asset asset = staticAssets.find("/static/js/main.test.js");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/js/main.test.js");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+    perform(request);
+
+    assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(asset.etag().replaceFirst("\"$", "-gzip\""), response.getHeader(HttpHeaders.ETAG));
+    assertArrayEquals(asset.gzip(), response.getContentAsByteArray());
+  }
+
+  @Test
+  void original_is_sent_when_the_browser_does_not_accept_compression() throws Exception {
+    StaticAssetService.Asset asset = staticAssets.find("/static/js/main.test.js");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/js/main.test.js");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "identity");
+
+    perform(request);
+
+    assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals("Accept-Encoding", response.getHeader(HttpHeaders.VARY));
+    assertEquals(asset.etag(), response.getHeader(HttpHeaders.ETAG));
+    assertArrayEquals(asset.body(), response.getContentAsByteArray());
+  }
+
+  @Test
+  void compressed_copies_the_browser_refuses_with_q_0_are_not_sent() throws Exception {
+    StaticAssetService.Asset asset = staticAssets.find("/static/js/main.test.js");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/js/main.test.js");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br;q=0, gzip;q=0, identity");
+
+    perform(request);
+
+    assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(asset.etag(), response.getHeader(HttpHeaders.ETAG));
+    assertArrayEquals(asset.body(), response.getContentAsByteArray());
+  }
+
+  @Test
+  void gzip_copy_is_sent_when_the_browser_prefers_it_to_br() throws Exception {
+    StaticAssetService.Asset asset = staticAssets.find("/static/js/main.test.js");
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/js/main.test.js");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br;q=0.5, gzip");
+
+    perform(request);
+
+    assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertArrayEquals(asset.gzip(), response.getContentAsByteArray());
+  }
+
+  @Test
+  void only_compressed_copies_that_exist_are_sent() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/static/css/main.1a2b3c4d.css");
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, br");
+
+    perform(request);
+
+    assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    assertNull(response.getHeader(HttpHeaders.VARY));
+  }
+
+  @Test
+  void unchanged_asset_gets_304() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/index.html");
+    request.addHeader(HttpHeaders.IF_NONE_MATCH, staticAssets.find("/index.html").etag());
+
+    perform(request);
+
+    assertEquals(304, response.getStatus());
+    assertEquals("no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    assertEquals(0, response.getContentAsByteArray().length);
+  }
+
+  @Test
+  void head_gets_headers_but_no_body() throws Exception {
+    perform(new MockHttpServletRequest("HEAD", "/index.html"));
+
+    assertEquals(200, response.getStatus());
+    assertEquals(staticAssets.find("/index.html").body().length, response.getContentLength());
+    assertEquals(0, response.getContentAsByteArray().length);
+  }
+
+  @Test
+  void other_methods_are_passed_on() throws Exception {
+    perform(new MockHttpServletRequest("POST", "/index.html"));
+
+    assertNotNull(chain.getRequest());
+  }
+
+  @Test
+  void other_paths_are_passed_on() throws Exception {
+    perform(new MockHttpServletRequest("GET", "/api/restaurants/all"));
+
+    assertNotNull(chain.getRequest());
+  }
+
+  @Test
+  void context_path_is_not_part_of_the_asset_path() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/team02/index.html");
+    request.setContextPath("/team02");
+
+    perform(request);
+
+    assertNull(chain.getRequest());
+    assertEquals(200, response.getStatus());
+  }
+}
@@ -0,0 +1,63 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class TaskExecutionConfigTests {
+
+  @AfterEach
+  void clearContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void tasks_on_virtual_threads_see_the_submitters_security_context() throws Exception {
+    // arrange
+    Authentication authentication = new TestingAuthenticationToken("cgaucho@ucsb.edu", null, "ROLE_USER");
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+    executor.setVirtualThreads(true);
+    executor.setTaskDecorator(new TaskExecutionConfig().securityContextTaskDecorator());
+    AtomicReference<Authentication> seen = new AtomicReference<>();
+    CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+
+    // act
+    executor.execute(() -> {
+      seen.set(SecurityContextHolder.getContext().getAuthentication());
+      virtual.complete(Thread.currentThread().isVirtual());
+    });
+
+    // assert
+    assertSame(Boolean.TRUE, virtual.get(10, TimeUnit.SECONDS));
+    assertSame(authentication, seen.get());
+  }
+
+  @Test
+  void context_is_cleared_on_the_worker_after_the_task() throws Exception {
+    // arrange
+    SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("cgaucho@ucsb.edu", null));
+    Runnable task = new TaskExecutionConfig().securityContextTaskDecorator().decorate(() -> { });
+    AtomicReference<Authentication> after = new AtomicReference<>();
+
+    // act
+    Thread worker = Thread.ofVirtual().start(() -> {
+      task.run();
+      after.set(SecurityContextHolder.getContext().getAuthentication());
+    });
+    worker.join();
+
+    // assert
+    assertNull(after.get());
+  }
+}
@@ -1,20 +1,27 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import edu.ucsb.cs156.example.entities.Articles;
 import edu.ucsb.cs156.example.repositories.ArticlesRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -24,24 +31,38 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.time.LocalDateTime;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = ArticlesController.class)
-@Import(TestConfig.class)
+@Import({TestConfig.class, NdjsonExportService.class})
 public class ArticlesControllerTests extends ControllerTestCase {
 
     @MockBean
     ArticlesRepository articlesRepository;
 
+    @MockBean
+    EntityManager entityManager;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
     @MockBean
     UserRepository userRepository;
 
+    @Autowired
+    TableVersionService tableVersionService;
+
     // Authorization tests for /api/articles/admin/all
 
     @Test
@@ -204,31 +225,58 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_edit_an_existing_article() throws Exception {
+        public void admin_cannot_edit_article_without_the_version_it_read() throws Exception {
                 // arrange
-
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
                 LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
 
-                Articles articleOrig = Articles.builder()
-                                .title("Original Title")
-                                .url("http://original.com")
-                                .explanation("Original Explanation")
-                                .email("original@example.com")
-                                .dateAdded(ldt1)
+                Articles articleEdited = Articles.builder()
+                                .title("Edited Title")
+                                .url("http://edited.com")
+                                .explanation("Edited Explanation")
+                                .email("edited@example.com")
+                                .dateAdded(ldt2)
                                 .build();
 
+                String requestBody = mapper.writeValueAsString(articleEdited);
+
+                long tableVersion = tableVersionService.version(Articles.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/articles?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isPreconditionRequired()).andReturn();
+
+                // assert
+                verifyNoInteractions(articlesRepository);
+                assertEquals(tableVersion, tableVersionService.version(Articles.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionRequiredException", json.get("type"));
+                assertEquals("an update of Articles with id 67 must include the version it is based on", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_article_at_the_version_it_read() throws Exception {
+                // arrange
+                LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
+
                 Articles articleEdited = Articles.builder()
                                 .title("Edited Title")
                                 .url("http://edited.com")
                                 .explanation("Edited Explanation")
                                 .email("edited@example.com")
                                 .dateAdded(ldt2)
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(articleEdited);
 
-                when(articlesRepository.findById(eq(67L))).thenReturn(Optional.of(articleOrig));
+                when(articlesRepository.updateIfVersionMatches(67L, "Edited Title", "http://edited.com", "Edited Explanation", "edited@example.com", ldt2, 3L)).thenReturn(1);
+                long tableVersion = tableVersionService.version(Articles.class);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -240,30 +288,40 @@ public class ArticlesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(articlesRepository, times(1)).findById(67L);
-                verify(articlesRepository, times(1)).save(articleEdited); // should be saved with correct user
+                verify(articlesRepository, never()).existsById(any());
+                assertEquals(tableVersion + 1, tableVersionService.version(Articles.class));
+                Articles expected = Articles.builder()
+                                .id(67L)
+                                .title("Edited Title")
+                                .url("http://edited.com")
+                                .explanation("Edited Explanation")
+                                .email("edited@example.com")
+                                .dateAdded(ldt2)
+                                .version(4L)
+                                .build();
                 String responseString = response.getResponse().getContentAsString();
-                assertEquals(requestBody, responseString);
+                assertEquals(mapper.writeValueAsString(expected), responseString);
         }
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_article_that_does_not_exist() throws Exception {
                 // arrange
-
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+                LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
 
                 Articles articleEdited = Articles.builder()
                                 .title("Edited Title")
                                 .url("http://edited.com")
                                 .explanation("Edited Explanation")
                                 .email("edited@example.com")
-                                .dateAdded(ldt1)
+                                .dateAdded(ldt2)
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(articleEdited);
 
-                when(articlesRepository.findById(eq(67L))).thenReturn(Optional.empty());
+                when(articlesRepository.updateIfVersionMatches(67L, "Edited Title", "http://edited.com", "Edited Explanation", "edited@example.com", ldt2, 3L)).thenReturn(0);
+                when(articlesRepository.existsById(67L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -275,27 +333,53 @@ public class ArticlesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(articlesRepository, times(1)).findById(67L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Articles with id 67 not found", json.get("message"));
         }
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_delete_an_article() throws Exception {
+        public void admin_cannot_edit_article_that_was_changed_after_it_was_read() throws Exception {
                 // arrange
+                LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
-
-                Articles article = Articles.builder()
-                                .title("Test Article")
-                                .url("http://example.com")
-                                .explanation("Sample explanation")
-                                .email("test@example.com")
-                                .dateAdded(ldt1)
+                Articles articleEdited = Articles.builder()
+                                .title("Edited Title")
+                                .url("http://edited.com")
+                                .explanation("Edited Explanation")
+                                .email("edited@example.com")
+                                .dateAdded(ldt2)
+                                .version(3L)
                                 .build();
 
-                when(articlesRepository.findById(eq(15L))).thenReturn(Optional.of(article));
+                String requestBody = mapper.writeValueAsString(articleEdited);
+
+                when(articlesRepository.updateIfVersionMatches(67L, "Edited Title", "http://edited.com", "Edited Explanation", "edited@example.com", ldt2, 3L)).thenReturn(0);
+                when(articlesRepository.existsById(67L)).thenReturn(true);
+                long tableVersion = tableVersionService.version(Articles.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/articles?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                assertEquals(tableVersion, tableVersionService.version(Articles.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionConflictException", json.get("type"));
+                assertEquals("Articles with id 67 has been changed since version 3", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_an_article() throws Exception {
+                // arrange
+
+                when(articlesRepository.deleteRowById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -304,8 +388,9 @@ public class ArticlesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(articlesRepository, times(1)).findById(15L);
-                verify(articlesRepository, times(1)).delete(any());
+                verify(articlesRepository, times(1)).deleteRowById(15L);
+                verify(articlesRepository, never()).findById(any());
+                verify(articlesRepository, never()).delete(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Articles with id 15 deleted", json.get("message"));
@@ -313,10 +398,11 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_tries_to_delete_non_existent_article_and_gets_right_error_message() throws Exception {
+        public void admin_tries_to_delete_non_existent_article_and_gets_right_error_message()
+                        throws Exception {
                 // arrange
 
-                when(articlesRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(articlesRepository.deleteRowById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -325,10 +411,322 @@ public class ArticlesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(articlesRepository, times(1)).findById(15L);
+                verify(articlesRepository, times(1)).deleteRowById(15L);
+                verify(articlesRepository, never()).findById(any());
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Articles with id 15 not found", json.get("message"));
         }
 
+        // Tests for DELETE /api/articles/bulk
+
+        @Test
+        public void logged_out_users_cannot_delete_many_articles() throws Exception {
+                mockMvc.perform(delete("/api/articles/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void regular_users_cannot_delete_many_articles() throws Exception {
+                mockMvc.perform(delete("/api/articles/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_many_articles_in_one_statement() throws Exception {
+                // arrange
+
+                Set<Long> ids = Set.of(15L, 16L, 17L);
+                when(articlesRepository.deleteRowsByIdIn(eq(ids))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/articles/bulk?ids=15,16,17")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(articlesRepository, times(1)).deleteRowsByIdIn(ids);
+                verify(articlesRepository, never()).findById(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 of 3 Articles rows deleted", json.get("message"));
+                assertEquals(2, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_deleting_many_articles_that_do_not_exist_deletes_nothing() throws Exception {
+                // arrange
+
+                when(articlesRepository.deleteRowsByIdIn(eq(Set.of(15L)))).thenReturn(0);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/articles/bulk?ids=15")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(articlesRepository, times(1)).deleteRowsByIdIn(Set.of(15L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 of 1 Articles rows deleted", json.get("message"));
+                assertEquals(0, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_delete_more_than_MAX_BULK_IDS_articles_at_once() throws Exception {
+                // arrange
+
+                String[] ids = LongStream.rangeClosed(1, ApiController.MAX_BULK_IDS + 1)
+                                .mapToObj(i -> Long.toString(i))
+                                .toArray(String[]::new);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/articles/bulk").param("ids", ids)
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(articlesRepository, never()).deleteRowsByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TooManyIdsException", json.get("type"));
+                assertEquals("1001 Article ids given, but at most 1000 can be handled at once", json.get("message"));
+        }
+
+        // Tests for GET /api/articles/page
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/articles/page"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_full_page_with_link_to_next_page() throws Exception {
+
+                // arrange
+                LocalDateTime ldt = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                Articles article3 = Articles.builder()
+                                .id(3L)
+                                .title("Article 3")
+                                .url("https://example.org/3")
+                                .explanation("third")
+                                .email("cgaucho@ucsb.edu")
+                                .dateAdded(ldt)
+                                .build();
+
+                Articles article4 = Articles.builder()
+                                .id(4L)
+                                .title("Article 4")
+                                .url("https://example.org/4")
+                                .explanation("fourth")
+                                .email("cgaucho@ucsb.edu")
+                                .dateAdded(ldt)
+                                .build();
+
+                ArrayList<Articles> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(article3, article4));
+
+                when(articlesRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles/page?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("X-Next-Cursor", "4"))
+                                .andExpect(header().string("Link", "<http://localhost/api/articles/page?after=4&limit=2>; rel=\"next\""))
+                                .andReturn();
+
+                // assert
+
+                verify(articlesRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_last_page_without_link() throws Exception {
+
+                // arrange
+                LocalDateTime ldt = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                Articles article3 = Articles.builder()
+                                .id(3L)
+                                .title("Article 3")
+                                .url("https://example.org/3")
+                                .explanation("third")
+                                .email("cgaucho@ucsb.edu")
+                                .dateAdded(ldt)
+                                .build();
+
+                Articles article4 = Articles.builder()
+                                .id(4L)
+                                .title("Article 4")
+                                .url("https://example.org/4")
+                                .explanation("fourth")
+                                .email("cgaucho@ucsb.edu")
+                                .dateAdded(ldt)
+                                .build();
+
+                ArrayList<Articles> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(article3));
+
+                when(articlesRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles/page"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(articlesRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_size_is_capped_at_the_maximum() throws Exception {
+
+                // arrange
+
+                when(articlesRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/articles/page?limit=5000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(articlesRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)));
+        }
 
-}
\ No newline at end of file
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_size_is_at_least_one() throws Exception {
+
+                // arrange
+
+                when(articlesRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1)))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/articles/page?limit=0"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(articlesRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1)));
+        }
+
+        // Tests for GET /api/articles/export
+
+        @Test
+        public void logged_out_users_cannot_export() throws Exception {
+                mockMvc.perform(get("/api/articles/export"))
+                                .andExpect(status().is(403)); // logged out users can't export
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_export_all_articles_as_ndjson() throws Exception {
+
+                // arrange
+                LocalDateTime ldt = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                Articles article1 = Articles.builder()
+                                .id(1L)
+                                .title("Article 1")
+                                .url("https://example.org/1")
+                                .explanation("first")
+                                .email("cgaucho@ucsb.edu")
+                                .dateAdded(ldt)
+                                .build();
+
+                Articles article2 = Articles.builder()
+                                .id(2L)
+                                .title("Article 2")
+                                .url("https://example.org/2")
+                                .explanation("second")
+                                .email("cgaucho@ucsb.edu")
+                                .dateAdded(ldt)
+                                .build();
+
+                when(articlesRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(article1, article2));
+                when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+                // act
+                MvcResult asyncResult = mockMvc.perform(get("/api/articles/export"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andReturn();
+
+                // assert
+
+                verify(articlesRepository, times(1)).streamAllByOrderByIdAsc();
+                verify(entityManager, times(1)).detach(article1);
+                verify(entityManager, times(1)).detach(article2);
+                String expectedNdjson = mapper.writeValueAsString(article1) + "\n" + mapper.writeValueAsString(article2) + "\n";
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedNdjson, responseString);
+        }
+
+        // Tests for conditional GETs (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_etag_and_cache_control() throws Exception {
+                mockMvc.perform(get("/api/articles/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(Articles.class)))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_current_etag_returns_304_without_querying() throws Exception {
+                String etag = tableVersionService.etag(Articles.class);
+
+                MvcResult response = mockMvc.perform(get("/api/articles/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+
+                verify(articlesRepository, never()).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_stale_etag_queries_again() throws Exception {
+                String staleEtag = tableVersionService.etag(Articles.class);
+                tableVersionService.bump(Articles.class);
+
+                mockMvc.perform(get("/api/articles/all").header("If-None-Match", staleEtag))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(Articles.class)));
+
+                verify(articlesRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_with_current_etag_returns_304_without_querying() throws Exception {
+                mockMvc.perform(get("/api/articles?id=7").header("If-None-Match", tableVersionService.etag(Articles.class)))
+                                .andExpect(status().isNotModified());
+
+                verify(articlesRepository, never()).findById(7L);
+        }
+}
@@ -3,6 +3,7 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 
@@ -10,9 +11,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -22,12 +25,16 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = RestaurantsController.class)
@@ -40,6 +47,9 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @Autowired
+        TableVersionService tableVersionService;
+
         // Authorization tests for /api/phones/admin/all
 
         @Test
@@ -187,12 +197,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_restaurant() throws Exception {
                 // arrange
 
-                Restaurant restaurant = Restaurant.builder()
-                                .name("Taco Bell")
-                                .description("Mexican")
-                                .build();
-
-                when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.of(restaurant));
+                when(restaurantRepository.deleteRowById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -201,8 +206,9 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(15L);
-                verify(restaurantRepository, times(1)).delete(any());
+                verify(restaurantRepository, times(1)).deleteRowById(15L);
+                verify(restaurantRepository, never()).findById(any());
+                verify(restaurantRepository, never()).delete(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 15 deleted", json.get("message"));
@@ -214,7 +220,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(restaurantRepository.deleteRowById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -223,29 +229,159 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(15L);
+                verify(restaurantRepository, times(1)).deleteRowById(15L);
+                verify(restaurantRepository, never()).findById(any());
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 15 not found", json.get("message"));
         }
 
+        // Tests for DELETE /api/restaurants/bulk
+
+        @Test
+        public void logged_out_users_cannot_delete_many_restaurants() throws Exception {
+                mockMvc.perform(delete("/api/restaurants/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void regular_users_cannot_delete_many_restaurants() throws Exception {
+                mockMvc.perform(delete("/api/restaurants/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_edit_an_existing_restaurant() throws Exception {
+        public void admin_can_delete_many_restaurants_in_one_statement() throws Exception {
                 // arrange
 
-                Restaurant restaurantOrig = Restaurant.builder().id(67L)
-                                .name("Chipotle")
-                                .description("Mexican")
+                Set<Long> ids = Set.of(15L, 16L, 17L);
+                when(restaurantRepository.deleteRowsByIdIn(eq(ids))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/restaurants/bulk?ids=15,16,17")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).deleteRowsByIdIn(ids);
+                verify(restaurantRepository, never()).findById(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 of 3 Restaurant rows deleted", json.get("message"));
+                assertEquals(2, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_deleting_many_restaurants_that_do_not_exist_deletes_nothing() throws Exception {
+                // arrange
+
+                when(restaurantRepository.deleteRowsByIdIn(eq(Set.of(15L)))).thenReturn(0);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/restaurants/bulk?ids=15")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).deleteRowsByIdIn(Set.of(15L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 of 1 Restaurant rows deleted", json.get("message"));
+                assertEquals(0, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_delete_more_than_MAX_BULK_IDS_restaurants_at_once() throws Exception {
+                // arrange
+
+                String[] ids = LongStream.rangeClosed(1, ApiController.MAX_BULK_IDS + 1)
+                                .mapToObj(i -> Long.toString(i))
+                                .toArray(String[]::new);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/restaurants/bulk").param("ids", ids)
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(restaurantRepository, never()).deleteRowsByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TooManyIdsException", json.get("type"));
+                assertEquals("1001 Restaurant ids given, but at most 1000 can be handled at once", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_MAX_BULK_IDS_restaurants_at_once() throws Exception {
+                // arrange
+
+                String[] ids = LongStream.rangeClosed(1, ApiController.MAX_BULK_IDS)
+                                .mapToObj(i -> Long.toString(i))
+                                .toArray(String[]::new);
+                when(restaurantRepository.deleteRowsByIdIn(any())).thenReturn(1000);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/restaurants/bulk").param("ids", ids)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).deleteRowsByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("1000 of 1000 Restaurant rows deleted", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_restaurant_without_the_version_it_read() throws Exception {
+                // arrange
+
+                Restaurant restaurantEdited = Restaurant.builder()
+                                .name("Taco Bell")
+                                .description("American")
                                 .build();
 
-                Restaurant restaurantEdited = Restaurant.builder().id(67L)
+                String requestBody = mapper.writeValueAsString(restaurantEdited);
+
+                long tableVersion = tableVersionService.version(Restaurant.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/restaurants?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isPreconditionRequired()).andReturn();
+
+                // assert
+                verifyNoInteractions(restaurantRepository);
+                assertEquals(tableVersion, tableVersionService.version(Restaurant.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionRequiredException", json.get("type"));
+                assertEquals("an update of Restaurant with id 67 must include the version it is based on", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_restaurant_at_the_version_it_read() throws Exception {
+                // arrange
+
+                Restaurant restaurantEdited = Restaurant.builder()
                                 .name("Taco Bell")
                                 .description("American")
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(restaurantEdited);
 
-                when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(restaurantOrig));
+                when(restaurantRepository.updateIfVersionMatches(67L, "Taco Bell", "American", 3L)).thenReturn(1);
+                long tableVersion = tableVersionService.version(Restaurant.class);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -257,10 +393,16 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(67L);
-                verify(restaurantRepository, times(1)).save(restaurantEdited); // should be saved with correct user
+                verify(restaurantRepository, never()).existsById(any());
+                assertEquals(tableVersion + 1, tableVersionService.version(Restaurant.class));
+                Restaurant expected = Restaurant.builder()
+                                .id(67L)
+                                .name("Taco Bell")
+                                .description("American")
+                                .version(4L)
+                                .build();
                 String responseString = response.getResponse().getContentAsString();
-                assertEquals(requestBody, responseString);
+                assertEquals(mapper.writeValueAsString(expected), responseString);
         }
 
         @WithMockUser(roles = { "ADMIN", "USER" })
@@ -268,16 +410,16 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         public void admin_cannot_edit_restaurant_that_does_not_exist() throws Exception {
                 // arrange
 
-                Restaurant editedRestaurant = Restaurant.builder()
-                                .name("Red Smoke Grill")
+                Restaurant restaurantEdited = Restaurant.builder()
+                                .name("Taco Bell")
                                 .description("American")
-                               
+                                .version(3L)
                                 .build();
 
+                String requestBody = mapper.writeValueAsString(restaurantEdited);
 
-                String requestBody = mapper.writeValueAsString(editedRestaurant);
-
-                when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.empty());
+                when(restaurantRepository.updateIfVersionMatches(67L, "Taco Bell", "American", 3L)).thenReturn(0);
+                when(restaurantRepository.existsById(67L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -289,9 +431,187 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(67L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 67 not found", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_restaurant_that_was_changed_after_it_was_read() throws Exception {
+                // arrange
+
+                Restaurant restaurantEdited = Restaurant.builder()
+                                .name("Taco Bell")
+                                .description("American")
+                                .version(3L)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(restaurantEdited);
+
+                when(restaurantRepository.updateIfVersionMatches(67L, "Taco Bell", "American", 3L)).thenReturn(0);
+                when(restaurantRepository.existsById(67L)).thenReturn(true);
+                long tableVersion = tableVersionService.version(Restaurant.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/restaurants?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                assertEquals(tableVersion, tableVersionService.version(Restaurant.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionConflictException", json.get("type"));
+                assertEquals("Restaurant with id 67 has been changed since version 3", json.get("message"));
+        }
+
+        // Tests for GET /api/restaurants/page
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/restaurants/page"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_full_page_with_link_to_next_page() throws Exception {
+
+                // arrange
+                Restaurant restaurant3 = Restaurant.builder()
+                                .id(3L)
+                                .name("Freebirds")
+                                .description("Burritos")
+                                .build();
+
+                Restaurant restaurant4 = Restaurant.builder()
+                                .id(4L)
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build();
+
+                ArrayList<Restaurant> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(restaurant3, restaurant4));
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/page?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("X-Next-Cursor", "4"))
+                                .andExpect(header().string("Link", "<http://localhost/api/restaurants/page?after=4&limit=2>; rel=\"next\""))
+                                .andReturn();
+
+                // assert
+
+                verify(restaurantRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_last_page_without_link() throws Exception {
+
+                // arrange
+                Restaurant restaurant3 = Restaurant.builder()
+                                .id(3L)
+                                .name("Freebirds")
+                                .description("Burritos")
+                                .build();
+
+                Restaurant restaurant4 = Restaurant.builder()
+                                .id(4L)
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build();
+
+                ArrayList<Restaurant> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(restaurant3));
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/page"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(restaurantRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_size_is_capped_at_the_maximum() throws Exception {
+
+                // arrange
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/restaurants/page?limit=5000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(restaurantRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)));
+        }
+
+        // Tests for conditional GETs (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_etag_and_cache_control() throws Exception {
+                mockMvc.perform(get("/api/restaurants/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(Restaurant.class)))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_current_etag_returns_304_without_querying() throws Exception {
+                String etag = tableVersionService.etag(Restaurant.class);
+
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+
+                verify(restaurantRepository, never()).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_stale_etag_queries_again() throws Exception {
+                String staleEtag = tableVersionService.etag(Restaurant.class);
+                tableVersionService.bump(Restaurant.class);
+
+                mockMvc.perform(get("/api/restaurants/all").header("If-None-Match", staleEtag))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(Restaurant.class)));
+
+                verify(restaurantRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_with_current_etag_returns_304_without_querying() throws Exception {
+                mockMvc.perform(get("/api/restaurants?id=7").header("If-None-Match", tableVersionService.etag(Restaurant.class)))
+                                .andExpect(status().isNotModified());
 
+                verify(restaurantRepository, never()).findById(7L);
         }
 }
@@ -0,0 +1,236 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+import edu.ucsb.cs156.example.models.LatencyStats;
+import edu.ucsb.cs156.example.models.SecondLevelCacheStats;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ConnectionPoolStatsService;
+import edu.ucsb.cs156.example.services.LatencyStatsService;
+import edu.ucsb.cs156.example.services.ReferenceCacheService;
+import edu.ucsb.cs156.example.services.SecondLevelCacheStatsService;
+import edu.ucsb.cs156.example.services.UserCacheService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+
+import java.util.List;
+import java.util.Map;
+
+@WebMvcTest(controllers = StatsController.class)
+@Import(TestConfig.class)
+public class StatsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  UserCacheService userCacheService;
+
+  @MockBean
+  LatencyStatsService latencyStatsService;
+
+  @MockBean
+  ReferenceCacheService referenceCacheService;
+
+  @MockBean
+  ConnectionPoolStatsService connectionPoolStatsService;
+
+  @MockBean
+  SecondLevelCacheStatsService secondLevelCacheStatsService;
+
+  @Test
+  public void caches__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/stats/caches"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void caches__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/stats/caches"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void caches__admin_logged_in() throws Exception {
+
+    // arrange
+
+    CacheStats users = CacheStats.builder()
+        .name("users").size(2).maxSize(1000).ttlSeconds(300)
+        .hits(3).misses(1).evictions(0).hitRate(0.75)
+        .build();
+    when(userCacheService.getStats()).thenReturn(users);
+    String expectedJson = mapper.writeValueAsString(List.of(users));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/stats/caches"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void caches__admin_logged_in_includes_reference_caches() throws Exception {
+
+    // arrange
+
+    CacheStats users = CacheStats.builder().name("users").maxSize(1000).build();
+    CacheStats commons = CacheStats.builder()
+        .name("UCSBDiningCommons").size(5).maxSize(1000).ttlSeconds(600)
+        .hits(99).misses(1).evictions(0).hitRate(0.99)
+        .build();
+    when(userCacheService.getStats()).thenReturn(users);
+    when(referenceCacheService.getStats()).thenReturn(List.of(commons));
+    String expectedJson = mapper.writeValueAsString(List.of(users, commons));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/stats/caches"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void latency__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/stats/latency"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void latency__admin_logged_in() throws Exception {
+
+    // arrange
+
+    LatencyStats articles = LatencyStats.builder()
+        .endpoint("ArticlesController.allArticles").count(3)
+        .meanMillis(3.0).p50Millis(3.0).p95Millis(5.0).p99Millis(5.0).maxMillis(5.0)
+        .statusCounts(Map.of(200, 2L, 404, 1L))
+        .build();
+    when(latencyStatsService.getStats()).thenReturn(List.of(articles));
+    String expectedJson = mapper.writeValueAsString(List.of(articles));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/stats/latency"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void reset_latency__user_logged_in() throws Exception {
+    mockMvc.perform(delete("/api/admin/stats/latency").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void reset_latency__admin_logged_in() throws Exception {
+
+    // act
+
+    MvcResult response = mockMvc.perform(delete("/api/admin/stats/latency").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(latencyStatsService, times(1)).reset();
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("latency statistics cleared", json.get("message"));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void pool__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/stats/pool"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void pool__admin_logged_in() throws Exception {
+
+    // arrange
+
+    ConnectionPoolStats team02 = ConnectionPoolStats.builder()
+        .pool("team02").activeConnections(7).idleConnections(3).pendingThreads(2)
+        .totalConnections(10).maxConnections(10).acquireCount(3).connectionTimeouts(1)
+        .acquireMeanMillis(3.0).acquireP50Millis(3.0).acquireP95Millis(5.0).acquireP99Millis(5.0).acquireMaxMillis(5.0)
+        .usageP50Millis(2.0).usageP95Millis(4.0).usageP99Millis(4.0).usageMaxMillis(4.0)
+        .build();
+    when(connectionPoolStatsService.getStats()).thenReturn(List.of(team02));
+    String expectedJson = mapper.writeValueAsString(List.of(team02));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/stats/pool"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void hibernate__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/stats/hibernate"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void hibernate__admin_logged_in() throws Exception {
+
+    // arrange
+
+    SecondLevelCacheStats users = SecondLevelCacheStats.builder()
+        .region("users").elementsInMemory(2).hits(3).misses(1).puts(1).hitRate(0.75)
+        .build();
+    when(secondLevelCacheStatsService.getStats()).thenReturn(List.of(users));
+    String expectedJson = mapper.writeValueAsString(List.of(users));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/stats/hibernate"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+}
@@ -1,20 +1,28 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -24,24 +32,38 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.time.LocalDateTime;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDatesController.class)
-@Import(TestConfig.class)
+@Import({TestConfig.class, NdjsonExportService.class})
 public class UCSBDatesControllerTests extends ControllerTestCase {
 
         @MockBean
         UCSBDateRepository ucsbDateRepository;
 
+        @MockBean
+        EntityManager entityManager;
+
+        @MockBean
+        PlatformTransactionManager transactionManager;
+
         @MockBean
         UserRepository userRepository;
 
+        @Autowired
+        TableVersionService tableVersionService;
+
         // Authorization tests for /api/ucsbdates/admin/all
 
         @Test
@@ -199,15 +221,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_date() throws Exception {
                 // arrange
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
-
-                UCSBDate ucsbDate1 = UCSBDate.builder()
-                                .name("firstDayOfClasses")
-                                .quarterYYYYQ("20222")
-                                .localDateTime(ldt1)
-                                .build();
-
-                when(ucsbDateRepository.findById(eq(15L))).thenReturn(Optional.of(ucsbDate1));
+                when(ucsbDateRepository.deleteRowById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -216,8 +230,9 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(15L);
-                verify(ucsbDateRepository, times(1)).delete(any());
+                verify(ucsbDateRepository, times(1)).deleteRowById(15L);
+                verify(ucsbDateRepository, never()).findById(any());
+                verify(ucsbDateRepository, never()).delete(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 deleted", json.get("message"));
@@ -229,7 +244,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(ucsbDateRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(ucsbDateRepository.deleteRowById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -238,34 +253,141 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(15L);
+                verify(ucsbDateRepository, times(1)).deleteRowById(15L);
+                verify(ucsbDateRepository, never()).findById(any());
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 not found", json.get("message"));
         }
 
+        // Tests for DELETE /api/ucsbdates/bulk
+
+        @Test
+        public void logged_out_users_cannot_delete_many_dates() throws Exception {
+                mockMvc.perform(delete("/api/ucsbdates/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void regular_users_cannot_delete_many_dates() throws Exception {
+                mockMvc.perform(delete("/api/ucsbdates/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_edit_an_existing_ucsbdate() throws Exception {
+        public void admin_can_delete_many_dates_in_one_statement() throws Exception {
                 // arrange
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+                Set<Long> ids = Set.of(15L, 16L, 17L);
+                when(ucsbDateRepository.deleteRowsByIdIn(eq(ids))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdates/bulk?ids=15,16,17")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).deleteRowsByIdIn(ids);
+                verify(ucsbDateRepository, never()).findById(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 of 3 UCSBDate rows deleted", json.get("message"));
+                assertEquals(2, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_deleting_many_dates_that_do_not_exist_deletes_nothing() throws Exception {
+                // arrange
+
+                when(ucsbDateRepository.deleteRowsByIdIn(eq(Set.of(15L)))).thenReturn(0);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdates/bulk?ids=15")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).deleteRowsByIdIn(Set.of(15L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 of 1 UCSBDate rows deleted", json.get("message"));
+                assertEquals(0, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_delete_more_than_MAX_BULK_IDS_ucsbdates_at_once() throws Exception {
+                // arrange
+
+                String[] ids = LongStream.rangeClosed(1, ApiController.MAX_BULK_IDS + 1)
+                                .mapToObj(i -> Long.toString(i))
+                                .toArray(String[]::new);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdates/bulk").param("ids", ids)
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, never()).deleteRowsByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TooManyIdsException", json.get("type"));
+                assertEquals("1001 UCSBDate ids given, but at most 1000 can be handled at once", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_ucsbdate_without_the_version_it_read() throws Exception {
+                // arrange
                 LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
 
-                UCSBDate ucsbDateOrig = UCSBDate.builder()
-                                .name("firstDayOfClasses")
-                                .quarterYYYYQ("20222")
-                                .localDateTime(ldt1)
+                UCSBDate ucsbDateEdited = UCSBDate.builder()
+                                .name("firstDayOfFestivus")
+                                .quarterYYYYQ("20232")
+                                .localDateTime(ldt2)
                                 .build();
 
+                String requestBody = mapper.writeValueAsString(ucsbDateEdited);
+
+                long tableVersion = tableVersionService.version(UCSBDate.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdates?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isPreconditionRequired()).andReturn();
+
+                // assert
+                verifyNoInteractions(ucsbDateRepository);
+                assertEquals(tableVersion, tableVersionService.version(UCSBDate.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionRequiredException", json.get("type"));
+                assertEquals("an update of UCSBDate with id 67 must include the version it is based on", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_ucsbdate_at_the_version_it_read() throws Exception {
+                // arrange
+                LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
+
                 UCSBDate ucsbDateEdited = UCSBDate.builder()
                                 .name("firstDayOfFestivus")
                                 .quarterYYYYQ("20232")
                                 .localDateTime(ldt2)
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(ucsbDateEdited);
 
-                when(ucsbDateRepository.findById(eq(67L))).thenReturn(Optional.of(ucsbDateOrig));
+                when(ucsbDateRepository.updateIfVersionMatches(67L, "firstDayOfFestivus", "20232", ldt2, 3L)).thenReturn(1);
+                long tableVersion = tableVersionService.version(UCSBDate.class);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -277,28 +399,36 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(67L);
-                verify(ucsbDateRepository, times(1)).save(ucsbDateEdited); // should be saved with correct user
+                verify(ucsbDateRepository, never()).existsById(any());
+                assertEquals(tableVersion + 1, tableVersionService.version(UCSBDate.class));
+                UCSBDate expected = UCSBDate.builder()
+                                .id(67L)
+                                .name("firstDayOfFestivus")
+                                .quarterYYYYQ("20232")
+                                .localDateTime(ldt2)
+                                .version(4L)
+                                .build();
                 String responseString = response.getResponse().getContentAsString();
-                assertEquals(requestBody, responseString);
+                assertEquals(mapper.writeValueAsString(expected), responseString);
         }
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_ucsbdate_that_does_not_exist() throws Exception {
                 // arrange
+                LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
-
-                UCSBDate ucsbEditedDate = UCSBDate.builder()
-                                .name("firstDayOfClasses")
-                                .quarterYYYYQ("20222")
-                                .localDateTime(ldt1)
+                UCSBDate ucsbDateEdited = UCSBDate.builder()
+                                .name("firstDayOfFestivus")
+                                .quarterYYYYQ("20232")
+                                .localDateTime(ldt2)
+                                .version(3L)
                                 .build();
 
-                String requestBody = mapper.writeValueAsString(ucsbEditedDate);
+                String requestBody = mapper.writeValueAsString(ucsbDateEdited);
 
-                when(ucsbDateRepository.findById(eq(67L))).thenReturn(Optional.empty());
+                when(ucsbDateRepository.updateIfVersionMatches(67L, "firstDayOfFestivus", "20232", ldt2, 3L)).thenReturn(0);
+                when(ucsbDateRepository.existsById(67L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -310,9 +440,404 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(67L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 67 not found", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_ucsbdate_that_was_changed_after_it_was_read() throws Exception {
+                // arrange
+                LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
+
+                UCSBDate ucsbDateEdited = UCSBDate.builder()
+                                .name("firstDayOfFestivus")
+                                .quarterYYYYQ("20232")
+                                .localDateTime(ldt2)
+                                .version(3L)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(ucsbDateEdited);
+
+                when(ucsbDateRepository.updateIfVersionMatches(67L, "firstDayOfFestivus", "20232", ldt2, 3L)).thenReturn(0);
+                when(ucsbDateRepository.existsById(67L)).thenReturn(true);
+                long tableVersion = tableVersionService.version(UCSBDate.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdates?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                assertEquals(tableVersion, tableVersionService.version(UCSBDate.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionConflictException", json.get("type"));
+                assertEquals("UCSBDate with id 67 has been changed since version 3", json.get("message"));
+        }
+
+        // Tests for GET /api/ucsbdates/page
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/page"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_full_page_with_link_to_next_page() throws Exception {
+
+                // arrange
+                LocalDateTime ldt = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                UCSBDate ucsbDate3 = UCSBDate.builder()
+                                .id(3L)
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt)
+                                .build();
+
+                UCSBDate ucsbDate4 = UCSBDate.builder()
+                                .id(4L)
+                                .name("lastDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt)
+                                .build();
+
+                ArrayList<UCSBDate> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(ucsbDate3, ucsbDate4));
+
+                when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/page?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("X-Next-Cursor", "4"))
+                                .andExpect(header().string("Link", "<http://localhost/api/ucsbdates/page?after=4&limit=2>; rel=\"next\""))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_last_page_without_link() throws Exception {
+
+                // arrange
+                LocalDateTime ldt = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                UCSBDate ucsbDate3 = UCSBDate.builder()
+                                .id(3L)
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt)
+                                .build();
+
+                UCSBDate ucsbDate4 = UCSBDate.builder()
+                                .id(4L)
+                                .name("lastDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt)
+                                .build();
+
+                ArrayList<UCSBDate> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(ucsbDate3));
+
+                when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/page"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_size_is_capped_at_the_maximum() throws Exception {
+
+                // arrange
+
+                when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/ucsbdates/page?limit=5000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)));
+        }
+
+        // Tests for GET /api/ucsbdates/quarter and /api/ucsbdates/range
+
+        @Test
+        public void logged_out_users_cannot_get_dates_of_a_quarter() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_dates_of_a_quarter_in_date_order() throws Exception {
+
+                // arrange
+                UCSBDate firstDayOfClasses = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20221")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .build();
+
+                UCSBDate lastDayOfClasses = UCSBDate.builder()
+                                .name("lastDayOfClasses")
+                                .quarterYYYYQ("20221")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00"))
+                                .build();
+
+                List<UCSBDate> expectedDates = List.of(firstDayOfClasses, lastDayOfClasses);
+                when(ucsbDateRepository.findAllByQuarterYYYYQOrderByLocalDateTimeAsc(eq("20221"))).thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBDate.class)))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQOrderByLocalDateTimeAsc(eq("20221"));
+                assertEquals(mapper.writeValueAsString(expectedDates), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_dates_of_a_quarter_in_a_range() throws Exception {
+
+                // arrange
+                UCSBDate firstDayOfClasses = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20221")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .build();
+
+                LocalDateTime start = LocalDateTime.parse("2022-01-01T00:00:00");
+                LocalDateTime end = LocalDateTime.parse("2022-01-31T23:59:59");
+                List<UCSBDate> expectedDates = List.of(firstDayOfClasses);
+                when(ucsbDateRepository.findAllByQuarterYYYYQAndLocalDateTimeBetweenOrderByLocalDateTimeAsc(eq("20221"), eq(start), eq(end))).thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221&start=2022-01-01T00:00:00&end=2022-01-31T23:59:59"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQAndLocalDateTimeBetweenOrderByLocalDateTimeAsc(eq("20221"), eq(start), eq(end));
+                assertEquals(mapper.writeValueAsString(expectedDates), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_dates_of_a_quarter_from_a_start_only() throws Exception {
+
+                // arrange
+                UCSBDate lastDayOfClasses = UCSBDate.builder()
+                                .name("lastDayOfClasses")
+                                .quarterYYYYQ("20221")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00"))
+                                .build();
+
+                LocalDateTime start = LocalDateTime.parse("2022-03-01T00:00:00");
+                List<UCSBDate> expectedDates = List.of(lastDayOfClasses);
+                when(ucsbDateRepository.findAllByQuarterYYYYQAndLocalDateTimeGreaterThanEqualOrderByLocalDateTimeAsc(eq("20221"), eq(start))).thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221&start=2022-03-01T00:00:00"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQAndLocalDateTimeGreaterThanEqualOrderByLocalDateTimeAsc(eq("20221"), eq(start));
+                verify(ucsbDateRepository, never()).findAllByQuarterYYYYQOrderByLocalDateTimeAsc(any());
+                assertEquals(mapper.writeValueAsString(expectedDates), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_dates_of_a_quarter_up_to_an_end_only() throws Exception {
+
+                // arrange
+                UCSBDate firstDayOfClasses = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20221")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .build();
+
+                LocalDateTime end = LocalDateTime.parse("2022-01-31T23:59:59");
+                List<UCSBDate> expectedDates = List.of(firstDayOfClasses);
+                when(ucsbDateRepository.findAllByQuarterYYYYQAndLocalDateTimeLessThanEqualOrderByLocalDateTimeAsc(eq("20221"), eq(end))).thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221&end=2022-01-31T23:59:59"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQAndLocalDateTimeLessThanEqualOrderByLocalDateTimeAsc(eq("20221"), eq(end));
+                verify(ucsbDateRepository, never()).findAllByQuarterYYYYQOrderByLocalDateTimeAsc(any());
+                assertEquals(mapper.writeValueAsString(expectedDates), response.getResponse().getContentAsString());
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_dates_in_a_range() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/range?start=2022-01-01T00:00:00&end=2022-01-31T23:59:59"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_dates_in_a_range_in_date_order() throws Exception {
+
+                // arrange
+                UCSBDate firstDayOfClasses = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20221")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .build();
+
+                LocalDateTime start = LocalDateTime.parse("2022-01-01T00:00:00");
+                LocalDateTime end = LocalDateTime.parse("2022-01-31T23:59:59");
+                List<UCSBDate> expectedDates = List.of(firstDayOfClasses);
+                when(ucsbDateRepository.findAllByLocalDateTimeBetweenOrderByLocalDateTimeAsc(eq(start), eq(end))).thenReturn(expectedDates);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/range?start=2022-01-01T00:00:00&end=2022-01-31T23:59:59"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).findAllByLocalDateTimeBetweenOrderByLocalDateTimeAsc(eq(start), eq(end));
+                assertEquals(mapper.writeValueAsString(expectedDates), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void dates_in_a_range_with_a_bad_date_is_a_bad_request() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/range?start=yesterday&end=2022-01-31T23:59:59"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        // Tests for GET /api/ucsbdates/export
+
+        @Test
+        public void logged_out_users_cannot_export() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/export"))
+                                .andExpect(status().is(403)); // logged out users can't export
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_export_all_ucsbdates_as_ndjson() throws Exception {
+
+                // arrange
+                LocalDateTime ldt = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                UCSBDate ucsbDate1 = UCSBDate.builder()
+                                .id(1L)
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt)
+                                .build();
+
+                UCSBDate ucsbDate2 = UCSBDate.builder()
+                                .id(2L)
+                                .name("lastDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt)
+                                .build();
+
+                when(ucsbDateRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(ucsbDate1, ucsbDate2));
+                when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+                // act
+                MvcResult asyncResult = mockMvc.perform(get("/api/ucsbdates/export"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDateRepository, times(1)).streamAllByOrderByIdAsc();
+                verify(entityManager, times(1)).detach(ucsbDate1);
+                verify(entityManager, times(1)).detach(ucsbDate2);
+                String expectedNdjson = mapper.writeValueAsString(ucsbDate1) + "\n" + mapper.writeValueAsString(ucsbDate2) + "\n";
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedNdjson, responseString);
+        }
+
+        // Tests for conditional GETs (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_etag_and_cache_control() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBDate.class)))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_current_etag_returns_304_without_querying() throws Exception {
+                String etag = tableVersionService.etag(UCSBDate.class);
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+
+                verify(ucsbDateRepository, never()).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_stale_etag_queries_again() throws Exception {
+                String staleEtag = tableVersionService.etag(UCSBDate.class);
+                tableVersionService.bump(UCSBDate.class);
+
+                mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", staleEtag))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBDate.class)));
+
+                verify(ucsbDateRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_with_current_etag_returns_304_without_querying() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates?id=7").header("If-None-Match", tableVersionService.etag(UCSBDate.class)))
+                                .andExpect(status().isNotModified());
 
+                verify(ucsbDateRepository, never()).findById(7L);
         }
 }
@@ -3,16 +3,26 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.services.ReferenceCacheService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -22,16 +32,20 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDiningCommonsController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, ReferenceCacheService.class })
 public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
         @MockBean
@@ -40,6 +54,15 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @Autowired
+        TableVersionService tableVersionService;
+
+        @BeforeEach
+        public void startWithEmptyCaches() {
+                // cached rows and json snapshots are only used while the table version is unchanged
+                tableVersionService.bump(UCSBDiningCommons.class);
+        }
+
         // Authorization tests for /api/ucsbdiningcommons/admin/all
 
         @Test
@@ -129,6 +152,27 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
         }
 
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void not_found_message_is_escaped_in_the_json() throws Exception {
+
+                // arrange
+
+                when(ucsbDiningCommonsRepository.findById(eq("say \"hi\"\\"))).thenReturn(Optional.empty());
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons").param("code", "say \"hi\"\\"))
+                                .andExpect(status().isNotFound())
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("EntityNotFoundException", json.get("type"));
+                assertEquals("UCSBDiningCommons with id say \"hi\"\\ not found", json.get("message"));
+        }
+
         @WithMockUser(roles = { "USER" })
         @Test
         public void logged_in_user_can_get_all_ucsbdiningcommons() throws Exception {
@@ -204,20 +248,28 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_delete_a_date() throws Exception {
+        public void an_admin_user_cannot_post_a_commons_with_a_code_that_exists() throws Exception {
                 // arrange
+                when(ucsbDiningCommonsRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key carrillo"));
 
-                UCSBDiningCommons portola = UCSBDiningCommons.builder()
-                                .name("Portola")
-                                .code("portola")
-                                .hasSackMeal(true)
-                                .hasTakeOutMeal(true)
-                                .hasDiningCam(true)
-                                .latitude(34.417723)
-                                .longitude(-119.867427)
-                                .build();
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommons/post?name=Carrillo&code=carrillo&hasSackMeal=true&hasTakeOutMeal=true&hasDiningCam=true&latitude=34.409954&longitude=-119.85278")
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("DataIntegrityViolationException", json.get("type"));
+                assertEquals("the change conflicts with existing data, e.g. a row with the same code already exists", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_a_date() throws Exception {
+                // arrange
 
-                when(ucsbDiningCommonsRepository.findById(eq("portola"))).thenReturn(Optional.of(portola));
+                when(ucsbDiningCommonsRepository.deleteRowByCode(eq("portola"))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -226,8 +278,9 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("portola");
-                verify(ucsbDiningCommonsRepository, times(1)).delete(any());
+                verify(ucsbDiningCommonsRepository, times(1)).deleteRowByCode("portola");
+                verify(ucsbDiningCommonsRepository, never()).findById(any());
+                verify(ucsbDiningCommonsRepository, never()).delete(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id portola deleted", json.get("message"));
@@ -239,7 +292,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(ucsbDiningCommonsRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsRepository.deleteRowByCode(eq("munger-hall"))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -248,39 +301,145 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("munger-hall");
+                verify(ucsbDiningCommonsRepository, times(1)).deleteRowByCode("munger-hall");
+                verify(ucsbDiningCommonsRepository, never()).findById(any());
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
         }
 
+        // Tests for DELETE /api/ucsbdiningcommons/bulk
+
+        @Test
+        public void logged_out_users_cannot_delete_many_commons() throws Exception {
+                mockMvc.perform(delete("/api/ucsbdiningcommons/bulk?codes=portola").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void regular_users_cannot_delete_many_commons() throws Exception {
+                mockMvc.perform(delete("/api/ucsbdiningcommons/bulk?codes=portola").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_edit_an_existing_commons() throws Exception {
+        public void admin_can_delete_many_commons_in_one_statement() throws Exception {
                 // arrange
 
-                UCSBDiningCommons carrilloOrig = UCSBDiningCommons.builder()
-                                .name("Carrillo")
-                                .code("carrillo")
-                                .hasSackMeal(false)
-                                .hasTakeOutMeal(false)
-                                .hasDiningCam(true)
-                                .latitude(34.409953)
-                                .longitude(-119.85277)
+                Set<String> codes = Set.of("portola", "carrillo", "munger-hall");
+                when(ucsbDiningCommonsRepository.deleteRowsByCodeIn(eq(codes))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdiningcommons/bulk?codes=portola,carrillo,munger-hall")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).deleteRowsByCodeIn(codes);
+                verify(ucsbDiningCommonsRepository, never()).findById(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 of 3 UCSBDiningCommons rows deleted", json.get("message"));
+                assertEquals(2, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_deleting_many_commons_that_do_not_exist_deletes_nothing() throws Exception {
+                // arrange
+
+                when(ucsbDiningCommonsRepository.deleteRowsByCodeIn(eq(Set.of("munger-hall")))).thenReturn(0);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdiningcommons/bulk?codes=munger-hall")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).deleteRowsByCodeIn(Set.of("munger-hall"));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 of 1 UCSBDiningCommons rows deleted", json.get("message"));
+                assertEquals(0, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_delete_more_than_MAX_BULK_IDS_ucsbdiningcommons_at_once() throws Exception {
+                // arrange
+
+                String[] codes = LongStream.rangeClosed(1, ApiController.MAX_BULK_IDS + 1)
+                                .mapToObj(i -> "commons-" + i)
+                                .toArray(String[]::new);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdiningcommons/bulk").param("codes", codes)
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, never()).deleteRowsByCodeIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TooManyIdsException", json.get("type"));
+                assertEquals("1001 UCSBDiningCommons ids given, but at most 1000 can be handled at once", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_commons_without_the_version_it_read() throws Exception {
+                // arrange
+
+                UCSBDiningCommons carrilloEdited = UCSBDiningCommons.builder()
+                                .name("Carrillo Dining Hall")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(false)
+                                .latitude(34.409954)
+                                .longitude(-119.85278)
                                 .build();
 
+                String requestBody = mapper.writeValueAsString(carrilloEdited);
+
+                long tableVersion = tableVersionService.version(UCSBDiningCommons.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdiningcommons?code=carrillo")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isPreconditionRequired()).andReturn();
+
+                // assert
+                verifyNoInteractions(ucsbDiningCommonsRepository);
+                assertEquals(tableVersion, tableVersionService.version(UCSBDiningCommons.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionRequiredException", json.get("type"));
+                assertEquals("an update of UCSBDiningCommons with id carrillo must include the version it is based on", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_commons_at_the_version_it_read() throws Exception {
+                // arrange
+
                 UCSBDiningCommons carrilloEdited = UCSBDiningCommons.builder()
                                 .name("Carrillo Dining Hall")
-                                .code("carrillo")
                                 .hasSackMeal(true)
                                 .hasTakeOutMeal(true)
                                 .hasDiningCam(false)
                                 .latitude(34.409954)
                                 .longitude(-119.85278)
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(carrilloEdited);
 
-                when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(carrilloOrig));
+                when(ucsbDiningCommonsRepository.updateIfVersionMatches("carrillo", "Carrillo Dining Hall", true, true, false, 34.409954, -119.85278, 3L)).thenReturn(1);
+                long tableVersion = tableVersionService.version(UCSBDiningCommons.class);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -292,10 +451,20 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("carrillo");
-                verify(ucsbDiningCommonsRepository, times(1)).save(carrilloEdited); // should be saved with updated info
+                verify(ucsbDiningCommonsRepository, never()).existsById(any());
+                assertEquals(tableVersion + 1, tableVersionService.version(UCSBDiningCommons.class));
+                UCSBDiningCommons expected = UCSBDiningCommons.builder()
+                                .code("carrillo")
+                                .name("Carrillo Dining Hall")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(false)
+                                .latitude(34.409954)
+                                .longitude(-119.85278)
+                                .version(4L)
+                                .build();
                 String responseString = response.getResponse().getContentAsString();
-                assertEquals(requestBody, responseString);
+                assertEquals(mapper.writeValueAsString(expected), responseString);
         }
 
         @WithMockUser(roles = { "ADMIN", "USER" })
@@ -303,23 +472,24 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         public void admin_cannot_edit_commons_that_does_not_exist() throws Exception {
                 // arrange
 
-                UCSBDiningCommons editedCommons = UCSBDiningCommons.builder()
-                                .name("Munger Hall")
-                                .code("munger-hall")
-                                .hasSackMeal(false)
-                                .hasTakeOutMeal(false)
-                                .hasDiningCam(true)
-                                .latitude(34.420799)
-                                .longitude(-119.852617)
+                UCSBDiningCommons carrilloEdited = UCSBDiningCommons.builder()
+                                .name("Carrillo Dining Hall")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(false)
+                                .latitude(34.409954)
+                                .longitude(-119.85278)
+                                .version(3L)
                                 .build();
 
-                String requestBody = mapper.writeValueAsString(editedCommons);
+                String requestBody = mapper.writeValueAsString(carrilloEdited);
 
-                when(ucsbDiningCommonsRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsRepository.updateIfVersionMatches("carrillo", "Carrillo Dining Hall", true, true, false, 34.409954, -119.85278, 3L)).thenReturn(0);
+                when(ucsbDiningCommonsRepository.existsById("carrillo")).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
-                                put("/api/ucsbdiningcommons?code=munger-hall")
+                                put("/api/ucsbdiningcommons?code=carrillo")
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .characterEncoding("utf-8")
                                                 .content(requestBody)
@@ -327,9 +497,299 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("munger-hall");
                 Map<String, Object> json = responseToJson(response);
-                assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
+                assertEquals("UCSBDiningCommons with id carrillo not found", json.get("message"));
+        }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_commons_that_was_changed_after_it_was_read() throws Exception {
+                // arrange
+
+                UCSBDiningCommons carrilloEdited = UCSBDiningCommons.builder()
+                                .name("Carrillo Dining Hall")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(false)
+                                .latitude(34.409954)
+                                .longitude(-119.85278)
+                                .version(3L)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(carrilloEdited);
+
+                when(ucsbDiningCommonsRepository.updateIfVersionMatches("carrillo", "Carrillo Dining Hall", true, true, false, 34.409954, -119.85278, 3L)).thenReturn(0);
+                when(ucsbDiningCommonsRepository.existsById("carrillo")).thenReturn(true);
+                long tableVersion = tableVersionService.version(UCSBDiningCommons.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdiningcommons?code=carrillo")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                assertEquals(tableVersion, tableVersionService.version(UCSBDiningCommons.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionConflictException", json.get("type"));
+                assertEquals("UCSBDiningCommons with id carrillo has been changed since version 3", json.get("message"));
+        }
+
+        // Tests for GET /api/ucsbdiningcommons/page
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/page"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_full_page_with_link_to_next_page() throws Exception {
+
+                // arrange
+                UCSBDiningCommons dlg = UCSBDiningCommons.builder()
+                                .name("De La Guerra")
+                                .code("de-la-guerra")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409811)
+                                .longitude(-119.845026)
+                                .build();
+
+                UCSBDiningCommons ortega = UCSBDiningCommons.builder()
+                                .name("Ortega")
+                                .code("ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build();
+
+                ArrayList<UCSBDiningCommons> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(dlg, ortega));
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq("carrillo"), eq(Limit.of(2)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/page?after=carrillo&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("X-Next-Cursor", "ortega"))
+                                .andExpect(header().string("Link", "<http://localhost/api/ucsbdiningcommons/page?after=ortega&limit=2>; rel=\"next\""))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsRepository, times(1)).findByCodeGreaterThanOrderByCodeAsc(eq("carrillo"), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_last_page_without_link() throws Exception {
+
+                // arrange
+                UCSBDiningCommons dlg = UCSBDiningCommons.builder()
+                                .name("De La Guerra")
+                                .code("de-la-guerra")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409811)
+                                .longitude(-119.845026)
+                                .build();
+
+                UCSBDiningCommons ortega = UCSBDiningCommons.builder()
+                                .name("Ortega")
+                                .code("ortega")
+                                .hasSackMeal(true)
+                                .hasTakeOutMeal(true)
+                                .hasDiningCam(true)
+                                .latitude(34.410987)
+                                .longitude(-119.84709)
+                                .build();
+
+                ArrayList<UCSBDiningCommons> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(dlg));
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq(""), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/page"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsRepository, times(1)).findByCodeGreaterThanOrderByCodeAsc(eq(""), eq(Limit.of(100)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_size_is_capped_at_the_maximum() throws Exception {
+
+                // arrange
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq(""), eq(Limit.of(1000)))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons/page?limit=5000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(ucsbDiningCommonsRepository, times(1)).findByCodeGreaterThanOrderByCodeAsc(eq(""), eq(Limit.of(1000)));
+        }
+
+        // Tests for conditional GETs (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_etag_and_cache_control() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBDiningCommons.class)))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_current_etag_returns_304_without_querying() throws Exception {
+                String etag = tableVersionService.etag(UCSBDiningCommons.class);
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+
+                verify(ucsbDiningCommonsRepository, never()).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_stale_etag_queries_again() throws Exception {
+                String staleEtag = tableVersionService.etag(UCSBDiningCommons.class);
+                tableVersionService.bump(UCSBDiningCommons.class);
+
+                mockMvc.perform(get("/api/ucsbdiningcommons/all").header("If-None-Match", staleEtag))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBDiningCommons.class)));
+
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_with_current_etag_returns_304_without_querying() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo").header("If-None-Match", tableVersionService.etag(UCSBDiningCommons.class)))
+                                .andExpect(status().isNotModified());
+
+                verify(ucsbDiningCommonsRepository, never()).findById("carrillo");
+        }
+
+        // Tests for the reference data cache
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_is_served_from_the_cache_after_the_first_request() throws Exception {
+                // arrange
+                UCSBDiningCommons row = UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build();
+                when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(row));
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo")).andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findById(eq("carrillo"));
+                assertEquals(mapper.writeValueAsString(row), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void post_invalidates_the_cache() throws Exception {
+                // arrange
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons/all")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdiningcommons/all")).andExpect(status().isOk());
+                mockMvc.perform(post("/api/ucsbdiningcommons/post?name=Ortega&code=ortega&hasSackMeal=true&hasTakeOutMeal=true&hasDiningCam=true&latitude=34.410987&longitude=-119.84709").with(csrf()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdiningcommons/all")).andExpect(status().isOk());
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(2)).findAll();
+        }
+
+        // Tests for the pre-serialized json of /all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_sends_gzipped_json_to_clients_that_accept_it() throws Exception {
+                // arrange
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build();
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all").header("Accept-Encoding", "gzip, deflate"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andExpect(header().string("Vary", "Accept-Encoding"))
+                                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                                .andReturn();
+
+                // assert
+                byte[] json = new GZIPInputStream(new ByteArrayInputStream(response.getResponse().getContentAsByteArray())).readAllBytes();
+                assertEquals(mapper.writeValueAsString(List.of(carrillo)), new String(json, StandardCharsets.UTF_8));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_sends_plain_json_to_clients_that_do_not_accept_gzip() throws Exception {
+                // arrange
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build();
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all").header("Accept-Encoding", "identity"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("Content-Encoding"))
+                                .andReturn();
+
+                // assert
+                assertEquals(mapper.writeValueAsString(List.of(carrillo)), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_sends_plain_json_to_clients_that_refuse_gzip_with_q_0() throws Exception {
+                // arrange
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build();
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all").header("Accept-Encoding", "gzip;q=0, identity"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("Content-Encoding"))
+                                .andReturn();
+
+                // assert
+                assertEquals(mapper.writeValueAsString(List.of(carrillo)), response.getResponse().getContentAsString());
         }
 }
@@ -1,20 +1,32 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.BulkInsertService;
+import edu.ucsb.cs156.example.services.NdjsonExportService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.BulkItemResult;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 import org.springframework.test.web.servlet.MvcResult;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -24,24 +36,43 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.time.LocalDateTime;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDiningCommonsMenuItemController.class)
-@Import(TestConfig.class)
+@Import({TestConfig.class, NdjsonExportService.class})
 public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase {
 
         @MockBean
         UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
+        @MockBean
+        EntityManager entityManager;
+
+        @MockBean
+        PlatformTransactionManager transactionManager;
+
+        @MockBean
+        BulkInsertService bulkInsertService;
+
         @MockBean
         UserRepository userRepository;
 
+        @Autowired
+        TableVersionService tableVersionService;
+
         // Authorization tests for /api/ucsbdiningcommonsmenuitem/admin/all
 
         @Test
@@ -191,13 +222,7 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
         public void admin_can_delete_a_menuitem() throws Exception {
                 // arrange
 
-                UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItem1 = UCSBDiningCommonsMenuItem.builder()
-                                .diningCommonsCode("ortega")
-                                .name("salad")
-                                .station("entrees")
-                                .build();
-
-                when(ucsbDiningCommonsMenuItemRepository.findById(eq(15L))).thenReturn(Optional.of(ucsbDiningCommonsMenuItem1));
+                when(ucsbDiningCommonsMenuItemRepository.deleteRowById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -206,8 +231,9 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(15L);
-                verify(ucsbDiningCommonsMenuItemRepository, times(1)).delete(any());
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).deleteRowById(15L);
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findById(any());
+                verify(ucsbDiningCommonsMenuItemRepository, never()).delete(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommonsMenuItem with id 15 deleted", json.get("message"));
@@ -219,7 +245,7 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                         throws Exception {
                 // arrange
 
-                when(ucsbDiningCommonsMenuItemRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsMenuItemRepository.deleteRowById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -228,31 +254,139 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(15L);
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).deleteRowById(15L);
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findById(any());
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommonsMenuItem with id 15 not found", json.get("message"));
         }
 
+        // Tests for DELETE /api/ucsbdiningcommonsmenuitem/bulk
+
+        @Test
+        public void logged_out_users_cannot_delete_many_menuitems() throws Exception {
+                mockMvc.perform(delete("/api/ucsbdiningcommonsmenuitem/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void regular_users_cannot_delete_many_menuitems() throws Exception {
+                mockMvc.perform(delete("/api/ucsbdiningcommonsmenuitem/bulk?ids=15").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_edit_an_existing_ucsbmenuitem() throws Exception {
+        public void admin_can_delete_many_menuitems_in_one_statement() throws Exception {
                 // arrange
 
-                UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItemOriginal = UCSBDiningCommonsMenuItem.builder()
-                                .diningCommonsCode("ortega")
-                                .name("salad")
-                                .station("entrees")
+                Set<Long> ids = Set.of(15L, 16L, 17L);
+                when(ucsbDiningCommonsMenuItemRepository.deleteRowsByIdIn(eq(ids))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdiningcommonsmenuitem/bulk?ids=15,16,17")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).deleteRowsByIdIn(ids);
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findById(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 of 3 UCSBDiningCommonsMenuItem rows deleted", json.get("message"));
+                assertEquals(2, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_deleting_many_menuitems_that_do_not_exist_deletes_nothing() throws Exception {
+                // arrange
+
+                when(ucsbDiningCommonsMenuItemRepository.deleteRowsByIdIn(eq(Set.of(15L)))).thenReturn(0);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdiningcommonsmenuitem/bulk?ids=15")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).deleteRowsByIdIn(Set.of(15L));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 of 1 UCSBDiningCommonsMenuItem rows deleted", json.get("message"));
+                assertEquals(0, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_delete_more_than_MAX_BULK_IDS_menu_items_at_once() throws Exception {
+                // arrange
+
+                String[] ids = LongStream.rangeClosed(1, ApiController.MAX_BULK_IDS + 1)
+                                .mapToObj(i -> Long.toString(i))
+                                .toArray(String[]::new);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsbdiningcommonsmenuitem/bulk").param("ids", ids)
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemRepository, never()).deleteRowsByIdIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TooManyIdsException", json.get("type"));
+                assertEquals("1001 UCSBDiningCommonsMenuItem ids given, but at most 1000 can be handled at once", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_ucsbmenuitem_without_the_version_it_read() throws Exception {
+                // arrange
+
+                UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItemEdited = UCSBDiningCommonsMenuItem.builder()
+                                .diningCommonsCode("portola")
+                                .name("cookie")
+                                .station("desserts")
                                 .build();
 
+                String requestBody = mapper.writeValueAsString(ucsbDiningCommonsMenuItemEdited);
+
+                long tableVersion = tableVersionService.version(UCSBDiningCommonsMenuItem.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdiningcommonsmenuitem?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isPreconditionRequired()).andReturn();
+
+                // assert
+                verifyNoInteractions(ucsbDiningCommonsMenuItemRepository);
+                assertEquals(tableVersion, tableVersionService.version(UCSBDiningCommonsMenuItem.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionRequiredException", json.get("type"));
+                assertEquals("an update of UCSBDiningCommonsMenuItem with id 67 must include the version it is based on", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_ucsbmenuitem_at_the_version_it_read() throws Exception {
+                // arrange
+
                 UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItemEdited = UCSBDiningCommonsMenuItem.builder()
                                 .diningCommonsCode("portola")
                                 .name("cookie")
                                 .station("desserts")
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(ucsbDiningCommonsMenuItemEdited);
 
-                when(ucsbDiningCommonsMenuItemRepository.findById(eq(67L))).thenReturn(Optional.of(ucsbDiningCommonsMenuItemOriginal));
+                when(ucsbDiningCommonsMenuItemRepository.updateIfVersionMatches(67L, "portola", "cookie", "desserts", 3L)).thenReturn(1);
+                long tableVersion = tableVersionService.version(UCSBDiningCommonsMenuItem.class);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -264,26 +398,35 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(67L);
-                verify(ucsbDiningCommonsMenuItemRepository, times(1)).save(ucsbDiningCommonsMenuItemEdited); // should be saved with correct user
+                verify(ucsbDiningCommonsMenuItemRepository, never()).existsById(any());
+                assertEquals(tableVersion + 1, tableVersionService.version(UCSBDiningCommonsMenuItem.class));
+                UCSBDiningCommonsMenuItem expected = UCSBDiningCommonsMenuItem.builder()
+                                .id(67L)
+                                .diningCommonsCode("portola")
+                                .name("cookie")
+                                .station("desserts")
+                                .version(4L)
+                                .build();
                 String responseString = response.getResponse().getContentAsString();
-                assertEquals(requestBody, responseString);
+                assertEquals(mapper.writeValueAsString(expected), responseString);
         }
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_cannot_edit_ucsbdate_that_does_not_exist() throws Exception {
+        public void admin_cannot_edit_ucsbmenuitem_that_does_not_exist() throws Exception {
                 // arrange
 
-                UCSBDiningCommonsMenuItem ucsbEditedMenuItem = UCSBDiningCommonsMenuItem.builder()
-                                .diningCommonsCode("ortega")
-                                .name("salad")
-                                .station("entrees")
+                UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItemEdited = UCSBDiningCommonsMenuItem.builder()
+                                .diningCommonsCode("portola")
+                                .name("cookie")
+                                .station("desserts")
+                                .version(3L)
                                 .build();
 
-                String requestBody = mapper.writeValueAsString(ucsbEditedMenuItem);
+                String requestBody = mapper.writeValueAsString(ucsbDiningCommonsMenuItemEdited);
 
-                when(ucsbDiningCommonsMenuItemRepository.findById(eq(67L))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsMenuItemRepository.updateIfVersionMatches(67L, "portola", "cookie", "desserts", 3L)).thenReturn(0);
+                when(ucsbDiningCommonsMenuItemRepository.existsById(67L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -295,9 +438,490 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(67L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommonsMenuItem with id 67 not found", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_ucsbmenuitem_that_was_changed_after_it_was_read() throws Exception {
+                // arrange
+
+                UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItemEdited = UCSBDiningCommonsMenuItem.builder()
+                                .diningCommonsCode("portola")
+                                .name("cookie")
+                                .station("desserts")
+                                .version(3L)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(ucsbDiningCommonsMenuItemEdited);
+
+                when(ucsbDiningCommonsMenuItemRepository.updateIfVersionMatches(67L, "portola", "cookie", "desserts", 3L)).thenReturn(0);
+                when(ucsbDiningCommonsMenuItemRepository.existsById(67L)).thenReturn(true);
+                long tableVersion = tableVersionService.version(UCSBDiningCommonsMenuItem.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdiningcommonsmenuitem?id=67")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                assertEquals(tableVersion, tableVersionService.version(UCSBDiningCommonsMenuItem.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionConflictException", json.get("type"));
+                assertEquals("UCSBDiningCommonsMenuItem with id 67 has been changed since version 3", json.get("message"));
+        }
+
+        // Tests for GET /api/ucsbdiningcommonsmenuitem/page
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/page"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_full_page_with_link_to_next_page() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item3 = UCSBDiningCommonsMenuItem.builder()
+                                .id(3L)
+                                .diningCommonsCode("ortega")
+                                .name("salad")
+                                .station("entrees")
+                                .build();
+
+                UCSBDiningCommonsMenuItem item4 = UCSBDiningCommonsMenuItem.builder()
+                                .id(4L)
+                                .diningCommonsCode("dlg")
+                                .name("ice cream")
+                                .station("desserts")
+                                .build();
+
+                ArrayList<UCSBDiningCommonsMenuItem> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(item3, item4));
+
+                when(ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/page?after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("X-Next-Cursor", "4"))
+                                .andExpect(header().string("Link", "<http://localhost/api/ucsbdiningcommonsmenuitem/page?after=4&limit=2>; rel=\"next\""))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(2L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_last_page_without_link() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item3 = UCSBDiningCommonsMenuItem.builder()
+                                .id(3L)
+                                .diningCommonsCode("ortega")
+                                .name("salad")
+                                .station("entrees")
+                                .build();
+
+                UCSBDiningCommonsMenuItem item4 = UCSBDiningCommonsMenuItem.builder()
+                                .id(4L)
+                                .diningCommonsCode("dlg")
+                                .name("ice cream")
+                                .station("desserts")
+                                .build();
+
+                ArrayList<UCSBDiningCommonsMenuItem> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(item3));
+
+                when(ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/page"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(100)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_size_is_capped_at_the_maximum() throws Exception {
+
+                // arrange
+
+                when(ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/page?limit=5000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1000)));
+        }
+
+        // Tests for GET /api/ucsbdiningcommonsmenuitem/diningcommons, /station and /search
+
+        @Test
+        public void logged_out_users_cannot_get_menu_items_by_dining_commons() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/diningcommons?diningCommonsCode=ortega"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_menu_items_of_a_dining_commons() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item3 = UCSBDiningCommonsMenuItem.builder()
+                                .id(3L)
+                                .diningCommonsCode("ortega")
+                                .name("salad")
+                                .station("entrees")
+                                .build();
+
+                UCSBDiningCommonsMenuItem item5 = UCSBDiningCommonsMenuItem.builder()
+                                .id(5L)
+                                .diningCommonsCode("ortega")
+                                .name("cake")
+                                .station("desserts")
+                                .build();
+
+                List<UCSBDiningCommonsMenuItem> expectedPage = List.of(item3, item5);
+
+                when(ucsbDiningCommonsMenuItemRepository.findByDiningCommonsCodeAndIdGreaterThanOrderByIdAsc(eq("ortega"), eq(2L), eq(Limit.of(2)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/diningcommons?diningCommonsCode=ortega&after=2&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Link", "<http://localhost/api/ucsbdiningcommonsmenuitem/diningcommons?diningCommonsCode=ortega&after=5&limit=2>; rel=\"next\""))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByDiningCommonsCodeAndIdGreaterThanOrderByIdAsc(eq("ortega"), eq(2L), eq(Limit.of(2)));
+                assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_menu_items_of_one_station_of_a_dining_commons() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item3 = UCSBDiningCommonsMenuItem.builder()
+                                .id(3L)
+                                .diningCommonsCode("ortega")
+                                .name("salad")
+                                .station("entrees")
+                                .build();
+
+                List<UCSBDiningCommonsMenuItem> expectedPage = List.of(item3);
+
+                when(ucsbDiningCommonsMenuItemRepository.findByDiningCommonsCodeAndStationAndIdGreaterThanOrderByIdAsc(eq("ortega"), eq("entrees"), eq(0L), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/diningcommons?diningCommonsCode=ortega&station=entrees"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByDiningCommonsCodeAndStationAndIdGreaterThanOrderByIdAsc(eq("ortega"), eq("entrees"), eq(0L), eq(Limit.of(100)));
+                assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+        }
+
+        @Test
+        public void logged_out_users_cannot_get_menu_items_by_station() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/station?station=entrees"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_menu_items_of_a_station() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item3 = UCSBDiningCommonsMenuItem.builder()
+                                .id(3L)
+                                .diningCommonsCode("ortega")
+                                .name("salad")
+                                .station("entrees")
+                                .build();
+
+                UCSBDiningCommonsMenuItem item4 = UCSBDiningCommonsMenuItem.builder()
+                                .id(4L)
+                                .diningCommonsCode("dlg")
+                                .name("pasta")
+                                .station("entrees")
+                                .build();
+
+                List<UCSBDiningCommonsMenuItem> expectedPage = List.of(item3, item4);
+
+                when(ucsbDiningCommonsMenuItemRepository.findByStationAndIdGreaterThanOrderByIdAsc(eq("entrees"), eq(0L), eq(Limit.of(10)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/station?station=entrees&limit=10"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByStationAndIdGreaterThanOrderByIdAsc(eq("entrees"), eq(0L), eq(Limit.of(10)));
+                assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+        }
+
+        @Test
+        public void logged_out_users_cannot_search() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/search?name=sal"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void search_matches_names_containing_the_text_by_default() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item3 = UCSBDiningCommonsMenuItem.builder()
+                                .id(3L)
+                                .diningCommonsCode("ortega")
+                                .name("Caesar Salad")
+                                .station("entrees")
+                                .build();
+
+                List<UCSBDiningCommonsMenuItem> expectedPage = List.of(item3);
+
+                when(ucsbDiningCommonsMenuItemRepository.findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(eq("salad"), eq(0L), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/search?name=salad"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByNameContainingIgnoreCaseAndIdGreaterThanOrderByIdAsc(eq("salad"), eq(0L), eq(Limit.of(100)));
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findByNameStartingWithIgnoreCaseAndIdGreaterThanOrderByIdAsc(any(), any(Long.class), any());
+                assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void search_with_prefix_matches_names_starting_with_the_text() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item3 = UCSBDiningCommonsMenuItem.builder()
+                                .id(3L)
+                                .diningCommonsCode("ortega")
+                                .name("Salad Bar")
+                                .station("entrees")
+                                .build();
+
+                List<UCSBDiningCommonsMenuItem> expectedPage = List.of(item3);
+
+                when(ucsbDiningCommonsMenuItemRepository.findByNameStartingWithIgnoreCaseAndIdGreaterThanOrderByIdAsc(eq("salad"), eq(0L), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/search?name=salad&prefix=true"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByNameStartingWithIgnoreCaseAndIdGreaterThanOrderByIdAsc(eq("salad"), eq(0L), eq(Limit.of(100)));
+                assertEquals(mapper.writeValueAsString(expectedPage), response.getResponse().getContentAsString());
+        }
+
+        // Tests for GET /api/ucsbdiningcommonsmenuitem/export
+
+        @Test
+        public void logged_out_users_cannot_export() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/export"))
+                                .andExpect(status().is(403)); // logged out users can't export
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_export_all_menuitems_as_ndjson() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item1 = UCSBDiningCommonsMenuItem.builder()
+                                .id(1L)
+                                .diningCommonsCode("ortega")
+                                .name("salad")
+                                .station("entrees")
+                                .build();
+
+                UCSBDiningCommonsMenuItem item2 = UCSBDiningCommonsMenuItem.builder()
+                                .id(2L)
+                                .diningCommonsCode("dlg")
+                                .name("ice cream")
+                                .station("desserts")
+                                .build();
+
+                when(ucsbDiningCommonsMenuItemRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(item1, item2));
+                when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+                // act
+                MvcResult asyncResult = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/export"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).streamAllByOrderByIdAsc();
+                verify(entityManager, times(1)).detach(item1);
+                verify(entityManager, times(1)).detach(item2);
+                String expectedNdjson = mapper.writeValueAsString(item1) + "\n" + mapper.writeValueAsString(item2) + "\n";
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedNdjson, responseString);
+        }
+
+        // Tests for POST /api/ucsbdiningcommonsmenuitem/bulk
+
+        @Test
+        public void logged_out_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_menu_items_in_bulk() throws Exception {
+                // arrange
+
+                String ndjson = "{\"diningCommonsCode\":\"ortega\",\"name\":\"salad\",\"station\":\"entrees\"}\n"
+                                + "{\"diningCommonsCode\":\"ortega\",\"name\":\"\",\"station\":\"entrees\"}\n";
+
+                List<BulkItemResult> results = List.of(
+                                BulkItemResult.builder().index(0).status(BulkItemResult.CREATED).id(51L).build(),
+                                BulkItemResult.builder().index(1).status(BulkItemResult.INVALID)
+                                                .message("diningCommonsCode, name and station are required").build());
+
+                when(bulkInsertService.insert(any(), eq(UCSBDiningCommonsMenuItem.class), any(),
+                                eq(ucsbDiningCommonsMenuItemRepository), any())).thenAnswer(invocation -> {
+                                        InputStream body = invocation.getArgument(0);
+                                        assertEquals(ndjson, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                                        Function<UCSBDiningCommonsMenuItem, Object> idOf = invocation.getArgument(4);
+                                        assertEquals(51L, idOf.apply(UCSBDiningCommonsMenuItem.builder().id(51L).build()));
+                                        return results;
+                                });
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                                .contentType(MediaType.APPLICATION_NDJSON)
+                                                .content(ndjson)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(results);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @Test
+        public void prepareForBulkInsert_accepts_complete_items_and_clears_the_id_and_version() {
+                UCSBDiningCommonsMenuItem item = UCSBDiningCommonsMenuItem.builder()
+                                .id(99L).version(4L).diningCommonsCode("ortega").name("salad").station("entrees").build();
+
+                assertNull(new UCSBDiningCommonsMenuItemController().prepareForBulkInsert(item));
+                assertEquals(0L, item.getId());
+                assertNull(item.getVersion());
+        }
+
+        @Test
+        public void prepareForBulkInsert_rejects_incomplete_items() {
+                UCSBDiningCommonsMenuItemController controller = new UCSBDiningCommonsMenuItemController();
+                String required = "diningCommonsCode, name and station are required";
+
+                assertEquals("menu item is null", controller.prepareForBulkInsert(null));
+                assertEquals(required, controller.prepareForBulkInsert(
+                                UCSBDiningCommonsMenuItem.builder().name("salad").station("entrees").build()));
+                assertEquals(required, controller.prepareForBulkInsert(
+                                UCSBDiningCommonsMenuItem.builder().diningCommonsCode(" ").name("salad").station("entrees").build()));
+                assertEquals(required, controller.prepareForBulkInsert(
+                                UCSBDiningCommonsMenuItem.builder().diningCommonsCode("ortega").station("entrees").build()));
+                assertEquals(required, controller.prepareForBulkInsert(
+                                UCSBDiningCommonsMenuItem.builder().diningCommonsCode("ortega").name("salad").build()));
+        }
+
+        // Tests for conditional GETs (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_etag_and_cache_control() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBDiningCommonsMenuItem.class)))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_current_etag_returns_304_without_querying() throws Exception {
+                String etag = tableVersionService.etag(UCSBDiningCommonsMenuItem.class);
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_stale_etag_queries_again() throws Exception {
+                String staleEtag = tableVersionService.etag(UCSBDiningCommonsMenuItem.class);
+                tableVersionService.bump(UCSBDiningCommonsMenuItem.class);
+
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all").header("If-None-Match", staleEtag))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBDiningCommonsMenuItem.class)));
+
+                verify(ucsbDiningCommonsMenuItemRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_with_current_etag_returns_304_without_querying() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem?id=7").header("If-None-Match", tableVersionService.etag(UCSBDiningCommonsMenuItem.class)))
+                                .andExpect(status().isNotModified());
 
+                verify(ucsbDiningCommonsMenuItemRepository, never()).findById(7L);
         }
-}
\ No newline at end of file
+}
@@ -3,16 +3,22 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.services.ReferenceCacheService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import edu.ucsb.cs156.example.entities.UCSBOrganization;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationRepository;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
@@ -24,16 +30,20 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.time.LocalDateTime;
 
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBOrganizationController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, ReferenceCacheService.class })
 public class UCSBOrganizationControllerTests extends ControllerTestCase {
 
         @MockBean
@@ -42,6 +52,15 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @Autowired
+        TableVersionService tableVersionService;
+
+        @BeforeEach
+        public void startWithEmptyCaches() {
+                // cached rows and json snapshots are only used while the table version is unchanged
+                tableVersionService.bump(UCSBOrganization.class);
+        }
+
         // Tests for GET /api/ucsborganization/all
 
         @Test
@@ -137,6 +156,24 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                 assertEquals(expectedJson, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_cannot_post_an_organization_with_a_code_that_exists() throws Exception {
+                // arrange
+                when(ucsbOrganizationRepository.save(any())).thenThrow(new DataIntegrityViolationException("duplicate key MD"));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsborganization/post?orgCode=MD&orgTranslationShort=Mu_Delta&orgTranslation=Mu_Delta&inactive=true")
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("DataIntegrityViolationException", json.get("type"));
+                assertEquals("the change conflicts with existing data, e.g. a row with the same code already exists", json.get("message"));
+        }
+
         // Tests for GET /api/ucsborganization?...
 
         @Test
@@ -192,25 +229,52 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_can_edit_an_existing_commons() throws Exception {
+        public void admin_cannot_edit_organization_without_the_version_it_read() throws Exception {
                 // arrange
-                UCSBOrganization muDeltaOrig = UCSBOrganization.builder()
-                                .orgCode("MD")
-                                .orgTranslationShort("Mu_Delta")
-                                .orgTranslation("Mu_Delta")
-                                .inactive(true)
+
+                UCSBOrganization muDeltaEdit = UCSBOrganization.builder()
+                                .orgTranslationShort("Magnum_Dong")
+                                .orgTranslation("Magnum_Dong")
+                                .inactive(false)
                                 .build();
 
+                String requestBody = mapper.writeValueAsString(muDeltaEdit);
+
+                long tableVersion = tableVersionService.version(UCSBOrganization.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsborganization?orgCode=MD")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isPreconditionRequired()).andReturn();
+
+                // assert
+                verifyNoInteractions(ucsbOrganizationRepository);
+                assertEquals(tableVersion, tableVersionService.version(UCSBOrganization.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionRequiredException", json.get("type"));
+                assertEquals("an update of UCSBOrganization with id MD must include the version it is based on", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_edit_organization_at_the_version_it_read() throws Exception {
+                // arrange
+
                 UCSBOrganization muDeltaEdit = UCSBOrganization.builder()
-                                .orgCode("md")
                                 .orgTranslationShort("Magnum_Dong")
                                 .orgTranslation("Magnum_Dong")
                                 .inactive(false)
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(muDeltaEdit);
 
-                when(ucsbOrganizationRepository.findById(eq("MD"))).thenReturn(Optional.of(muDeltaOrig));
+                when(ucsbOrganizationRepository.updateIfVersionMatches("MD", "Magnum_Dong", "Magnum_Dong", false, 3L)).thenReturn(1);
+                long tableVersion = tableVersionService.version(UCSBOrganization.class);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -222,27 +286,35 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbOrganizationRepository, times(1)).findById("MD");
-                verify(ucsbOrganizationRepository, times(1)).save(muDeltaEdit); // should be saved with updated info
+                verify(ucsbOrganizationRepository, never()).existsById(any());
+                assertEquals(tableVersion + 1, tableVersionService.version(UCSBOrganization.class));
+                UCSBOrganization expected = UCSBOrganization.builder()
+                                .orgCode("MD")
+                                .orgTranslationShort("Magnum_Dong")
+                                .orgTranslation("Magnum_Dong")
+                                .inactive(false)
+                                .version(4L)
+                                .build();
                 String responseString = response.getResponse().getContentAsString();
-                assertEquals(requestBody, responseString);
+                assertEquals(mapper.writeValueAsString(expected), responseString);
         }
 
-
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
-        public void admin_cannot_edit_commons_that_does_not_exist() throws Exception {
+        public void admin_cannot_edit_organization_that_does_not_exist() throws Exception {
                 // arrange
+
                 UCSBOrganization muDeltaEdit = UCSBOrganization.builder()
-                                .orgCode("MD")
                                 .orgTranslationShort("Magnum_Dong")
                                 .orgTranslation("Magnum_Dong")
                                 .inactive(false)
+                                .version(3L)
                                 .build();
 
                 String requestBody = mapper.writeValueAsString(muDeltaEdit);
 
-                when(ucsbOrganizationRepository.findById(eq("MD"))).thenReturn(Optional.empty());
+                when(ucsbOrganizationRepository.updateIfVersionMatches("MD", "Magnum_Dong", "Magnum_Dong", false, 3L)).thenReturn(0);
+                when(ucsbOrganizationRepository.existsById("MD")).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -254,25 +326,52 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbOrganizationRepository, times(1)).findById("MD");
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBOrganization with id MD not found", json.get("message"));
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_organization_that_was_changed_after_it_was_read() throws Exception {
+                // arrange
+
+                UCSBOrganization muDeltaEdit = UCSBOrganization.builder()
+                                .orgTranslationShort("Magnum_Dong")
+                                .orgTranslation("Magnum_Dong")
+                                .inactive(false)
+                                .version(3L)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(muDeltaEdit);
+
+                when(ucsbOrganizationRepository.updateIfVersionMatches("MD", "Magnum_Dong", "Magnum_Dong", false, 3L)).thenReturn(0);
+                when(ucsbOrganizationRepository.existsById("MD")).thenReturn(true);
+                long tableVersion = tableVersionService.version(UCSBOrganization.class);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsborganization?orgCode=MD")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                assertEquals(tableVersion, tableVersionService.version(UCSBOrganization.class));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("VersionConflictException", json.get("type"));
+                assertEquals("UCSBOrganization with id MD has been changed since version 3", json.get("message"));
+        }
+
         // Tests for DELETE /api/ucsborganization?...
 
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_can_delete_a_date() throws Exception {
                 // arrange
-                UCSBOrganization muDelta = UCSBOrganization.builder()
-                                .orgCode("MD")
-                                .orgTranslationShort("Mu_Delta")
-                                .orgTranslation("Mu_Delta")
-                                .inactive(true)
-                                .build();
 
-                when(ucsbOrganizationRepository.findById(eq("MD"))).thenReturn(Optional.of(muDelta));
+                when(ucsbOrganizationRepository.deleteRowByOrgCode(eq("MD"))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -281,8 +380,9 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbOrganizationRepository, times(1)).findById("MD");
-                verify(ucsbOrganizationRepository, times(1)).delete(any());
+                verify(ucsbOrganizationRepository, times(1)).deleteRowByOrgCode("MD");
+                verify(ucsbOrganizationRepository, never()).findById(any());
+                verify(ucsbOrganizationRepository, never()).delete(any());
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBOrganization with id MD deleted", json.get("message"));
@@ -293,7 +393,8 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
         public void admin_tries_to_delete_non_existant_commons_and_gets_right_error_message()
                         throws Exception {
                 // arrange
-                when(ucsbOrganizationRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+
+                when(ucsbOrganizationRepository.deleteRowByOrgCode(eq("munger-hall"))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -302,8 +403,275 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbOrganizationRepository, times(1)).findById("munger-hall");
+                verify(ucsbOrganizationRepository, times(1)).deleteRowByOrgCode("munger-hall");
+                verify(ucsbOrganizationRepository, never()).findById(any());
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBOrganization with id munger-hall not found", json.get("message"));
         }
-}
\ No newline at end of file
+
+        // Tests for DELETE /api/ucsborganization/bulk
+
+        @Test
+        public void logged_out_users_cannot_delete_many_organizations() throws Exception {
+                mockMvc.perform(delete("/api/ucsborganization/bulk?orgCodes=MD").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void regular_users_cannot_delete_many_organizations() throws Exception {
+                mockMvc.perform(delete("/api/ucsborganization/bulk?orgCodes=MD").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_delete_many_organizations_in_one_statement() throws Exception {
+                // arrange
+
+                Set<String> orgCodes = Set.of("MD", "ZPR", "munger-hall");
+                when(ucsbOrganizationRepository.deleteRowsByOrgCodeIn(eq(orgCodes))).thenReturn(2);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsborganization/bulk?orgCodes=MD,ZPR,munger-hall")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbOrganizationRepository, times(1)).deleteRowsByOrgCodeIn(orgCodes);
+                verify(ucsbOrganizationRepository, never()).findById(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 of 3 UCSBOrganization rows deleted", json.get("message"));
+                assertEquals(2, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_deleting_many_organizations_that_do_not_exist_deletes_nothing() throws Exception {
+                // arrange
+
+                when(ucsbOrganizationRepository.deleteRowsByOrgCodeIn(eq(Set.of("munger-hall")))).thenReturn(0);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsborganization/bulk?orgCodes=munger-hall")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbOrganizationRepository, times(1)).deleteRowsByOrgCodeIn(Set.of("munger-hall"));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("0 of 1 UCSBOrganization rows deleted", json.get("message"));
+                assertEquals(0, json.get("deleted"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_delete_more_than_MAX_BULK_IDS_organizations_at_once() throws Exception {
+                // arrange
+
+                String[] orgCodes = LongStream.rangeClosed(1, ApiController.MAX_BULK_IDS + 1)
+                                .mapToObj(i -> "ORG" + i)
+                                .toArray(String[]::new);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                delete("/api/ucsborganization/bulk").param("orgCodes", orgCodes)
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(ucsbOrganizationRepository, never()).deleteRowsByOrgCodeIn(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("TooManyIdsException", json.get("type"));
+                assertEquals("1001 UCSBOrganization ids given, but at most 1000 can be handled at once", json.get("message"));
+        }
+
+        // Tests for GET /api/ucsborganization/page
+
+        @Test
+        public void logged_out_users_cannot_get_page() throws Exception {
+                mockMvc.perform(get("/api/ucsborganization/page"))
+                                .andExpect(status().is(403)); // logged out users can't get a page
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_full_page_with_link_to_next_page() throws Exception {
+
+                // arrange
+                UCSBOrganization osli = UCSBOrganization.builder()
+                                .orgCode("OSLI")
+                                .orgTranslationShort("STUDENT LIFE")
+                                .orgTranslation("OFFICE OF STUDENT LIFE")
+                                .inactive(false)
+                                .build();
+
+                UCSBOrganization zpr = UCSBOrganization.builder()
+                                .orgCode("ZPR")
+                                .orgTranslationShort("ZETA PHI RHO")
+                                .orgTranslation("ZETA PHI RHO")
+                                .inactive(false)
+                                .build();
+
+                ArrayList<UCSBOrganization> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(osli, zpr));
+
+                when(ucsbOrganizationRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq("KRC"), eq(Limit.of(2)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsborganization/page?after=KRC&limit=2"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("X-Next-Cursor", "ZPR"))
+                                .andExpect(header().string("Link", "<http://localhost/api/ucsborganization/page?after=ZPR&limit=2>; rel=\"next\""))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbOrganizationRepository, times(1)).findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq("KRC"), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_last_page_without_link() throws Exception {
+
+                // arrange
+                UCSBOrganization osli = UCSBOrganization.builder()
+                                .orgCode("OSLI")
+                                .orgTranslationShort("STUDENT LIFE")
+                                .orgTranslation("OFFICE OF STUDENT LIFE")
+                                .inactive(false)
+                                .build();
+
+                UCSBOrganization zpr = UCSBOrganization.builder()
+                                .orgCode("ZPR")
+                                .orgTranslationShort("ZETA PHI RHO")
+                                .orgTranslation("ZETA PHI RHO")
+                                .inactive(false)
+                                .build();
+
+                ArrayList<UCSBOrganization> expectedPage = new ArrayList<>();
+                expectedPage.addAll(Arrays.asList(osli));
+
+                when(ucsbOrganizationRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq(""), eq(Limit.of(100)))).thenReturn(expectedPage);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsborganization/page"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                                .andExpect(header().doesNotExist("Link"))
+                                .andReturn();
+
+                // assert
+
+                verify(ucsbOrganizationRepository, times(1)).findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq(""), eq(Limit.of(100)));
+                String expectedJson = mapper.writeValueAsString(expectedPage);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_size_is_capped_at_the_maximum() throws Exception {
+
+                // arrange
+
+                when(ucsbOrganizationRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq(""), eq(Limit.of(1000)))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/ucsborganization/page?limit=5000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(ucsbOrganizationRepository, times(1)).findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq(""), eq(Limit.of(1000)));
+        }
+
+        // Tests for conditional GETs (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_etag_and_cache_control() throws Exception {
+                mockMvc.perform(get("/api/ucsborganization/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBOrganization.class)))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_current_etag_returns_304_without_querying() throws Exception {
+                String etag = tableVersionService.etag(UCSBOrganization.class);
+
+                MvcResult response = mockMvc.perform(get("/api/ucsborganization/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+
+                verify(ucsbOrganizationRepository, never()).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_with_stale_etag_queries_again() throws Exception {
+                String staleEtag = tableVersionService.etag(UCSBOrganization.class);
+                tableVersionService.bump(UCSBOrganization.class);
+
+                mockMvc.perform(get("/api/ucsborganization/all").header("If-None-Match", staleEtag))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("ETag", tableVersionService.etag(UCSBOrganization.class)));
+
+                verify(ucsbOrganizationRepository, times(1)).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_with_current_etag_returns_304_without_querying() throws Exception {
+                mockMvc.perform(get("/api/ucsborganization?orgCode=MD").header("If-None-Match", tableVersionService.etag(UCSBOrganization.class)))
+                                .andExpect(status().isNotModified());
+
+                verify(ucsbOrganizationRepository, never()).findById("MD");
+        }
+
+        // Tests for the reference data cache
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_is_served_from_the_cache_after_the_first_request() throws Exception {
+                // arrange
+                UCSBOrganization row = UCSBOrganization.builder().orgCode("MD").orgTranslationShort("Mu Delta").build();
+                when(ucsbOrganizationRepository.findById(eq("MD"))).thenReturn(Optional.of(row));
+
+                // act
+                mockMvc.perform(get("/api/ucsborganization?orgCode=MD")).andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/ucsborganization?orgCode=MD"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbOrganizationRepository, times(1)).findById(eq("MD"));
+                assertEquals(mapper.writeValueAsString(row), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void post_invalidates_the_cache() throws Exception {
+                // arrange
+                when(ucsbOrganizationRepository.findAll()).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/ucsborganization/all")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsborganization/all")).andExpect(status().isOk());
+                mockMvc.perform(post("/api/ucsborganization/post?orgCode=MD&orgTranslationShort=Mu_Delta&orgTranslation=Mu_Delta&inactive=true").with(csrf()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsborganization/all")).andExpect(status().isOk());
+
+                // assert
+                verify(ucsbOrganizationRepository, times(2)).findAll();
+        }
+}
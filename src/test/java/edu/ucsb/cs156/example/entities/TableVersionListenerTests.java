@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.entities;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import edu.ucsb.cs156.example.services.TableVersionService;
+
+@ExtendWith(MockitoExtension.class)
+class TableVersionListenerTests {
+
+  @Mock
+  TableVersionService tableVersionService;
+
+  @InjectMocks
+  TableVersionListener listener;
+
+  @Test
+  void changed_bumps_the_table_of_the_entity_after_commit() {
+    listener.changed(Restaurant.builder().id(1L).name("Freebirds").build());
+    verify(tableVersionService, times(1)).bumpAfterCommit(Restaurant.class);
+  }
+}
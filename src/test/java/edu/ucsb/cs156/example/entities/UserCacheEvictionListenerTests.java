@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.example.entities;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.example.services.UserCacheService;
+
+@ExtendWith(MockitoExtension.class)
+class UserCacheEvictionListenerTests {
+
+  @Mock
+  UserCacheService userCacheService;
+
+  @InjectMocks
+  UserCacheEvictionListener listener;
+
+  @Test
+  void evict_invalidates_cached_user() {
+    listener.evict(User.builder().email("cgaucho@ucsb.edu").build());
+    verify(userCacheService, times(1)).invalidate("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void evict_in_a_transaction_invalidates_again_after_commit() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      listener.evict(User.builder().email("cgaucho@ucsb.edu").build());
+      verify(userCacheService, times(1)).invalidate("cgaucho@ucsb.edu");
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      verify(userCacheService, times(2)).invalidate("cgaucho@ucsb.edu");
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.errors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+
+class EntityNotFoundExceptionTests {
+
+  @Test
+  void message_names_the_entity_and_the_id() {
+    EntityNotFoundException e = new EntityNotFoundException(Restaurant.class, 7L);
+    assertEquals("Restaurant with id 7 not found", e.getMessage());
+    assertSame(e.getMessage(), e.getMessage());
+    assertEquals(Restaurant.class, e.getEntityType());
+    assertEquals(7L, e.getId());
+  }
+
+  @Test
+  void has_no_stack_trace() {
+    EntityNotFoundException e = new EntityNotFoundException(Restaurant.class, 7L);
+    assertEquals(0, e.getStackTrace().length);
+    e.addSuppressed(new IllegalStateException());
+    assertEquals(0, e.getSuppressed().length);
+  }
+}
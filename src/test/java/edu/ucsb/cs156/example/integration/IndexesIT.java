@@ -0,0 +1,114 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Checks that the lookup queries used by the repositories are answered from the
+ * indexes created by the Liquibase changesets, by asking H2 for their query plans.
+ * Where H2's plan for an empty table doesn't tell two candidate indexes apart, the
+ * columns of the index are checked instead.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+public class IndexesIT {
+
+        @Autowired
+        JdbcTemplate jdbcTemplate;
+
+        private String explain(String sql) {
+                return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        }
+
+        private void assertUsesIndex(String index, String sql) {
+                String plan = explain(sql);
+                assertTrue(plan.contains(index + ":"), "expected plan to use " + index + " but was: " + plan);
+        }
+
+        private void assertIndexColumns(String index, String... columns) {
+                List<String> actual = jdbcTemplate.queryForList(
+                                "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS WHERE INDEX_NAME = ? ORDER BY ORDINAL_POSITION",
+                                String.class, index);
+                assertEquals(List.of(columns), actual);
+        }
+
+        @Test
+        public void findByEmail_uses_users_email_index() {
+                assertUsesIndex("IDX_USERS_EMAIL",
+                                "SELECT * FROM USERS WHERE EMAIL = 'cgaucho@ucsb.edu'");
+        }
+
+        @Test
+        public void findAllByQuarterYYYYQ_uses_ucsbdates_quarter_index() {
+                assertUsesIndex("IDX_UCSBDATES_QUARTERYYYYQ_LOCAL_DATE_TIME",
+                                "SELECT * FROM UCSBDATES WHERE QUARTERYYYYQ = '20224'");
+        }
+
+        @Test
+        public void dates_of_a_quarter_in_a_range_use_ucsbdates_quarter_index() {
+                assertUsesIndex("IDX_UCSBDATES_QUARTERYYYYQ_LOCAL_DATE_TIME",
+                                "SELECT * FROM UCSBDATES WHERE QUARTERYYYYQ = '20224'"
+                                + " AND LOCAL_DATE_TIME BETWEEN TIMESTAMP '2022-09-01 00:00:00' AND TIMESTAMP '2022-10-01 00:00:00'"
+                                + " ORDER BY LOCAL_DATE_TIME");
+        }
+
+        @Test
+        public void dates_in_a_range_use_ucsbdates_local_date_time_index() {
+                assertUsesIndex("IDX_UCSBDATES_LOCAL_DATE_TIME",
+                                "SELECT * FROM UCSBDATES WHERE LOCAL_DATE_TIME BETWEEN TIMESTAMP '2022-09-01 00:00:00' AND TIMESTAMP '2022-10-01 00:00:00'"
+                                + " ORDER BY LOCAL_DATE_TIME");
+        }
+
+        @Test
+        public void menu_items_by_dining_commons_use_dining_commons_code_index() {
+                assertUsesIndex("IDX_UCSBDININGCOMMONSMENUITEM_DINING_COMMONS_CODE_ID",
+                                "SELECT * FROM UCSBDININGCOMMONSMENUITEM WHERE DINING_COMMONS_CODE = 'ortega'");
+        }
+
+        @Test
+        public void menu_items_by_dining_commons_after_an_id_use_dining_commons_code_id_index() {
+                assertUsesIndex("IDX_UCSBDININGCOMMONSMENUITEM_DINING_COMMONS_CODE_ID",
+                                "SELECT * FROM UCSBDININGCOMMONSMENUITEM WHERE DINING_COMMONS_CODE = 'ortega' AND ID > 0 ORDER BY ID LIMIT 100");
+                assertIndexColumns("IDX_UCSBDININGCOMMONSMENUITEM_DINING_COMMONS_CODE_ID", "DINING_COMMONS_CODE", "ID");
+        }
+
+        @Test
+        public void menu_items_by_dining_commons_and_station_have_dining_commons_code_station_id_index() {
+                assertUsesIndex("IDX_UCSBDININGCOMMONSMENUITEM_DINING_COMMONS_CODE_STATION_ID",
+                                "SELECT * FROM UCSBDININGCOMMONSMENUITEM WHERE DINING_COMMONS_CODE = 'ortega' AND STATION = 'Entrees'");
+                assertIndexColumns("IDX_UCSBDININGCOMMONSMENUITEM_DINING_COMMONS_CODE_STATION_ID",
+                                "DINING_COMMONS_CODE", "STATION", "ID");
+        }
+
+        @Test
+        public void single_column_dining_commons_code_index_is_dropped() {
+                assertIndexColumns("IDX_UCSBDININGCOMMONSMENUITEM_DINING_COMMONS_CODE");
+        }
+
+        @Test
+        public void menu_items_by_station_use_station_index() {
+                assertUsesIndex("IDX_UCSBDININGCOMMONSMENUITEM_STATION",
+                                "SELECT * FROM UCSBDININGCOMMONSMENUITEM WHERE STATION = 'Entrees' AND ID > 0 ORDER BY ID LIMIT 100");
+        }
+
+        @Test
+        public void articles_by_date_added_use_date_added_index() {
+                assertUsesIndex("IDX_ARTICLES_DATE_ADDED",
+                                "SELECT * FROM ARTICLES WHERE DATE_ADDED >= TIMESTAMP '2024-01-01 00:00:00'");
+        }
+}
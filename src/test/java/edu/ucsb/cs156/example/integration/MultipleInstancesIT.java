@@ -0,0 +1,132 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Runs two instances of the application on one database, each with its own
+ * second-level cache, and checks that a row changed through one instance is not
+ * served from the other's cache under the new ETag.
+ */
+public class MultipleInstancesIT {
+
+        static ConfigurableApplicationContext first;
+        static ConfigurableApplicationContext second;
+        static MockMvc secondMockMvc;
+        static ObjectMapper mapper;
+
+        RequestPostProcessor cgaucho = user("cgaucho@ucsb.edu").roles("USER");
+
+        @BeforeAll
+        static void startBothInstances() {
+                String database = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+                first = start(database);
+                second = start(database);
+                secondMockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) second)
+                                .apply(springSecurity())
+                                .build();
+                mapper = second.getBean(ObjectMapper.class);
+        }
+
+        private static ConfigurableApplicationContext start(String database) {
+                return new SpringApplicationBuilder(ExampleApplication.class)
+                                .profiles("integration")
+                                .properties(
+                                                "server.port=0",
+                                                "spring.datasource.url=" + database,
+                                                "app.table-versions.max-staleness=PT0S")
+                                .run();
+        }
+
+        @AfterAll
+        static void stopBothInstances() {
+                if (second != null) {
+                        second.close();
+                }
+                if (first != null) {
+                        first.close();
+                }
+        }
+
+        private MvcResult getFromSecond(long id, String ifNoneMatch) throws Exception {
+                var request = get("/api/restaurants?id=" + id).with(cgaucho);
+                if (ifNoneMatch != null) {
+                        request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                }
+                return secondMockMvc.perform(request).andExpect(status().isOk()).andReturn();
+        }
+
+        private Restaurant cachedBySecond(long id) throws Exception {
+                MvcResult response = getFromSecond(id, null);
+                assertTrue(second.getBean(EntityManagerFactory.class).getCache().contains(Restaurant.class, id));
+                return mapper.readValue(response.getResponse().getContentAsString(), Restaurant.class);
+        }
+
+        @Test
+        public void a_single_statement_update_through_one_instance_is_seen_by_the_other() throws Exception {
+                // arrange
+                RestaurantRepository restaurantRepository = first.getBean(RestaurantRepository.class);
+                Restaurant restaurant = restaurantRepository.save(
+                                Restaurant.builder().name("Freebirds").description("Burritos").build());
+                Restaurant before = cachedBySecond(restaurant.getId());
+                String etagBefore = getFromSecond(restaurant.getId(), null).getResponse().getHeader(HttpHeaders.ETAG);
+
+                // act
+                first.getBean(TableVersionService.class).change(Restaurant.class, () -> restaurantRepository
+                                .updateIfVersionMatches(restaurant.getId(), "Freebirds", "Big burritos", before.getVersion()));
+
+                // assert
+                MvcResult response = getFromSecond(restaurant.getId(), etagBefore);
+                assertNotEquals(etagBefore, response.getResponse().getHeader(HttpHeaders.ETAG));
+                Restaurant after = mapper.readValue(response.getResponse().getContentAsString(), Restaurant.class);
+                assertEquals("Big burritos", after.getDescription());
+                assertEquals(before.getVersion() + 1, after.getVersion().longValue());
+        }
+
+        @Test
+        public void a_save_through_one_instance_is_seen_by_the_other() throws Exception {
+                // arrange
+                RestaurantRepository restaurantRepository = first.getBean(RestaurantRepository.class);
+                Restaurant restaurant = restaurantRepository.save(
+                                Restaurant.builder().name("Habit").description("Burgers").build());
+                cachedBySecond(restaurant.getId());
+                String etagBefore = getFromSecond(restaurant.getId(), null).getResponse().getHeader(HttpHeaders.ETAG);
+
+                // act
+                restaurant.setDescription("Charburgers");
+                restaurantRepository.save(restaurant);
+
+                // assert
+                MvcResult response = getFromSecond(restaurant.getId(), etagBefore);
+                assertNotEquals(etagBefore, response.getResponse().getHeader(HttpHeaders.ETAG));
+                Restaurant after = mapper.readValue(response.getResponse().getContentAsString(), Restaurant.class);
+                assertEquals("Charburgers", after.getDescription());
+        }
+}
@@ -0,0 +1,75 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Checks that frontend assets are served from the .br/.gz copies written by
+ * frontend/scripts/precompress.js when the browser accepts them.  The asset used
+ * here, under src/test/resources/static-assets, was compressed with that script.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = "app.static-assets.location=classpath*:static-assets/")
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+public class PrecompressedAssetsIT {
+
+        private static final String ASSET = "/static/js/main.test.js";
+
+        @Autowired
+        MockMvc mockMvc;
+
+        private byte[] bytesOf(String path) throws Exception {
+                return new ClassPathResource("static-assets" + path).getContentAsByteArray();
+        }
+
+        @Test
+        public void brotli_copy_is_served_when_the_browser_accepts_br() throws Exception {
+                MvcResult response = mockMvc.perform(get(ASSET).header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"))
+                                .andExpect(header().string(HttpHeaders.VARY, "Accept-Encoding"))
+                                .andReturn();
+
+                assertArrayEquals(bytesOf(ASSET + ".br"), response.getResponse().getContentAsByteArray());
+        }
+
+        @Test
+        public void gzip_copy_is_served_when_the_browser_only_accepts_gzip() throws Exception {
+                MvcResult response = mockMvc.perform(get(ASSET).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                .andReturn();
+
+                assertArrayEquals(bytesOf(ASSET + ".gz"), response.getResponse().getContentAsByteArray());
+        }
+
+        @Test
+        public void original_is_served_when_the_browser_does_not_accept_compression() throws Exception {
+                MvcResult response = mockMvc.perform(get(ASSET))
+                                .andExpect(status().isOk())
+                                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                                .andReturn();
+
+                assertArrayEquals(bytesOf(ASSET), response.getResponse().getContentAsByteArray());
+        }
+}
@@ -2,6 +2,8 @@ package edu.ucsb.cs156.example.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.Map;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
@@ -86,6 +89,7 @@ public class RestaurantIT {
                                 .id(1L)
                                 .name("Chipotle")
                                 .description("Mexican")
+                                .version(0L)
                                 .build();
 
                 // act
@@ -99,4 +103,104 @@ public class RestaurantIT {
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
         }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_cannot_overwrite_a_restaurant_changed_since_it_was_read() throws Exception {
+                // arrange
+
+                Restaurant restaurant = restaurantRepository.save(Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build());
+                String url = "/api/restaurants?id=" + restaurant.getId();
+
+                Restaurant firstEdit = Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Burritos")
+                                .version(0L)
+                                .build();
+                mockMvc.perform(put(url)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(firstEdit))
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                Restaurant secondEdit = Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Tacos")
+                                .version(0L)
+                                .build();
+
+                // act
+                mockMvc.perform(put(url)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(secondEdit))
+                                .with(csrf()))
+                                .andExpect(status().isConflict());
+
+                // assert
+                Restaurant stored = restaurantRepository.findById(restaurant.getId()).get();
+                assertEquals("Burritos", stored.getDescription());
+                assertEquals(1L, stored.getVersion().longValue());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_cannot_edit_a_restaurant_without_the_version_it_read() throws Exception {
+                // arrange
+
+                Restaurant restaurant = restaurantRepository.save(Restaurant.builder()
+                                .name("Panda Express")
+                                .description("Chinese")
+                                .build());
+
+                Restaurant edit = Restaurant.builder()
+                                .name("Panda Express")
+                                .description("Orange chicken")
+                                .build();
+
+                // act
+                mockMvc.perform(put("/api/restaurants?id=" + restaurant.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(edit))
+                                .with(csrf()))
+                                .andExpect(status().isPreconditionRequired());
+
+                // assert
+                Restaurant stored = restaurantRepository.findById(restaurant.getId()).get();
+                assertEquals("Chinese", stored.getDescription());
+                assertEquals(0L, stored.getVersion().longValue());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_delete_many_restaurants_at_once() throws Exception {
+                // arrange
+
+                Restaurant chipotle = restaurantRepository.save(Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build());
+                Restaurant freebirds = restaurantRepository.save(Restaurant.builder()
+                                .name("Freebirds")
+                                .description("Burritos")
+                                .build());
+                Restaurant tacoBell = restaurantRepository.save(Restaurant.builder()
+                                .name("Taco Bell")
+                                .description("Mexican")
+                                .build());
+                String ids = "%d,%d,12345".formatted(chipotle.getId(), freebirds.getId());
+
+                // act
+                MvcResult response = mockMvc.perform(delete("/api/restaurants/bulk?ids=" + ids).with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                Map<?, ?> json = mapper.readValue(response.getResponse().getContentAsString(), Map.class);
+                assertEquals("2 of 3 Restaurant rows deleted", json.get("message"));
+                assertEquals(false, restaurantRepository.existsById(chipotle.getId()));
+                assertEquals(false, restaurantRepository.existsById(freebirds.getId()));
+                assertEquals(true, restaurantRepository.existsById(tacoBell.getId()));
+        }
 }
@@ -0,0 +1,100 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Checks that entities are served from Hibernate's second-level cache once
+ * loaded, and that updates are seen.  Query results are not cached, since only
+ * changes made through this instance would invalidate them.  Users are only
+ * cached by the UserCacheService, not by Hibernate.  MultipleInstancesIT checks
+ * that changes made through another instance are seen.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+public class SecondLevelCacheIT {
+
+        @Autowired
+        RestaurantRepository restaurantRepository;
+
+        @Autowired
+        UCSBDateRepository ucsbDateRepository;
+
+        @Autowired
+        UserRepository userRepository;
+
+        @Autowired
+        EntityManagerFactory entityManagerFactory;
+
+        private Statistics statistics() {
+                return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        @Test
+        public void findById_is_answered_from_the_cache_and_sees_updates() {
+                Restaurant restaurant = restaurantRepository.save(
+                                Restaurant.builder().name("Freebirds").description("Burritos").build());
+                long hitsBefore = statistics().getCacheRegionStatistics("restaurants").getHitCount();
+
+                restaurantRepository.findById(restaurant.getId());
+                restaurantRepository.findById(restaurant.getId());
+
+                assertEquals(hitsBefore + 2, statistics().getCacheRegionStatistics("restaurants").getHitCount());
+
+                restaurant.setDescription("Big burritos");
+                restaurantRepository.save(restaurant);
+
+                assertEquals("Big burritos", restaurantRepository.findById(restaurant.getId()).get().getDescription());
+        }
+
+        @Test
+        public void dates_of_a_quarter_are_read_from_the_database_every_time() {
+                ucsbDateRepository.save(UCSBDate.builder().quarterYYYYQ("20991").name("cache-test")
+                                .localDateTime(LocalDateTime.parse("2099-01-01T00:00:00")).build());
+                long queriesBefore = statistics().getQueryExecutionCount();
+
+                ucsbDateRepository.findAllByQuarterYYYYQOrderByLocalDateTimeAsc("20991");
+                List<UCSBDate> dates = ucsbDateRepository.findAllByQuarterYYYYQOrderByLocalDateTimeAsc("20991");
+
+                assertEquals("cache-test", dates.get(0).getName());
+                assertEquals(queriesBefore + 2, statistics().getQueryExecutionCount());
+                assertEquals(0, statistics().getQueryCachePutCount());
+        }
+
+        @Test
+        public void users_are_not_in_the_second_level_cache() {
+                userRepository.save(User.builder().email("cache-test@ucsb.edu").build());
+                long queryHitsBefore = statistics().getQueryCacheHitCount();
+
+                userRepository.findByEmail("cache-test@ucsb.edu");
+                userRepository.findByEmail("cache-test@ucsb.edu");
+
+                assertEquals(queryHitsBefore, statistics().getQueryCacheHitCount());
+                assertFalse(Arrays.asList(statistics().getSecondLevelCacheRegionNames()).contains("users"));
+        }
+}
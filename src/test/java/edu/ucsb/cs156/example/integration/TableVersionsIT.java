@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Checks that single-statement changes and the bump of their table's row in
+ * TABLE_VERSIONS commit, or roll back, together.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+public class TableVersionsIT {
+
+        @Autowired
+        RestaurantRepository restaurantRepository;
+
+        // TestConfig adds an in-memory TableVersionService; this is the one backed by TABLE_VERSIONS
+        @Autowired
+        @Qualifier("tableVersions")
+        TableVersionService tableVersionService;
+
+        @Autowired
+        JdbcTemplate jdbcTemplate;
+
+        private long storedVersion() {
+                return jdbcTemplate.queryForObject(
+                                "SELECT VERSION FROM TABLE_VERSIONS WHERE TABLE_NAME = 'RESTAURANTS'", Long.class);
+        }
+
+        @Test
+        public void change_bumps_the_stored_version_with_the_change() {
+                Restaurant restaurant = restaurantRepository.save(
+                                Restaurant.builder().name("Freebirds").description("Burritos").build());
+                long before = storedVersion();
+
+                int changed = tableVersionService.change(Restaurant.class, () -> restaurantRepository
+                                .updateIfVersionMatches(restaurant.getId(), "Freebirds", "Big burritos", restaurant.getVersion()));
+
+                assertEquals(1, changed);
+                assertEquals(before + 1, storedVersion());
+                assertEquals("Big burritos", restaurantRepository.findById(restaurant.getId()).get().getDescription());
+        }
+
+        @Test
+        public void change_that_fails_rolls_back_the_change_and_the_bump() {
+                Restaurant restaurant = restaurantRepository.save(
+                                Restaurant.builder().name("Freebirds").description("Burritos").build());
+                long before = storedVersion();
+
+                assertThrows(IllegalStateException.class, () -> tableVersionService.change(Restaurant.class, () -> {
+                        restaurantRepository.updateIfVersionMatches(restaurant.getId(), "Freebirds", "Big burritos",
+                                        restaurant.getVersion());
+                        tableVersionService.bumpAfterCommit(Restaurant.class);
+                        throw new IllegalStateException("the process died");
+                }));
+
+                assertEquals(before, storedVersion());
+                assertEquals("Burritos", restaurantRepository.findById(restaurant.getId()).get().getDescription());
+        }
+}
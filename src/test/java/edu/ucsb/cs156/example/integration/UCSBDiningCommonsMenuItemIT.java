@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.BulkItemResult;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class UCSBDiningCommonsMenuItemIT {
+        @Autowired
+        UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
+
+        @Autowired
+        public MockMvc mockMvc;
+
+        @Autowired
+        public ObjectMapper mapper;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_menu_items_in_bulk() throws Exception {
+                // arrange
+
+                ucsbDiningCommonsMenuItemRepository.save(UCSBDiningCommonsMenuItem.builder()
+                                .diningCommonsCode("ortega").name("soup").station("entrees").build());
+
+                StringBuilder ndjson = new StringBuilder();
+                for (int i = 0; i < 120; i++) {
+                        ndjson.append("{\"diningCommonsCode\":\"dlg\",\"name\":\"item %d\",\"station\":\"grill\"}\n".formatted(i));
+                }
+                ndjson.append("{\"diningCommonsCode\":\"dlg\",\"station\":\"grill\"}\n");
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                                .contentType(MediaType.APPLICATION_NDJSON)
+                                                .content(ndjson.toString())
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                List<BulkItemResult> results = mapper.readValue(response.getResponse().getContentAsString(),
+                                new TypeReference<List<BulkItemResult>>() {});
+                assertEquals(121, results.size());
+                assertEquals(120, results.stream().filter(r -> BulkItemResult.CREATED.equals(r.getStatus())).count());
+                assertEquals(BulkItemResult.INVALID, results.get(120).getStatus());
+                assertEquals(121, ucsbDiningCommonsMenuItemRepository.count());
+                assertEquals(120, results.stream().limit(120).map(BulkItemResult::getId).distinct().count());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void menu_items_posted_in_bulk_with_an_id_and_version_are_inserted_as_new_rows() throws Exception {
+                // arrange
+
+                UCSBDiningCommonsMenuItem existing = ucsbDiningCommonsMenuItemRepository.save(UCSBDiningCommonsMenuItem.builder()
+                                .diningCommonsCode("ortega").name("soup").station("entrees").build());
+
+                String ndjson = """
+                                {"id":%d,"version":0,"diningCommonsCode":"dlg","name":"copied soup","station":"grill"}
+                                {"id":999,"version":7,"diningCommonsCode":"dlg","name":"tacos","station":"grill"}
+                                """.formatted(existing.getId());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                                .contentType(MediaType.APPLICATION_NDJSON)
+                                                .content(ndjson)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                List<BulkItemResult> results = mapper.readValue(response.getResponse().getContentAsString(),
+                                new TypeReference<List<BulkItemResult>>() {});
+                assertEquals(2, results.size());
+                assertEquals(2, results.stream().filter(r -> BulkItemResult.CREATED.equals(r.getStatus())).count());
+                assertEquals(3, ucsbDiningCommonsMenuItemRepository.count());
+                assertEquals("soup", ucsbDiningCommonsMenuItemRepository.findById(existing.getId()).get().getName());
+        }
+}
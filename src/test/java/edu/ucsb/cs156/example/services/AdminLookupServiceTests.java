@@ -0,0 +1,75 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+class AdminLookupServiceTests {
+
+  UserRepository userRepository = mock(UserRepository.class);
+
+  AdminLookupService adminLookupService = new AdminLookupService(List.of("admingaucho@ucsb.edu"));
+
+  @BeforeEach
+  void setup() {
+    adminLookupService.userRepository = userRepository;
+    adminLookupService.userCacheService = new UserCacheService(10, Duration.ofMinutes(5));
+  }
+
+  @Test
+  void configured_admin_does_not_query_the_database() {
+    assertTrue(adminLookupService.isConfiguredAdmin("admingaucho@ucsb.edu"));
+    assertTrue(adminLookupService.isAdmin("admingaucho@ucsb.edu"));
+    verify(userRepository, never()).findByEmail("admingaucho@ucsb.edu");
+  }
+
+  @Test
+  void admin_flag_is_read_from_the_database_once() {
+    User u = User.builder().email("cgaucho@ucsb.edu").admin(true).build();
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(u));
+
+    assertFalse(adminLookupService.isConfiguredAdmin("cgaucho@ucsb.edu"));
+    assertTrue(adminLookupService.isAdmin("cgaucho@ucsb.edu"));
+    assertSame(u, adminLookupService.findUser("cgaucho@ucsb.edu"));
+
+    verify(userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void non_admin_and_unknown_users() {
+    User u = User.builder().email("ldelplaya@ucsb.edu").admin(false).build();
+    when(userRepository.findByEmail("ldelplaya@ucsb.edu")).thenReturn(Optional.of(u));
+    when(userRepository.findByEmail("nobody@ucsb.edu")).thenReturn(Optional.empty());
+
+    assertFalse(adminLookupService.isAdmin("ldelplaya@ucsb.edu"));
+    assertFalse(adminLookupService.isAdmin("nobody@ucsb.edu"));
+    assertNull(adminLookupService.findUser("nobody@ucsb.edu"));
+  }
+
+  @Test
+  void invalidate_forces_a_fresh_lookup() {
+    User before = User.builder().email("cgaucho@ucsb.edu").admin(false).build();
+    User after = User.builder().email("cgaucho@ucsb.edu").admin(true).build();
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(before), Optional.of(after));
+
+    assertFalse(adminLookupService.isAdmin("cgaucho@ucsb.edu"));
+    adminLookupService.invalidate("cgaucho@ucsb.edu");
+    assertTrue(adminLookupService.isAdmin("cgaucho@ucsb.edu"));
+  }
+}
@@ -0,0 +1,143 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.BulkItemResult;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BulkInsertServiceTests {
+
+  @Mock
+  PlatformTransactionManager transactionManager;
+
+  @Mock
+  UCSBDiningCommonsMenuItemRepository repository;
+
+  @Spy
+  ObjectMapper mapper = new ObjectMapper();
+
+  @InjectMocks
+  BulkInsertService bulkInsertService;
+
+  AtomicLong nextId = new AtomicLong(1);
+
+  @BeforeEach
+  void setup() {
+    ReflectionTestUtils.setField(bulkInsertService, "chunkSize", 2);
+  }
+
+  private void saveAllAssignsIds() {
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+      List<UCSBDiningCommonsMenuItem> items = new ArrayList<>(invocation.getArgument(0));
+      items.forEach(item -> item.setId(nextId.getAndIncrement()));
+      return items;
+    });
+  }
+
+  private List<BulkItemResult> insert(String body) throws Exception {
+    return bulkInsertService.insert(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+        UCSBDiningCommonsMenuItem.class,
+        item -> item.getName() == null ? "name is required" : null,
+        repository, UCSBDiningCommonsMenuItem::getId);
+  }
+
+  private static String item(String name) {
+    return "{\"diningCommonsCode\":\"ortega\",\"name\":\"%s\",\"station\":\"entrees\"}".formatted(name);
+  }
+
+  private static BulkItemResult created(int index, long id) {
+    return BulkItemResult.builder().index(index).status(BulkItemResult.CREATED).id(id).build();
+  }
+
+  @Test
+  void json_array_is_saved_in_chunks() throws Exception {
+    saveAllAssignsIds();
+
+    List<BulkItemResult> results = insert("[" + item("a") + "," + item("b") + "," + item("c") + "]");
+
+    assertEquals(List.of(created(0, 1), created(1, 2), created(2, 3)), results);
+    verify(repository, times(2)).saveAll(anyList());
+    verify(transactionManager, times(2)).commit(any());
+  }
+
+  @Test
+  void ndjson_is_saved_and_invalid_items_are_reported_in_order() throws Exception {
+    saveAllAssignsIds();
+
+    List<BulkItemResult> results = insert(item("a") + "\n{\"station\":\"entrees\"}\n" + item("b") + "\n");
+
+    assertEquals(List.of(
+        created(0, 1),
+        BulkItemResult.builder().index(1).status(BulkItemResult.INVALID).message("name is required").build(),
+        created(2, 2)), results);
+    verify(repository, times(1)).saveAll(anyList());
+  }
+
+  @Test
+  void empty_body_saves_nothing() throws Exception {
+    assertEquals(List.of(), insert(""));
+    assertEquals(List.of(), insert("[]"));
+    verify(repository, never()).saveAll(anyList());
+  }
+
+  @Test
+  void failed_chunk_is_rolled_back_and_reported() throws Exception {
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    when(repository.saveAll(anyList()))
+        .thenThrow(new DataIntegrityViolationException("constraint violated"))
+        .thenAnswer(invocation -> {
+          List<UCSBDiningCommonsMenuItem> items = new ArrayList<>(invocation.getArgument(0));
+          items.forEach(item -> item.setId(nextId.getAndIncrement()));
+          return items;
+        });
+
+    List<BulkItemResult> results = insert(item("a") + item("b") + item("c"));
+
+    BulkItemResult failed0 = BulkItemResult.builder().index(0).status(BulkItemResult.FAILED).message("constraint violated").build();
+    BulkItemResult failed1 = BulkItemResult.builder().index(1).status(BulkItemResult.FAILED).message("constraint violated").build();
+    assertEquals(List.of(failed0, failed1, created(2, 1)), results);
+    verify(transactionManager, times(1)).rollback(any());
+    verify(transactionManager, times(1)).commit(any());
+  }
+
+  @Test
+  void malformed_body_stops_reading_but_keeps_earlier_items() throws Exception {
+    saveAllAssignsIds();
+
+    List<BulkItemResult> results = insert(item("a") + "\n{\"name\": oops}\n" + item("c") + "\n");
+
+    assertEquals(2, results.size());
+    assertEquals(created(0, 1), results.get(0));
+    assertEquals(1, results.get(1).getIndex());
+    assertEquals(BulkItemResult.ERROR, results.get(1).getStatus());
+  }
+}
@@ -0,0 +1,127 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import edu.ucsb.cs156.example.models.ConnectionPoolStats;
+
+class ConnectionPoolStatsServiceTests {
+
+  static class SomeController {
+    public void someEndpoint() {
+    }
+  }
+
+  ConnectionPoolStatsService connectionPoolStatsService = new ConnectionPoolStatsService(1000);
+
+  @AfterEach
+  void clearRequest() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private static PoolStats poolStats(int active, int idle, int pending) {
+    return new PoolStats(0) {
+      @Override
+      protected void update() {
+        activeConnections = active;
+        idleConnections = idle;
+        pendingThreads = pending;
+        totalConnections = active + idle;
+        maxConnections = 10;
+        minConnections = 10;
+      }
+    };
+  }
+
+  @Test
+  void getStats_summarizes_each_pool_sorted_by_name() {
+    IMetricsTracker tracker = connectionPoolStatsService.create("team02", poolStats(7, 3, 2));
+    connectionPoolStatsService.create("other", poolStats(0, 10, 0));
+    tracker.recordConnectionAcquiredNanos(1_000_000);
+    tracker.recordConnectionAcquiredNanos(3_000_000);
+    tracker.recordConnectionAcquiredNanos(5_000_000);
+    tracker.recordConnectionUsageMillis(2);
+    tracker.recordConnectionUsageMillis(4);
+    tracker.recordConnectionTimeout();
+
+    List<ConnectionPoolStats> stats = connectionPoolStatsService.getStats();
+
+    assertEquals(2, stats.size());
+    assertEquals("other", stats.get(0).getPool());
+    ConnectionPoolStats team02 = stats.get(1);
+    assertEquals("team02", team02.getPool());
+    assertEquals(7, team02.getActiveConnections());
+    assertEquals(3, team02.getIdleConnections());
+    assertEquals(2, team02.getPendingThreads());
+    assertEquals(10, team02.getTotalConnections());
+    assertEquals(10, team02.getMaxConnections());
+    assertEquals(3, team02.getAcquireCount());
+    assertEquals(1, team02.getConnectionTimeouts());
+    assertEquals(3.0, team02.getAcquireMeanMillis());
+    assertEquals(3.0, team02.getAcquireP50Millis(), 0.1);
+    assertEquals(5.0, team02.getAcquireP95Millis(), 0.2);
+    assertEquals(5.0, team02.getAcquireP99Millis(), 0.2);
+    assertEquals(5.0, team02.getAcquireMaxMillis());
+    assertEquals(2.0, team02.getUsageP50Millis(), 0.1);
+    assertEquals(4.0, team02.getUsageP95Millis(), 0.2);
+    assertEquals(4.0, team02.getUsageP99Millis(), 0.2);
+    assertEquals(4.0, team02.getUsageMaxMillis());
+  }
+
+  @Test
+  void closed_pools_are_no_longer_reported() {
+    IMetricsTracker tracker = connectionPoolStatsService.create("team02", poolStats(0, 10, 0));
+    tracker.close();
+    assertEquals(List.of(), connectionPoolStatsService.getStats());
+  }
+
+  @Test
+  void connections_held_past_the_leak_threshold_are_still_recorded() {
+    IMetricsTracker tracker = connectionPoolStatsService.create("team02", poolStats(1, 9, 0));
+    tracker.recordConnectionUsageMillis(999);
+    tracker.recordConnectionUsageMillis(1000);
+    assertEquals(1000.0, connectionPoolStatsService.getStats().get(0).getUsageMaxMillis());
+  }
+
+  @Test
+  void leak_warnings_can_be_turned_off() {
+    ConnectionPoolStatsService withoutLeakDetection = new ConnectionPoolStatsService(0);
+    IMetricsTracker tracker = withoutLeakDetection.create("team02", poolStats(1, 9, 0));
+    tracker.recordConnectionUsageMillis(60_000);
+    assertEquals(60_000.0, withoutLeakDetection.getStats().get(0).getUsageMaxMillis());
+  }
+
+  @Test
+  void currentEndpoint_names_the_controller_method_handling_the_request() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+        new HandlerMethod(new SomeController(), "someEndpoint"));
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    assertEquals("SomeController.someEndpoint", ConnectionPoolStatsService.currentEndpoint());
+  }
+
+  @Test
+  void currentEndpoint_names_the_thread_before_a_handler_is_chosen() {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+    assertEquals("thread " + Thread.currentThread().getName(), ConnectionPoolStatsService.currentEndpoint());
+  }
+
+  @Test
+  void currentEndpoint_names_the_thread_outside_of_a_request() {
+    assertEquals("thread " + Thread.currentThread().getName(), ConnectionPoolStatsService.currentEndpoint());
+  }
+}
@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+class CurrentUserServiceImplTests {
+
+  UserRepository userRepository = mock(UserRepository.class);
+
+  CurrentUserServiceImpl currentUserService = new CurrentUserServiceImpl();
+
+  @BeforeEach
+  void setup() {
+    AdminLookupService adminLookupService = new AdminLookupService(List.of("admingaucho@ucsb.edu"));
+    adminLookupService.userRepository = userRepository;
+    adminLookupService.userCacheService = new UserCacheService(10, Duration.ofMinutes(5));
+    UserProvisioningService userProvisioningService = new UserProvisioningService();
+    userProvisioningService.userRepository = userRepository;
+    userProvisioningService.adminLookupService = adminLookupService;
+    currentUserService.adminLookupService = adminLookupService;
+    currentUserService.userProvisioningService = userProvisioningService;
+  }
+
+  @AfterEach
+  void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private static void logInWithOAuth2(String email) {
+    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    DefaultOAuth2User oAuthUser = new DefaultOAuth2User(authorities,
+        Map.of("email", email, "sub", "115856948234298493496", "name", "Chris Gaucho"), "email");
+    SecurityContextHolder.getContext().setAuthentication(
+        new OAuth2AuthenticationToken(oAuthUser, authorities, "my-oauth-provider"));
+  }
+
+  @Test
+  void getUser_returns_the_row_of_the_logged_in_user_and_caches_it() {
+    User user = User.builder().id(7).email("cgaucho@ucsb.edu").admin(false).build();
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(user));
+    logInWithOAuth2("cgaucho@ucsb.edu");
+
+    assertSame(user, currentUserService.getUser());
+    assertSame(user, currentUserService.getUser());
+
+    verify(userRepository).findByEmail("cgaucho@ucsb.edu");
+    verify(userRepository, never()).save(any(User.class));
+  }
+
+  @Test
+  void getUser_without_a_row_returns_an_unsaved_user_and_does_not_write() {
+    when(userRepository.findByEmail("admingaucho@ucsb.edu")).thenReturn(Optional.empty());
+    logInWithOAuth2("admingaucho@ucsb.edu");
+
+    User u = currentUserService.getUser();
+
+    assertEquals(0L, u.getId());
+    assertEquals("admingaucho@ucsb.edu", u.getEmail());
+    assertEquals("Chris Gaucho", u.getFullName());
+    assertTrue(u.getAdmin());
+    verify(userRepository, never()).save(any(User.class));
+  }
+
+  @Test
+  void getUser_returns_null_without_an_OAuth2_login() {
+    SecurityContextHolder.getContext().setAuthentication(
+        new UsernamePasswordAuthenticationToken("cgaucho@ucsb.edu", "password"));
+
+    assertNull(currentUserService.getUser());
+    verify(userRepository, never()).findByEmail(any());
+  }
+}
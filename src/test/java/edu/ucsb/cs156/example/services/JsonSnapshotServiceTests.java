@@ -0,0 +1,119 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.services.JsonSnapshotService.Snapshot;
+
+@ExtendWith(MockitoExtension.class)
+class JsonSnapshotServiceTests {
+
+  @Mock
+  TableVersionService tableVersionService;
+
+  @Spy
+  ObjectMapper mapper = new ObjectMapper();
+
+  @Spy
+  SyncTaskExecutor taskExecutor = new SyncTaskExecutor();
+
+  @InjectMocks
+  JsonSnapshotService jsonSnapshotService;
+
+  List<UCSBDiningCommons> commons = List.of(UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build());
+
+  List<UCSBDiningCommons> moreCommons = List.of(
+      UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build(),
+      UCSBDiningCommons.builder().code("ortega").name("Ortega").build());
+
+  @Test
+  void get_serializes_once_while_the_table_is_unchanged() throws Exception {
+    // arrange
+    when(tableVersionService.version(UCSBDiningCommons.class)).thenReturn(3L);
+
+    // act
+    Snapshot first = jsonSnapshotService.get(UCSBDiningCommons.class, () -> commons);
+    Snapshot second = jsonSnapshotService.get(UCSBDiningCommons.class, () -> moreCommons);
+
+    // assert
+    verify(mapper, times(1)).writeValueAsBytes(commons);
+    assertSame(first, second);
+    assertEquals(3L, first.version());
+    assertArrayEquals(mapper.writeValueAsBytes(commons), first.json());
+    assertArrayEquals(first.json(), new GZIPInputStream(new ByteArrayInputStream(first.gzip())).readAllBytes());
+  }
+
+  @Test
+  void get_rebuilds_after_the_table_changes() throws Exception {
+    // arrange
+    when(tableVersionService.version(UCSBDiningCommons.class)).thenReturn(3L, 4L);
+
+    // act
+    jsonSnapshotService.get(UCSBDiningCommons.class, () -> commons);
+    Snapshot snapshot = jsonSnapshotService.get(UCSBDiningCommons.class, () -> moreCommons);
+
+    // assert
+    assertEquals(4L, snapshot.version());
+    assertArrayEquals(mapper.writeValueAsBytes(moreCommons), snapshot.json());
+  }
+
+  @Test
+  void build_does_not_replace_a_snapshot_of_a_later_version() throws Exception {
+    // arrange
+    when(tableVersionService.version(UCSBDiningCommons.class)).thenReturn(5L, 4L, 5L);
+
+    // act
+    Snapshot newer = jsonSnapshotService.build(UCSBDiningCommons.class, () -> moreCommons);
+    jsonSnapshotService.build(UCSBDiningCommons.class, () -> commons);
+
+    // assert
+    assertSame(newer, jsonSnapshotService.get(UCSBDiningCommons.class, () -> commons));
+  }
+
+  @Test
+  void refreshAsync_rebuilds_with_the_executor() throws Exception {
+    // arrange
+    when(tableVersionService.version(UCSBDiningCommons.class)).thenReturn(1L);
+
+    // act
+    jsonSnapshotService.refreshAsync(UCSBDiningCommons.class, () -> commons);
+
+    // assert
+    verify(taskExecutor, times(1)).execute(any());
+    assertArrayEquals(mapper.writeValueAsBytes(commons),
+        jsonSnapshotService.get(UCSBDiningCommons.class, () -> moreCommons).json());
+  }
+
+  @Test
+  void refreshAsync_logs_instead_of_throwing_when_the_rows_cannot_be_serialized() {
+    jsonSnapshotService.refreshAsync(UCSBDiningCommons.class, Object::new);
+    verify(taskExecutor, times(1)).execute(any());
+  }
+
+  @Test
+  void get_throws_when_the_rows_cannot_be_serialized() {
+    assertThrows(UncheckedIOException.class, () -> jsonSnapshotService.get(UCSBDiningCommons.class, Object::new));
+  }
+}
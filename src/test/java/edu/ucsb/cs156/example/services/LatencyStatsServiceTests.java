@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.models.LatencyStats;
+
+class LatencyStatsServiceTests {
+
+  LatencyStatsService latencyStatsService = new LatencyStatsService();
+
+  @Test
+  void getStats_summarizes_each_endpoint_sorted_by_name() {
+    latencyStatsService.record("UCSBDatesController.allUCSBDates", 200, 2_000_000);
+    latencyStatsService.record("ArticlesController.allArticles", 200, 1_000_000);
+    latencyStatsService.record("ArticlesController.allArticles", 200, 3_000_000);
+    latencyStatsService.record("ArticlesController.allArticles", 404, 5_000_000);
+
+    List<LatencyStats> stats = latencyStatsService.getStats();
+
+    assertEquals(2, stats.size());
+    LatencyStats articles = stats.get(0);
+    assertEquals("ArticlesController.allArticles", articles.getEndpoint());
+    assertEquals(3, articles.getCount());
+    assertEquals(3.0, articles.getMeanMillis());
+    assertEquals(3.0, articles.getP50Millis(), 0.1);
+    assertEquals(5.0, articles.getP95Millis(), 0.2);
+    assertEquals(5.0, articles.getP99Millis(), 0.2);
+    assertEquals(5.0, articles.getMaxMillis());
+    assertEquals(Map.of(200, 2L, 404, 1L), articles.getStatusCounts());
+    assertEquals("UCSBDatesController.allUCSBDates", stats.get(1).getEndpoint());
+  }
+
+  @Test
+  void reset_forgets_everything() {
+    latencyStatsService.record("ArticlesController.allArticles", 200, 1_000_000);
+    latencyStatsService.reset();
+    assertEquals(List.of(), latencyStatsService.getStats());
+  }
+}
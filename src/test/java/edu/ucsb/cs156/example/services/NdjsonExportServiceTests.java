@@ -0,0 +1,107 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(MockitoExtension.class)
+class NdjsonExportServiceTests {
+
+  @Mock
+  EntityManager entityManager;
+
+  @Mock
+  PlatformTransactionManager transactionManager;
+
+  @Spy
+  ObjectMapper mapper = new ObjectMapper();
+
+  @InjectMocks
+  NdjsonExportService ndjsonExportService;
+
+  @Test
+  void export_writes_one_json_object_per_line_and_detaches_each_row() throws Exception {
+    // arrange
+    Restaurant restaurant1 = Restaurant.builder().id(1L).name("Freebirds").description("Burritos").build();
+    Restaurant restaurant2 = Restaurant.builder().id(2L).name("Chipotle").description("Mexican").build();
+    AtomicBoolean closed = new AtomicBoolean(false);
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+    // act
+    ResponseEntity<StreamingResponseBody> response = ndjsonExportService
+        .export(() -> Stream.of(restaurant1, restaurant2).onClose(() -> closed.set(true)));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    response.getBody().writeTo(out);
+
+    // assert
+    assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+    String expected = mapper.writeValueAsString(restaurant1) + "\n" + mapper.writeValueAsString(restaurant2) + "\n";
+    assertEquals(expected, out.toString());
+    assertTrue(closed.get());
+    verify(entityManager, times(1)).detach(restaurant1);
+    verify(entityManager, times(1)).detach(restaurant2);
+
+    ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager, times(1)).getTransaction(definition.capture());
+    assertTrue(definition.getValue().isReadOnly());
+    verify(transactionManager, times(1)).commit(any());
+  }
+
+  @Test
+  void export_of_empty_table_writes_nothing() throws Exception {
+    // arrange
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+    // act
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ndjsonExportService.export(Stream::empty).getBody().writeTo(out);
+
+    // assert
+    assertEquals("", out.toString());
+    verify(transactionManager, times(1)).commit(any());
+  }
+
+  @Test
+  void export_rolls_back_and_rethrows_when_a_row_cannot_be_written() throws Exception {
+    // arrange
+    Object unserializable = new Object();
+    when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+    // act
+    StreamingResponseBody body = ndjsonExportService.export(() -> Stream.of(unserializable)).getBody();
+
+    // assert
+    assertThrows(InvalidDefinitionException.class, () -> body.writeTo(new ByteArrayOutputStream()));
+    verify(entityManager, never()).detach(unserializable);
+    verify(transactionManager, times(1)).rollback(any());
+  }
+}
@@ -0,0 +1,99 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBOrganization;
+import edu.ucsb.cs156.example.models.CacheStats;
+
+class ReferenceCacheServiceTests {
+
+  ReferenceCacheService referenceCacheService = new ReferenceCacheService(10, Duration.ofMinutes(5));
+
+  TableVersionService tableVersionService = new TableVersionService();
+
+  UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build();
+  UCSBDiningCommons ortega = UCSBDiningCommons.builder().code("ortega").name("Ortega").build();
+
+  AtomicInteger loads = new AtomicInteger();
+
+  @BeforeEach
+  void setup() {
+    referenceCacheService.tableVersionService = tableVersionService;
+  }
+
+  @Test
+  void findAll_loads_once_and_returns_an_unmodifiable_copy() {
+    List<UCSBDiningCommons> first = referenceCacheService.findAll(UCSBDiningCommons.class, () -> {
+      loads.incrementAndGet();
+      return List.of(carrillo, ortega);
+    });
+    List<UCSBDiningCommons> second = referenceCacheService.findAll(UCSBDiningCommons.class, List::of);
+
+    assertEquals(List.of(carrillo, ortega), first);
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+    assertThrows(UnsupportedOperationException.class, () -> first.add(carrillo));
+  }
+
+  @Test
+  void findById_loads_once_per_id_and_does_not_cache_missing_rows() {
+    assertSame(carrillo, referenceCacheService.findById(UCSBDiningCommons.class, "carrillo", code -> {
+      loads.incrementAndGet();
+      return Optional.of(carrillo);
+    }).get());
+    assertSame(carrillo, referenceCacheService.findById(UCSBDiningCommons.class, "carrillo", code -> Optional.empty()).get());
+    assertEquals(1, loads.get());
+
+    assertTrue(referenceCacheService.findById(UCSBDiningCommons.class, "munger-hall", code -> Optional.empty()).isEmpty());
+    assertSame(ortega, referenceCacheService.findById(UCSBDiningCommons.class, "munger-hall", code -> Optional.of(ortega)).get());
+  }
+
+  @Test
+  void invalidate_clears_only_that_table() {
+    referenceCacheService.findById(UCSBDiningCommons.class, "carrillo", code -> Optional.of(carrillo));
+    UCSBOrganization org = UCSBOrganization.builder().orgCode("ZPR").build();
+    referenceCacheService.findById(UCSBOrganization.class, "ZPR", code -> Optional.of(org));
+
+    referenceCacheService.invalidate(UCSBDiningCommons.class);
+
+    assertSame(ortega, referenceCacheService.findById(UCSBDiningCommons.class, "carrillo", code -> Optional.of(ortega)).get());
+    assertSame(org, referenceCacheService.findById(UCSBOrganization.class, "ZPR", code -> Optional.empty()).get());
+  }
+
+  @Test
+  void entries_loaded_before_a_table_changes_are_not_returned_after_it() {
+    referenceCacheService.findById(UCSBDiningCommons.class, "carrillo", code -> Optional.of(carrillo));
+
+    tableVersionService.bump(UCSBDiningCommons.class);
+
+    assertSame(ortega, referenceCacheService.findById(UCSBDiningCommons.class, "carrillo", code -> Optional.of(ortega)).get());
+  }
+
+  @Test
+  void getStats_returns_one_entry_per_table_ordered_by_name() {
+    referenceCacheService.findAll(UCSBOrganization.class, List::of);
+    referenceCacheService.findAll(UCSBDiningCommons.class, List::of);
+    referenceCacheService.findAll(UCSBDiningCommons.class, List::of);
+
+    List<CacheStats> stats = referenceCacheService.getStats();
+
+    assertEquals(2, stats.size());
+    assertEquals("UCSBDiningCommons", stats.get(0).getName());
+    assertEquals(1, stats.get(0).getHits());
+    assertEquals(1, stats.get(0).getMisses());
+    assertEquals(10, stats.get(0).getMaxSize());
+    assertEquals("UCSBOrganization", stats.get(1).getName());
+  }
+}
@@ -0,0 +1,79 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import edu.ucsb.cs156.example.models.SecondLevelCacheStats;
+import jakarta.persistence.EntityManagerFactory;
+
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheStatsServiceTests {
+
+  @Mock
+  EntityManagerFactory entityManagerFactory;
+
+  @Mock
+  SessionFactory sessionFactory;
+
+  @Mock
+  Statistics statistics;
+
+  @InjectMocks
+  SecondLevelCacheStatsService secondLevelCacheStatsService;
+
+  @BeforeEach
+  void setup() {
+    when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+    when(sessionFactory.getStatistics()).thenReturn(statistics);
+  }
+
+  private static CacheRegionStatistics region(String name, long elements, long hits, long misses, long puts) {
+    CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+    when(region.getRegionName()).thenReturn(name);
+    when(region.getElementCountInMemory()).thenReturn(elements);
+    when(region.getHitCount()).thenReturn(hits);
+    when(region.getMissCount()).thenReturn(misses);
+    when(region.getPutCount()).thenReturn(puts);
+    return region;
+  }
+
+  @Test
+  void getStats_summarizes_each_region_sorted_by_name() {
+    CacheRegionStatistics users = region("users", 2, 3, 1, 1);
+    CacheRegionStatistics articles = region("articles", 0, 0, 0, 0);
+    when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[] { "users", "articles" });
+    when(statistics.getCacheRegionStatistics("users")).thenReturn(users);
+    when(statistics.getCacheRegionStatistics("articles")).thenReturn(articles);
+
+    List<SecondLevelCacheStats> stats = secondLevelCacheStatsService.getStats();
+
+    SecondLevelCacheStats expectedArticles = SecondLevelCacheStats.builder()
+        .region("articles").elementsInMemory(0).hits(0).misses(0).puts(0).hitRate(0.0)
+        .build();
+    SecondLevelCacheStats expectedUsers = SecondLevelCacheStats.builder()
+        .region("users").elementsInMemory(2).hits(3).misses(1).puts(1).hitRate(0.75)
+        .build();
+    assertEquals(List.of(expectedArticles, expectedUsers), stats);
+  }
+
+  @Test
+  void getStats_skips_regions_without_statistics() {
+    when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[] { "default-update-timestamps-region" });
+    when(statistics.getCacheRegionStatistics("default-update-timestamps-region")).thenReturn(null);
+
+    assertEquals(List.of(), secondLevelCacheStatsService.getStats());
+  }
+}
@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+
+/**
+ * The assets used here are under src/test/resources/static-assets.
+ */
+class StaticAssetServiceTests {
+
+  StaticAssetService staticAssets;
+
+  @BeforeEach
+  void loadAssets() throws Exception {
+    staticAssets = new StaticAssetService("classpath*:static-assets/");
+  }
+
+  private static byte[] bytesOf(String path) throws Exception {
+    return new ClassPathResource("static-assets" + path).getContentAsByteArray();
+  }
+
+  @Test
+  void assets_are_loaded_with_their_precompressed_copies() throws Exception {
+    StaticAssetService.Asset asset = staticAssets.find("/static/js/main.test.js");
+
+    assertArrayEquals(bytesOf("/static/js/main.test.js"), asset.body());
+    assertArrayEquals(bytesOf("/static/js/main.test.js.gz"), asset.gzip());
+    assertArrayEquals(bytesOf("/static/js/main.test.js.br"), asset.brotli());
+    assertEquals("\"" + DigestUtils.md5DigestAsHex(asset.body()) + "\"", asset.etag());
+    assertFalse(asset.immutable());
+  }
+
+  @Test
+  void precompressed_copies_are_not_assets_of_their_own() {
+    assertNull(staticAssets.find("/static/js/main.test.js.gz"));
+    assertNull(staticAssets.find("/static/js/main.test.js.br"));
+  }
+
+  @Test
+  void assets_with_a_hash_in_their_name_are_immutable() {
+    StaticAssetService.Asset asset = staticAssets.find("/static/css/main.1a2b3c4d.css");
+
+    assertTrue(asset.immutable());
+    assertEquals(MediaType.valueOf("text/css"), asset.contentType());
+    assertNull(asset.gzip());
+    assertNull(asset.brotli());
+  }
+
+  @Test
+  void root_is_index_html() {
+    StaticAssetService.Asset index = staticAssets.find("/index.html");
+
+    assertNotNull(index);
+    assertSame(index, staticAssets.find("/"));
+    assertEquals(MediaType.TEXT_HTML, index.contentType());
+    assertFalse(index.immutable());
+  }
+
+  @Test
+  void there_is_no_root_without_index_html() throws Exception {
+    StaticAssetService css = new StaticAssetService("classpath*:static-assets/static/css/");
+
+    assertNotNull(css.find("/main.1a2b3c4d.css"));
+    assertNull(css.find("/"));
+  }
+
+  @Test
+  void unknown_paths_are_not_found() {
+    assertNull(staticAssets.find("/api/restaurants/all"));
+  }
+}
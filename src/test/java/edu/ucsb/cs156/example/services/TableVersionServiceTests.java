@@ -0,0 +1,363 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import edu.ucsb.cs156.example.entities.Articles;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+
+class TableVersionServiceTests {
+
+  private static final String READ = "SELECT VERSION FROM TABLE_VERSIONS WHERE TABLE_NAME = ?";
+  private static final String BUMP = "UPDATE TABLE_VERSIONS SET VERSION = VERSION + 1 WHERE TABLE_NAME = ?";
+  private static final String CREATE = "INSERT INTO TABLE_VERSIONS (TABLE_NAME, VERSION) VALUES (?, ?)";
+
+  TableVersionService tableVersionService = new TableVersionService();
+
+  JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+  AtomicLong now = new AtomicLong();
+  TableVersionService databaseTableVersionService = new TableVersionService(jdbcTemplate, false, Duration.ofSeconds(1), now::get);
+  TableVersionService triggerTableVersionService = new TableVersionService(jdbcTemplate, true, Duration.ofSeconds(1), now::get);
+
+  @AfterEach
+  void clearSynchronization() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.unbindResourceIfPossible(tableVersionService);
+    TransactionSynchronizationManager.unbindResourceIfPossible(databaseTableVersionService);
+    TransactionSynchronizationManager.unbindResourceIfPossible(triggerTableVersionService);
+  }
+
+  // Tests for the in-memory versions
+
+  @Test
+  void version_starts_at_the_time_the_service_was_created_and_bump_increments_it() {
+    long before = System.currentTimeMillis();
+    TableVersionService service = new TableVersionService();
+    long after = System.currentTimeMillis();
+
+    long start = service.version(Restaurant.class);
+    assertTrue(before <= start && start <= after, Long.toString(start));
+
+    service.bump(Restaurant.class);
+    service.bump(Restaurant.class);
+    assertEquals(start + 2, service.version(Restaurant.class));
+    assertEquals(start, service.version(Articles.class));
+  }
+
+  @Test
+  void etag_is_weak_and_changes_with_the_version() {
+    long version = tableVersionService.version(Restaurant.class);
+    String before = tableVersionService.etag(Restaurant.class);
+    assertEquals("W/\"Restaurant-" + Long.toString(version, 36) + "\"", before);
+
+    tableVersionService.bump(Restaurant.class);
+
+    String after = tableVersionService.etag(Restaurant.class);
+    assertNotEquals(before, after);
+    assertEquals("W/\"Restaurant-" + Long.toString(version + 1, 36) + "\"", after);
+  }
+
+  @Test
+  void etag_differs_between_runs_of_the_application() throws Exception {
+    Thread.sleep(2);
+    assertNotEquals(tableVersionService.etag(Restaurant.class), new TableVersionService().etag(Restaurant.class));
+  }
+
+  @Test
+  void onChange_listeners_are_not_called_without_a_database() {
+    List<Class<?>> changed = new ArrayList<>();
+    tableVersionService.onChange(changed::add);
+
+    tableVersionService.version(Restaurant.class);
+    tableVersionService.bump(Restaurant.class);
+    tableVersionService.version(Restaurant.class);
+
+    assertTrue(changed.isEmpty());
+  }
+
+  @Test
+  void bumpAfterCommit_without_a_transaction_bumps_immediately() {
+    long start = tableVersionService.version(Restaurant.class);
+    tableVersionService.bumpAfterCommit(Restaurant.class);
+    assertEquals(start + 1, tableVersionService.version(Restaurant.class));
+  }
+
+  @Test
+  void bumpAfterCommit_in_a_transaction_bumps_each_table_once_after_commit() {
+    // arrange
+    long start = tableVersionService.version(Restaurant.class);
+    TransactionSynchronizationManager.initSynchronization();
+
+    // act
+    tableVersionService.bumpAfterCommit(Restaurant.class);
+    tableVersionService.bumpAfterCommit(Restaurant.class);
+    tableVersionService.bumpAfterCommit(Articles.class);
+
+    // assert
+    assertEquals(start, tableVersionService.version(Restaurant.class));
+    List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    assertEquals(1, synchronizations.size());
+
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+    synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+    assertEquals(start + 1, tableVersionService.version(Restaurant.class));
+    assertEquals(start + 1, tableVersionService.version(Articles.class));
+    assertFalse(TransactionSynchronizationManager.hasResource(tableVersionService));
+  }
+
+  @Test
+  void bumpAfterCommit_in_a_transaction_that_rolls_back_does_not_bump() {
+    // arrange
+    long start = tableVersionService.version(Restaurant.class);
+    TransactionSynchronizationManager.initSynchronization();
+
+    // act
+    tableVersionService.bumpAfterCommit(Restaurant.class);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    // assert
+    assertEquals(start, tableVersionService.version(Restaurant.class));
+    assertFalse(TransactionSynchronizationManager.hasResource(tableVersionService));
+  }
+
+  @Test
+  void change_bumps_the_version_only_if_rows_changed() {
+    long start = tableVersionService.version(Restaurant.class);
+
+    assertEquals(0, tableVersionService.change(Restaurant.class, () -> 0));
+    assertEquals(start, tableVersionService.version(Restaurant.class));
+
+    assertEquals(3, tableVersionService.change(Restaurant.class, () -> 3));
+    assertEquals(start + 1, tableVersionService.version(Restaurant.class));
+  }
+
+  // Tests for the versions kept in the TABLE_VERSIONS table
+
+  @Test
+  void tableName_is_the_entity_name_in_upper_case() {
+    assertEquals("RESTAURANTS", databaseTableVersionService.tableName(Restaurant.class));
+    assertEquals("ARTICLES", databaseTableVersionService.tableName(Articles.class));
+    assertEquals("UCSBDININGCOMMONSMENUITEM", databaseTableVersionService.tableName(UCSBDiningCommonsMenuItem.class));
+    assertEquals("STRING", databaseTableVersionService.tableName(String.class));
+  }
+
+  @Test
+  void version_is_read_from_the_database_at_most_once_per_max_staleness() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(9L));
+
+    // act and assert
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+    now.addAndGet(Duration.ofMillis(999).toNanos());
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+    verify(jdbcTemplate, times(1)).queryForList(READ, Long.class, "RESTAURANTS");
+
+    now.addAndGet(Duration.ofMillis(1).toNanos());
+    assertEquals(9, databaseTableVersionService.version(Restaurant.class));
+    verify(jdbcTemplate, times(2)).queryForList(READ, Long.class, "RESTAURANTS");
+  }
+
+  @Test
+  void onChange_listeners_are_called_when_a_new_version_is_read() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(7L), List.of(9L));
+    List<Class<?>> changed = new ArrayList<>();
+    databaseTableVersionService.onChange(changed::add);
+
+    // act and assert
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+    assertEquals(List.of(Restaurant.class), changed);
+
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+    assertEquals(List.of(Restaurant.class), changed);
+
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    assertEquals(9, databaseTableVersionService.version(Restaurant.class));
+    assertEquals(List.of(Restaurant.class, Restaurant.class), changed);
+    verify(jdbcTemplate, times(3)).queryForList(READ, Long.class, "RESTAURANTS");
+  }
+
+  @Test
+  void onChange_listeners_are_called_when_the_version_is_read_after_a_bump() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(8L));
+    when(jdbcTemplate.update(BUMP, "RESTAURANTS")).thenReturn(1);
+    List<Class<?>> changed = new ArrayList<>();
+    databaseTableVersionService.onChange(changed::add);
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+
+    // act
+    databaseTableVersionService.bump(Restaurant.class);
+
+    // assert
+    assertEquals(1, changed.size());
+    assertEquals(8, databaseTableVersionService.version(Restaurant.class));
+    assertEquals(List.of(Restaurant.class, Restaurant.class), changed);
+  }
+
+  @Test
+  void version_of_a_table_without_a_row_is_zero() {
+    when(jdbcTemplate.queryForList(READ, Long.class, "ARTICLES")).thenReturn(List.of());
+    assertEquals(0, databaseTableVersionService.version(Articles.class));
+    assertEquals("W/\"Articles-0\"", databaseTableVersionService.etag(Articles.class));
+  }
+
+  @Test
+  void bump_updates_the_row_and_reads_the_version_again() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(8L));
+    when(jdbcTemplate.update(BUMP, "RESTAURANTS")).thenReturn(1);
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+
+    // act
+    databaseTableVersionService.bump(Restaurant.class);
+
+    // assert
+    assertEquals(8, databaseTableVersionService.version(Restaurant.class));
+    verify(jdbcTemplate, never()).update(eq(CREATE), anyString(), anyLong());
+  }
+
+  @Test
+  void bump_creates_the_row_when_there_is_none() {
+    // arrange
+    when(jdbcTemplate.update(BUMP, "ARTICLES")).thenReturn(0);
+
+    // act
+    long before = System.currentTimeMillis();
+    databaseTableVersionService.bump(Articles.class);
+
+    // assert
+    verify(jdbcTemplate).update(eq(CREATE), eq("ARTICLES"), longThat(v -> v >= before));
+  }
+
+  @Test
+  void bumpAfterCommit_in_a_transaction_bumps_each_row_once_in_the_transaction() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(8L));
+    when(jdbcTemplate.update(anyString(), anyString())).thenReturn(1);
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // act
+    databaseTableVersionService.bumpAfterCommit(Restaurant.class);
+    databaseTableVersionService.bumpAfterCommit(Restaurant.class);
+    databaseTableVersionService.bumpAfterCommit(Articles.class);
+
+    // assert
+    verify(jdbcTemplate, times(1)).update(BUMP, "RESTAURANTS");
+    verify(jdbcTemplate, times(1)).update(BUMP, "ARTICLES");
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+
+    List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+    synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+    assertEquals(8, databaseTableVersionService.version(Restaurant.class));
+    assertFalse(TransactionSynchronizationManager.hasResource(databaseTableVersionService));
+  }
+
+  @Test
+  void bumpAfterCommit_in_a_transaction_that_rolls_back_keeps_the_version_read() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(8L));
+    when(jdbcTemplate.update(BUMP, "RESTAURANTS")).thenReturn(1);
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // act
+    databaseTableVersionService.bumpAfterCommit(Restaurant.class);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    // assert
+    assertEquals(7, databaseTableVersionService.version(Restaurant.class));
+    verify(jdbcTemplate, times(1)).queryForList(READ, Long.class, "RESTAURANTS");
+    assertFalse(TransactionSynchronizationManager.hasResource(databaseTableVersionService));
+  }
+
+  @Test
+  void change_in_a_transaction_bumps_the_row_before_the_commit() {
+    // arrange
+    when(jdbcTemplate.update(BUMP, "RESTAURANTS")).thenReturn(1);
+    TransactionSynchronizationManager.initSynchronization();
+
+    // act
+    int changed = databaseTableVersionService.change(Restaurant.class, () -> 2);
+
+    // assert
+    assertEquals(2, changed);
+    verify(jdbcTemplate, times(1)).update(BUMP, "RESTAURANTS");
+  }
+
+  @Test
+  void change_that_changes_nothing_does_not_bump_the_row() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    assertEquals(0, databaseTableVersionService.change(Restaurant.class, () -> 0));
+
+    verify(jdbcTemplate, never()).update(anyString(), anyString());
+    assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+  }
+
+  @Test
+  void where_triggers_bump_the_row_bump_only_reads_the_version_again() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(8L));
+    assertEquals(7, triggerTableVersionService.version(Restaurant.class));
+
+    // act
+    triggerTableVersionService.bump(Restaurant.class);
+
+    // assert
+    assertEquals(8, triggerTableVersionService.version(Restaurant.class));
+    verify(jdbcTemplate, never()).update(anyString(), anyString());
+    verify(jdbcTemplate, never()).update(anyString(), anyString(), anyLong());
+  }
+
+  @Test
+  void where_triggers_bump_the_row_bumpAfterCommit_reads_the_version_again_after_commit() {
+    // arrange
+    when(jdbcTemplate.queryForList(READ, Long.class, "RESTAURANTS")).thenReturn(List.of(7L), List.of(8L));
+    assertEquals(7, triggerTableVersionService.version(Restaurant.class));
+    TransactionSynchronizationManager.initSynchronization();
+
+    // act
+    triggerTableVersionService.bumpAfterCommit(Restaurant.class);
+    assertEquals(7, triggerTableVersionService.version(Restaurant.class));
+    List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    synchronizations.forEach(TransactionSynchronization::afterCommit);
+    synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+    // assert
+    assertEquals(8, triggerTableVersionService.version(Restaurant.class));
+    verify(jdbcTemplate, never()).update(anyString(), anyString());
+  }
+}
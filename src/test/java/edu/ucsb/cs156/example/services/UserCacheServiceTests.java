@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.User;
+
+class UserCacheServiceTests {
+
+  UserCacheService userCacheService = new UserCacheService(10, Duration.ofMinutes(5));
+
+  @Test
+  void get_uses_loader_only_on_miss() {
+    User u = User.builder().email("cgaucho@ucsb.edu").build();
+
+    assertSame(u, userCacheService.get("cgaucho@ucsb.edu", e -> u));
+    assertSame(u, userCacheService.get("cgaucho@ucsb.edu", e -> null));
+
+    assertEquals(1, userCacheService.getStats().getHits());
+    assertEquals(1, userCacheService.getStats().getMisses());
+  }
+
+  @Test
+  void put_and_invalidate() {
+    User u = User.builder().email("cgaucho@ucsb.edu").build();
+    User other = User.builder().email("cgaucho@ucsb.edu").build();
+
+    userCacheService.put(u);
+    assertSame(u, userCacheService.get("cgaucho@ucsb.edu", e -> other));
+
+    userCacheService.invalidate("cgaucho@ucsb.edu");
+    assertSame(other, userCacheService.get("cgaucho@ucsb.edu", e -> other));
+    assertEquals("users", userCacheService.getStats().getName());
+  }
+}
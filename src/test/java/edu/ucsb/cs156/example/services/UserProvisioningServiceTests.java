@@ -0,0 +1,119 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+class UserProvisioningServiceTests {
+
+  UserRepository userRepository = mock(UserRepository.class);
+
+  UserProvisioningService userProvisioningService = new UserProvisioningService();
+
+  @BeforeEach
+  void setup() {
+    AdminLookupService adminLookupService = new AdminLookupService(List.of("admingaucho@ucsb.edu"));
+    adminLookupService.userRepository = userRepository;
+    adminLookupService.userCacheService = new UserCacheService(10, Duration.ofMinutes(5));
+    userProvisioningService.userRepository = userRepository;
+    userProvisioningService.adminLookupService = adminLookupService;
+    when(userRepository.save(any(User.class))).then(returnsFirstArg());
+  }
+
+  private static OAuth2User oAuthUser(String email, Boolean emailVerified) {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("email", email);
+    attributes.put("sub", "115856948234298493496");
+    attributes.put("picture", "https://example.org/picture.jpg");
+    attributes.put("name", "Chris Gaucho");
+    attributes.put("given_name", "Chris");
+    attributes.put("family_name", "Gaucho");
+    attributes.put("locale", "en");
+    attributes.put("hd", "ucsb.edu");
+    if (emailVerified != null) {
+      attributes.put("email_verified", emailVerified);
+    }
+    return new DefaultOAuth2User(List.of(new SimpleGrantedAuthority("ROLE_USER")), attributes, "email");
+  }
+
+  @Test
+  void first_login_creates_the_user() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+
+    User u = userProvisioningService.provision(oAuthUser("cgaucho@ucsb.edu", true));
+
+    User expected = User.builder()
+        .googleSub("115856948234298493496")
+        .email("cgaucho@ucsb.edu")
+        .pictureUrl("https://example.org/picture.jpg")
+        .fullName("Chris Gaucho")
+        .givenName("Chris")
+        .familyName("Gaucho")
+        .emailVerified(true)
+        .locale("en")
+        .hostedDomain("ucsb.edu")
+        .admin(false)
+        .build();
+    assertEquals(expected, u);
+    verify(userRepository).save(expected);
+  }
+
+  @Test
+  void first_login_of_a_configured_admin_creates_an_admin() {
+    when(userRepository.findByEmail("admingaucho@ucsb.edu")).thenReturn(Optional.empty());
+
+    User u = userProvisioningService.provision(oAuthUser("admingaucho@ucsb.edu", null));
+
+    assertTrue(u.getAdmin());
+    assertFalse(u.getEmailVerified());
+    verify(userRepository).save(u);
+  }
+
+  @Test
+  void later_login_of_a_configured_admin_promotes_the_user() {
+    User existing = User.builder().email("admingaucho@ucsb.edu").admin(false).build();
+    when(userRepository.findByEmail("admingaucho@ucsb.edu")).thenReturn(Optional.of(existing));
+
+    User u = userProvisioningService.provision(oAuthUser("admingaucho@ucsb.edu", true));
+
+    assertSame(existing, u);
+    assertTrue(u.getAdmin());
+    verify(userRepository).save(existing);
+  }
+
+  @Test
+  void later_login_does_not_write_when_nothing_changed() {
+    User admin = User.builder().email("admingaucho@ucsb.edu").admin(true).build();
+    User member = User.builder().email("cgaucho@ucsb.edu").admin(false).build();
+    when(userRepository.findByEmail("admingaucho@ucsb.edu")).thenReturn(Optional.of(admin));
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(member));
+
+    assertSame(admin, userProvisioningService.provision(oAuthUser("admingaucho@ucsb.edu", true)));
+    assertSame(member, userProvisioningService.provision(oAuthUser("cgaucho@ucsb.edu", true)));
+
+    assertFalse(member.getAdmin());
+    verify(userRepository, never()).save(any(User.class));
+  }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.services.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.models.CacheStats;
+
+class TtlCacheTests {
+
+  AtomicLong now = new AtomicLong(0);
+
+  TtlCache<String, String> cache = new TtlCache<>("test", 2, Duration.ofSeconds(10), now::get);
+
+  @Test
+  void get_loads_on_miss_and_returns_cached_value_on_hit() {
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "A"; }));
+    assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "other"; }));
+
+    assertEquals(1, loads.get());
+    CacheStats stats = cache.stats();
+    assertEquals("test", stats.getName());
+    assertEquals(1, stats.getHits());
+    assertEquals(1, stats.getMisses());
+    assertEquals(0.5, stats.getHitRate());
+  }
+
+  @Test
+  void null_values_are_not_cached() {
+    assertNull(cache.get("a", k -> null));
+    assertEquals(0, cache.size());
+
+    cache.put("b", "B");
+    cache.put("b", null);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void entries_expire_after_the_ttl() {
+    cache.put("a", "A");
+
+    now.set(Duration.ofSeconds(10).toNanos() - 1);
+    assertEquals("A", cache.getIfPresent("a"));
+
+    now.set(Duration.ofSeconds(10).toNanos());
+    assertNull(cache.getIfPresent("a"));
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.stats().getEvictions());
+  }
+
+  @Test
+  void least_recently_used_entry_is_evicted_when_full() {
+    cache.put("a", "A");
+    cache.put("b", "B");
+    cache.getIfPresent("a");
+    cache.put("c", "C");
+
+    assertEquals(2, cache.size());
+    assertEquals("A", cache.getIfPresent("a"));
+    assertNull(cache.getIfPresent("b"));
+    assertEquals(1, cache.stats().getEvictions());
+  }
+
+  @Test
+  void invalidate_removes_entries() {
+    cache.put("a", "A");
+    cache.put("b", "B");
+
+    cache.invalidate("a");
+    assertNull(cache.getIfPresent("a"));
+    assertEquals(1, cache.size());
+
+    cache.invalidateAll();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void value_loaded_across_an_invalidation_is_returned_but_not_cached() {
+    assertEquals("stale", cache.get("a", k -> { cache.invalidate("a"); return "stale"; }));
+    assertNull(cache.getIfPresent("a"));
+
+    assertEquals("stale", cache.get("a", k -> { cache.invalidateAll(); return "stale"; }));
+    assertNull(cache.getIfPresent("a"));
+
+    assertEquals("fresh", cache.get("a", k -> "fresh"));
+    assertEquals("fresh", cache.getIfPresent("a"));
+  }
+
+  @Test
+  void stats_of_unused_cache() {
+    TtlCache<String, String> unused = new TtlCache<>("unused", 5, Duration.ofMinutes(5));
+    CacheStats stats = unused.stats();
+
+    assertEquals(0.0, stats.getHitRate());
+    assertEquals(5, stats.getMaxSize());
+    assertEquals(300, stats.getTtlSeconds());
+  }
+}
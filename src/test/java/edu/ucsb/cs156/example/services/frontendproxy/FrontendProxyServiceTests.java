@@ -0,0 +1,400 @@
+package edu.ucsb.cs156.example.services.frontendproxy;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpUpgradeHandler;
+import jakarta.servlet.http.WebConnection;
+
+/**
+ * The dev server is played by a local HttpServer (for stream) or a plain ServerSocket
+ * (for tunnel, which speaks HTTP on the socket itself).
+ */
+class FrontendProxyServiceTests {
+
+  private static final InetAddress LOOPBACK = InetAddress.getLoopbackAddress();
+
+  private static final String SWITCHING_PROTOCOLS = """
+      HTTP/1.1 101 Switching Protocols\r
+      Upgrade: websocket\r
+      Connection: Upgrade\r
+      Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo=\r
+      \r
+      """;
+
+  /**
+   * A request that records the handler it is upgraded to, since
+   * MockHttpServletRequest doesn't support upgrades.
+   */
+  static class UpgradableRequest extends MockHttpServletRequest {
+    HttpUpgradeHandler upgradedTo;
+
+    UpgradableRequest(String uri) {
+      super("GET", uri);
+      addHeader("Host", "localhost:8080");
+      addHeader("Upgrade", "websocket");
+      addHeader("Connection", "Upgrade");
+      addHeader("Sec-WebSocket-Key", "dGhlIHNhbXBsZSBub25jZQ==");
+      addHeader("Sec-WebSocket-Version", "13");
+    }
+
+    @Override
+    public <T extends HttpUpgradeHandler> T upgrade(Class<T> handlerClass) {
+      T handler = BeanUtils.instantiateClass(handlerClass);
+      upgradedTo = handler;
+      return handler;
+    }
+  }
+
+  /**
+   * The dev server's side of a tunnel connection, after the handshake.
+   */
+  record DevServerConnection(Socket socket, String handshake) {
+  }
+
+  ExecutorService threads = Executors.newCachedThreadPool();
+  ServerSocket devServerSocket;
+  HttpServer devServer;
+  FrontendProxyService service;
+  MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @BeforeEach
+  void setup() throws IOException {
+    devServerSocket = new ServerSocket(0, 50, LOOPBACK);
+    devServerSocket.setSoTimeout(5000);
+    service = serviceFor(devServerSocket.getLocalPort());
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    threads.shutdownNow();
+    devServerSocket.close();
+    if (devServer != null) {
+      devServer.stop(0);
+    }
+  }
+
+  private static FrontendProxyService serviceFor(int port) {
+    return new FrontendProxyService(URI.create("http://" + LOOPBACK.getHostAddress() + ":" + port),
+        Duration.ofSeconds(2));
+  }
+
+  private static int closedPort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0, 50, LOOPBACK)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  /**
+   * Starts an HttpServer as the dev server, which answers every request with the
+   * given status, an X-Frontend header and the body, and records the request.
+   */
+  private void startDevServer(int status, byte[] body, AtomicReference<URI> uri, AtomicReference<Headers> headers)
+      throws IOException {
+    devServer = HttpServer.create(new InetSocketAddress(LOOPBACK, 0), 0);
+    devServer.createContext("/", exchange -> {
+      uri.set(exchange.getRequestURI());
+      headers.set(exchange.getRequestHeaders());
+      exchange.getResponseHeaders().add("X-Frontend", "dev-server");
+      exchange.sendResponseHeaders(status, 0);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    devServer.start();
+    service = serviceFor(devServer.getAddress().getPort());
+  }
+
+  /**
+   * Accepts one connection on the ServerSocket dev server, reads the handshake and
+   * writes the answer.
+   */
+  private Future<DevServerConnection> answerHandshake(String answer) {
+    return threads.submit(() -> {
+      Socket socket = devServerSocket.accept();
+      socket.setSoTimeout(5000);
+      String handshake = readHead(socket.getInputStream());
+      socket.getOutputStream().write(answer.getBytes(StandardCharsets.ISO_8859_1));
+      socket.getOutputStream().flush();
+      return new DevServerConnection(socket, handshake);
+    });
+  }
+
+  private static String readHead(InputStream in) throws IOException {
+    ByteArrayOutputStream head = new ByteArrayOutputStream();
+    while (!head.toString(StandardCharsets.ISO_8859_1).endsWith("\r\n\r\n")) {
+      int c = in.read();
+      if (c < 0) {
+        break;
+      }
+      head.write(c);
+    }
+    return head.toString(StandardCharsets.ISO_8859_1);
+  }
+
+  private static String read(Socket socket, int length) throws IOException {
+    return new String(socket.getInputStream().readNBytes(length), StandardCharsets.ISO_8859_1);
+  }
+
+  private static void write(Socket socket, String text) throws IOException {
+    socket.getOutputStream().write(text.getBytes(StandardCharsets.ISO_8859_1));
+    socket.getOutputStream().flush();
+  }
+
+  /**
+   * The servlet container's side of an upgraded browser connection, over a real socket.
+   */
+  private static WebConnection webConnection(Socket socket) throws IOException {
+    InputStream in = socket.getInputStream();
+    OutputStream out = socket.getOutputStream();
+    return new WebConnection() {
+      @Override
+      public ServletInputStream getInputStream() {
+        return new ServletInputStream() {
+          @Override
+          public int read() throws IOException {
+            return in.read();
+          }
+
+          @Override
+          public int read(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+          }
+
+          @Override
+          public boolean isFinished() {
+            return false;
+          }
+
+          @Override
+          public boolean isReady() {
+            return true;
+          }
+
+          @Override
+          public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public ServletOutputStream getOutputStream() {
+        return new ServletOutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            out.write(b);
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+          }
+
+          @Override
+          public boolean isReady() {
+            return true;
+          }
+
+          @Override
+          public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+          }
+        };
+      }
+
+      @Override
+      public void close() throws IOException {
+        socket.close();
+      }
+    };
+  }
+
+  @Test
+  void websocket_upgrades_are_recognized() {
+    assertTrue(FrontendProxyService.isWebSocketUpgrade(new UpgradableRequest("/ws")));
+    assertFalse(FrontendProxyService.isWebSocketUpgrade(new MockHttpServletRequest("GET", "/ws")));
+  }
+
+  @Test
+  void stream_passes_the_request_on_without_hop_by_hop_headers() throws Exception {
+    AtomicReference<URI> uri = new AtomicReference<>();
+    AtomicReference<Headers> headers = new AtomicReference<>();
+    startDevServer(200, "export default App;".getBytes(StandardCharsets.UTF_8), uri, headers);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/src/App.js");
+    request.setQueryString("t=1");
+    request.addHeader("Host", "localhost:8080");
+    request.addHeader("Accept", "text/javascript");
+    request.addHeader("X-Custom", "a");
+    request.addHeader("X-Custom", "b");
+    request.addHeader("Keep-Alive", "timeout=5");
+    request.addHeader("TE", "trailers");
+
+    service.stream(request, response);
+
+    assertEquals("/src/App.js?t=1", uri.get().toString());
+    assertEquals(List.of("text/javascript"), headers.get().get("Accept"));
+    assertEquals(List.of("a", "b"), headers.get().get("X-Custom"));
+    assertEquals(List.of(LOOPBACK.getHostAddress() + ":" + devServer.getAddress().getPort()),
+        headers.get().get("Host"));
+    assertNull(headers.get().get("Keep-Alive"));
+    assertNull(headers.get().get("TE"));
+  }
+
+  @Test
+  void stream_copies_the_status_headers_and_body_back() throws Exception {
+    byte[] body = new byte[100_000];
+    for (int i = 0; i < body.length; i++) {
+      body[i] = (byte) i;
+    }
+    startDevServer(404, body, new AtomicReference<>(), new AtomicReference<>());
+
+    service.stream(new MockHttpServletRequest("GET", "/missing.js"), response);
+
+    assertEquals(404, response.getStatus());
+    assertEquals("dev-server", response.getHeader("X-Frontend"));
+    assertNull(response.getHeader("Transfer-Encoding"));
+    assertArrayEquals(body, response.getContentAsByteArray());
+  }
+
+  @Test
+  void stream_throws_ConnectException_when_the_dev_server_is_not_running() throws Exception {
+    FrontendProxyService notRunning = serviceFor(closedPort());
+
+    assertThrows(ConnectException.class,
+        () -> notRunning.stream(new MockHttpServletRequest("GET", "/"), response));
+  }
+
+  @Test
+  void tunnel_passes_the_handshake_on_and_upgrades_when_the_dev_server_answers_101() throws Exception {
+    Future<DevServerConnection> devServerSide = answerHandshake(SWITCHING_PROTOCOLS);
+    UpgradableRequest request = new UpgradableRequest("/ws");
+    request.setQueryString("token=abc");
+
+    service.tunnel(request, response);
+
+    String handshake = devServerSide.get(5, TimeUnit.SECONDS).handshake();
+    assertTrue(handshake.startsWith("GET /ws?token=abc HTTP/1.1\r\n"), handshake);
+    assertTrue(handshake.contains("Host: " + LOOPBACK.getHostAddress() + ":" + devServerSocket.getLocalPort() + "\r\n"),
+        handshake);
+    assertFalse(handshake.contains("localhost:8080"), handshake);
+    assertTrue(handshake.contains("Upgrade: websocket\r\n"), handshake);
+    assertTrue(handshake.contains("Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"), handshake);
+
+    assertNotNull(request.upgradedTo);
+    assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", response.getHeader("Sec-WebSocket-Accept"));
+    assertEquals(List.of("Upgrade"), response.getHeaders("Connection"));
+    assertEquals(List.of("websocket"), response.getHeaders("Upgrade"));
+  }
+
+  @Test
+  void tunnel_answers_502_when_the_dev_server_refuses_the_upgrade() throws Exception {
+    Future<DevServerConnection> devServerSide = answerHandshake("HTTP/1.1 404 Not Found\r\nContent-Length: 0\r\n\r\n");
+    UpgradableRequest request = new UpgradableRequest("/ws");
+
+    service.tunnel(request, response);
+
+    assertEquals(502, response.getStatus());
+    assertNull(request.upgradedTo);
+    assertEquals(-1, devServerSide.get(5, TimeUnit.SECONDS).socket().getInputStream().read());
+  }
+
+  @Test
+  void tunnel_ignores_header_lines_without_a_colon() throws Exception {
+    answerHandshake(SWITCHING_PROTOCOLS.replace("Connection: Upgrade\r\n", "Connection: Upgrade\r\nno colon here\r\n"));
+    UpgradableRequest request = new UpgradableRequest("/ws");
+
+    service.tunnel(request, response);
+
+    assertNotNull(request.upgradedTo);
+    assertEquals("s3pPLMBiTxaQ9kYGzzhZRbK+xOo=", response.getHeader("Sec-WebSocket-Accept"));
+  }
+
+  @Test
+  void tunnel_throws_ConnectException_when_the_dev_server_is_not_running() throws Exception {
+    FrontendProxyService notRunning = serviceFor(closedPort());
+
+    assertThrows(ConnectException.class, () -> notRunning.tunnel(new UpgradableRequest("/ws"), response));
+  }
+
+  @Test
+  void tunnel_copies_bytes_both_ways_until_the_browser_closes() throws Exception {
+    // the dev server sends a frame right after the handshake, in the same packet
+    Future<DevServerConnection> devServerSide = answerHandshake(SWITCHING_PROTOCOLS + "hello from the dev server");
+    UpgradableRequest request = new UpgradableRequest("/ws");
+    service.tunnel(request, response);
+    Socket devServerConnection = devServerSide.get(5, TimeUnit.SECONDS).socket();
+
+    try (ServerSocket container = new ServerSocket(0, 50, LOOPBACK);
+        Socket browser = new Socket(LOOPBACK, container.getLocalPort());
+        Socket upgraded = container.accept()) {
+      browser.setSoTimeout(5000);
+      request.upgradedTo.init(webConnection(upgraded));
+
+      assertEquals("hello from the dev server", read(browser, "hello from the dev server".length()));
+      write(browser, "hello from the browser");
+      assertEquals("hello from the browser", read(devServerConnection, "hello from the browser".length()));
+      write(devServerConnection, "and back");
+      assertEquals("and back", read(browser, "and back".length()));
+
+      browser.close();
+      assertEquals(-1, devServerConnection.getInputStream().read());
+    }
+  }
+
+  @Test
+  void tunnel_closes_the_browser_connection_when_the_dev_server_closes() throws Exception {
+    Future<DevServerConnection> devServerSide = answerHandshake(SWITCHING_PROTOCOLS);
+    UpgradableRequest request = new UpgradableRequest("/ws");
+    service.tunnel(request, response);
+    Socket devServerConnection = devServerSide.get(5, TimeUnit.SECONDS).socket();
+
+    try (ServerSocket container = new ServerSocket(0, 50, LOOPBACK);
+        Socket browser = new Socket(LOOPBACK, container.getLocalPort());
+        Socket upgraded = container.accept()) {
+      browser.setSoTimeout(5000);
+      request.upgradedTo.init(webConnection(upgraded));
+
+      devServerConnection.close();
+      assertEquals(-1, browser.getInputStream().read());
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package edu.ucsb.cs156.example.services.latency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTests {
+
+  @Test
+  void small_values_are_exact() {
+    for (long v = 0; v < 64; v++) {
+      assertEquals(v, LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(v)));
+    }
+  }
+
+  @Test
+  void large_values_are_within_one_thirty_second() {
+    for (long v = 64; v < (1L << 35); v = v * 3 + 1) {
+      long highest = LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(v));
+      assertTrue(highest >= v, "bucket of " + v + " ends at " + highest);
+      assertTrue(highest - v <= v / 32, "bucket of " + v + " ends at " + highest);
+    }
+  }
+
+  @Test
+  void buckets_are_contiguous() {
+    assertEquals(32, LatencyHistogram.bucketOf(32));
+    assertEquals(63, LatencyHistogram.bucketOf(63));
+    assertEquals(64, LatencyHistogram.bucketOf(64));
+    assertEquals(64, LatencyHistogram.bucketOf(65));
+    assertEquals(65, LatencyHistogram.bucketOf(66));
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf((1L << 36) - 1));
+    assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  void percentiles_mean_and_max() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long v = 1; v <= 100; v++) {
+      histogram.record(v * 1000);
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+    assertEquals(100, snapshot.count());
+    assertEquals(50500.0, snapshot.mean());
+    assertEquals(100000, snapshot.max());
+    assertEquals(50000, snapshot.percentile(50), 50000 / 32);
+    assertEquals(95000, snapshot.percentile(95), 95000 / 32);
+    assertEquals(99000, snapshot.percentile(99), 99000 / 32);
+    assertEquals(100000, snapshot.percentile(100));
+  }
+
+  @Test
+  void percentile_never_exceeds_max() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(1_000_001);
+    assertEquals(1_000_001, histogram.snapshot().percentile(50));
+  }
+
+  @Test
+  void values_beyond_the_range_keep_the_exact_max() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(Long.MAX_VALUE / 2);
+    assertEquals(Long.MAX_VALUE / 2, histogram.snapshot().percentile(99));
+  }
+
+  @Test
+  void negative_values_are_recorded_as_zero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+    assertEquals(0, histogram.snapshot().max());
+    assertEquals(1, histogram.snapshot().counts()[0]);
+  }
+
+  @Test
+  void empty_histogram() {
+    LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+    assertEquals(0, snapshot.count());
+    assertEquals(0.0, snapshot.mean());
+    assertEquals(0, snapshot.percentile(99));
+  }
+}
@@ -1,13 +1,25 @@
 package edu.ucsb.cs156.example.testconfig;
 
 import edu.ucsb.cs156.example.config.SecurityConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
 
+import edu.ucsb.cs156.example.services.AdminLookupService;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.JsonSnapshotService;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import edu.ucsb.cs156.example.services.UserCacheService;
+import edu.ucsb.cs156.example.services.UserProvisioningService;
+
+import java.time.Duration;
+import java.util.List;
+
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 
 @TestConfiguration
 @Import(SecurityConfig.class)
@@ -23,4 +35,35 @@ public class TestConfig {
         return new GrantedAuthoritiesService();
     }
 
+    @Bean
+    public UserCacheService userCacheService() {
+        return new UserCacheService(1000, Duration.ofMinutes(5));
+    }
+
+    @Bean
+    public AdminLookupService adminLookupService(@Value("${app.admin.emails}") List<String> adminEmails) {
+        return new AdminLookupService(adminEmails);
+    }
+
+    @Bean
+    public UserProvisioningService userProvisioningService() {
+        return new UserProvisioningService();
+    }
+
+    @Bean
+    public TableVersionService tableVersionService() {
+        return new TableVersionService();
+    }
+
+    @Bean
+    public JsonSnapshotService jsonSnapshotService() {
+        return new JsonSnapshotService();
+    }
+
+    @Bean
+    public TaskExecutor taskExecutor() {
+        // run background work (e.g. rebuilding json snapshots) synchronously, so tests are deterministic
+        return new SyncTaskExecutor();
+    }
+
 }
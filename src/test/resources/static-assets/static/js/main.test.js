@@ -0,0 +1,61 @@
+// fixture for PrecompressedAssetsIT: a stand-in for a bundle produced by npm run build
+export function item0(props) { return { id: 0, name: "Menu item 0", station: props.station }; }
+export function item1(props) { return { id: 1, name: "Menu item 1", station: props.station }; }
+export function item2(props) { return { id: 2, name: "Menu item 2", station: props.station }; }
+export function item3(props) { return { id: 3, name: "Menu item 3", station: props.station }; }
+export function item4(props) { return { id: 4, name: "Menu item 4", station: props.station }; }
+export function item5(props) { return { id: 5, name: "Menu item 5", station: props.station }; }
+export function item6(props) { return { id: 6, name: "Menu item 6", station: props.station }; }
+export function item7(props) { return { id: 7, name: "Menu item 7", station: props.station }; }
+export function item8(props) { return { id: 8, name: "Menu item 8", station: props.station }; }
+export function item9(props) { return { id: 9, name: "Menu item 9", station: props.station }; }
+export function item10(props) { return { id: 10, name: "Menu item 10", station: props.station }; }
+export function item11(props) { return { id: 11, name: "Menu item 11", station: props.station }; }
+export function item12(props) { return { id: 12, name: "Menu item 12", station: props.station }; }
+export function item13(props) { return { id: 13, name: "Menu item 13", station: props.station }; }
+export function item14(props) { return { id: 14, name: "Menu item 14", station: props.station }; }
+export function item15(props) { return { id: 15, name: "Menu item 15", station: props.station }; }
+export function item16(props) { return { id: 16, name: "Menu item 16", station: props.station }; }
+export function item17(props) { return { id: 17, name: "Menu item 17", station: props.station }; }
+export function item18(props) { return { id: 18, name: "Menu item 18", station: props.station }; }
+export function item19(props) { return { id: 19, name: "Menu item 19", station: props.station }; }
+export function item20(props) { return { id: 20, name: "Menu item 20", station: props.station }; }
+export function item21(props) { return { id: 21, name: "Menu item 21", station: props.station }; }
+export function item22(props) { return { id: 22, name: "Menu item 22", station: props.station }; }
+export function item23(props) { return { id: 23, name: "Menu item 23", station: props.station }; }
+export function item24(props) { return { id: 24, name: "Menu item 24", station: props.station }; }
+export function item25(props) { return { id: 25, name: "Menu item 25", station: props.station }; }
+export function item26(props) { return { id: 26, name: "Menu item 26", station: props.station }; }
+export function item27(props) { return { id: 27, name: "Menu item 27", station: props.station }; }
+export function item28(props) { return { id: 28, name: "Menu item 28", station: props.station }; }
+export function item29(props) { return { id: 29, name: "Menu item 29", station: props.station }; }
+export function item30(props) { return { id: 30, name: "Menu item 30", station: props.station }; }
+export function item31(props) { return { id: 31, name: "Menu item 31", station: props.station }; }
+export function item32(props) { return { id: 32, name: "Menu item 32", station: props.station }; }
+export function item33(props) { return { id: 33, name: "Menu item 33", station: props.station }; }
+export function item34(props) { return { id: 34, name: "Menu item 34", station: props.station }; }
+export function item35(props) { return { id: 35, name: "Menu item 35", station: props.station }; }
+export function item36(props) { return { id: 36, name: "Menu item 36", station: props.station }; }
+export function item37(props) { return { id: 37, name: "Menu item 37", station: props.station }; }
+export function item38(props) { return { id: 38, name: "Menu item 38", station: props.station }; }
+export function item39(props) { return { id: 39, name: "Menu item 39", station: props.station }; }
+export function item40(props) { return { id: 40, name: "Menu item 40", station: props.station }; }
+export function item41(props) { return { id: 41, name: "Menu item 41", station: props.station }; }
+export function item42(props) { return { id: 42, name: "Menu item 42", station: props.station }; }
+export function item43(props) { return { id: 43, name: "Menu item 43", station: props.station }; }
+export function item44(props) { return { id: 44, name: "Menu item 44", station: props.station }; }
+export function item45(props) { return { id: 45, name: "Menu item 45", station: props.station }; }
+export function item46(props) { return { id: 46, name: "Menu item 46", station: props.station }; }
+export function item47(props) { return { id: 47, name: "Menu item 47", station: props.station }; }
+export function item48(props) { return { id: 48, name: "Menu item 48", station: props.station }; }
+export function item49(props) { return { id: 49, name: "Menu item 49", station: props.station }; }
+export function item50(props) { return { id: 50, name: "Menu item 50", station: props.station }; }
+export function item51(props) { return { id: 51, name: "Menu item 51", station: props.station }; }
+export function item52(props) { return { id: 52, name: "Menu item 52", station: props.station }; }
+export function item53(props) { return { id: 53, name: "Menu item 53", station: props.station }; }
+export function item54(props) { return { id: 54, name: "Menu item 54", station: props.station }; }
+export function item55(props) { return { id: 55, name: "Menu item 55", station: props.station }; }
+export function item56(props) { return { id: 56, name: "Menu item 56", station: props.station }; }
+export function item57(props) { return { id: 57, name: "Menu item 57", station: props.station }; }
+export function item58(props) { return { id: 58, name: "Menu item 58", station: props.station }; }
+export function item59(props) { return { id: 59, name: "Menu item 59", station: props.station }; }